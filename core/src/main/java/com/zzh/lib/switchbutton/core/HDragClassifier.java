@@ -0,0 +1,91 @@
+package com.zzh.lib.switchbutton.core;
+
+/**
+ * 开关拖动手势分类，不依赖Android
+ * <br>
+ * 按下之后移动距离未超过touchSlop之前不做判断，超过之后只锁定一次方向：
+ * 水平方向并且可以拖动手柄的时候为{@link #STATE_DRAG}，否则为{@link #STATE_REJECT}，直到下一次按下
+ * <br>
+ * 判断只使用斜率比较，不使用三角函数
+ */
+public class HDragClassifier {
+    /**
+     * 移动距离未超过touchSlop，还未确定
+     */
+    public static final int STATE_PENDING = 0;
+    /**
+     * 确定为拖动手柄
+     */
+    public static final int STATE_DRAG = 1;
+    /**
+     * 确定不是拖动手柄，本次手势交给父view
+     */
+    public static final int STATE_REJECT = 2;
+
+    private final int mTouchSlop;
+
+    private boolean mDownOnThumb;
+    private int mState = STATE_PENDING;
+    private int mDirection = HSwitchRules.DIRECTION_NONE;
+
+    /**
+     * @param touchSlop 最小移动距离
+     */
+    public HDragClassifier(int touchSlop) {
+        mTouchSlop = touchSlop;
+    }
+
+    /**
+     * 按下
+     *
+     * @param downOnThumb 按下的时候是否在手柄上面，在手柄上面的时候可以往任意方向拖动
+     */
+    public void onDown(boolean downOnThumb) {
+        mDownOnThumb = downOnThumb;
+        mState = STATE_PENDING;
+        mDirection = HSwitchRules.DIRECTION_NONE;
+    }
+
+    /**
+     * 移动
+     *
+     * @param checked        当前是否选中
+     * @param deltaXFromDown 当前点和按下点之间的x轴方向增量
+     * @param deltaYFromDown 当前点和按下点之间的y轴方向增量
+     * @return {@link #STATE_PENDING}，{@link #STATE_DRAG}，{@link #STATE_REJECT}
+     */
+    public int onMove(boolean checked, float deltaXFromDown, float deltaYFromDown) {
+        if (mState != STATE_PENDING)
+            return mState;
+
+        final int direction = HSwitchRules.lockDirection(deltaXFromDown, deltaYFromDown, mTouchSlop);
+        if (direction == HSwitchRules.DIRECTION_NONE)
+            return STATE_PENDING;
+
+        mDirection = direction;
+        if (direction == HSwitchRules.DIRECTION_HORIZONTAL
+                && (mDownOnThumb || HSwitchRules.canPull(checked, deltaXFromDown, deltaYFromDown))) {
+            mState = STATE_DRAG;
+        } else {
+            mState = STATE_REJECT;
+        }
+        return mState;
+    }
+
+    public int getState() {
+        return mState;
+    }
+
+    /**
+     * 返回锁定的方向，{@link HSwitchRules#DIRECTION_NONE}表示还未确定
+     *
+     * @return {@link HSwitchRules#DIRECTION_NONE}，{@link HSwitchRules#DIRECTION_HORIZONTAL}，{@link HSwitchRules#DIRECTION_VERTICAL}
+     */
+    public int getDirection() {
+        return mDirection;
+    }
+
+    public boolean isDownOnThumb() {
+        return mDownOnThumb;
+    }
+}
@@ -0,0 +1,372 @@
+/*
+ * Copyright (C) 2006 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zzh.lib.switchbutton.core;
+
+/**
+ * 纯Java实现的滚动计算，滚动曲线和惯性滑动曲线和android.widget.Scroller(默认插值器)一致
+ * <br>
+ * 样条和粘性流体插值的常量和算法移植自AOSP的android.widget.Scroller，按Apache License 2.0使用
+ * <br>
+ * 时间从{@link HFrameClock}读取，使用{@link HManualFrameClock}可以逐帧计算，{@link #computeScrollOffset()}不创建任何对象
+ */
+public class HEasingScrollerApi implements HScrollerApi {
+    private static final int SCROLL_MODE = 0;
+    private static final int FLING_MODE = 1;
+
+    /**
+     * 默认摩擦系数，和android.view.ViewConfiguration#getScrollFriction()一致
+     */
+    public static final float DEFAULT_FRICTION = 0.015f;
+
+    private static final float GRAVITY_EARTH = 9.80665f;
+    private static final float DECELERATION_RATE = (float) (Math.log(0.78) / Math.log(0.9));
+    private static final float INFLEXION = 0.35f;
+    private static final float START_TENSION = 0.5f;
+    private static final float END_TENSION = 1.0f;
+    private static final float P1 = START_TENSION * INFLEXION;
+    private static final float P2 = 1.0f - END_TENSION * (1.0f - INFLEXION);
+
+    private static final int NB_SAMPLES = 100;
+    private static final float[] SPLINE_POSITION = new float[NB_SAMPLES + 1];
+
+    private static final float VISCOUS_FLUID_SCALE = 8.0f;
+    private static final float VISCOUS_FLUID_NORMALIZE;
+    private static final float VISCOUS_FLUID_OFFSET;
+
+    static {
+        float xMin = 0.0f;
+        for (int i = 0; i < NB_SAMPLES; i++) {
+            final float alpha = (float) i / NB_SAMPLES;
+
+            float xMax = 1.0f;
+            float x, tx, coef;
+            while (true) {
+                x = xMin + (xMax - xMin) / 2.0f;
+                coef = 3.0f * x * (1.0f - x);
+                tx = coef * ((1.0f - x) * P1 + x * P2) + x * x * x;
+                if (Math.abs(tx - alpha) < 1E-5)
+                    break;
+                if (tx > alpha)
+                    xMax = x;
+                else
+                    xMin = x;
+            }
+            SPLINE_POSITION[i] = coef * ((1.0f - x) * START_TENSION + x) + x * x * x;
+        }
+        SPLINE_POSITION[NB_SAMPLES] = 1.0f;
+
+        VISCOUS_FLUID_NORMALIZE = 1.0f / viscousFluid(1.0f);
+        VISCOUS_FLUID_OFFSET = 1.0f - VISCOUS_FLUID_NORMALIZE * viscousFluid(1.0f);
+    }
+
+    private final HFrameClock mClock;
+    /**
+     * 和屏幕密度相关的物理系数
+     */
+    private final float mPhysicalCoeff;
+    private float mFlingFriction = DEFAULT_FRICTION;
+    private float mDeceleration;
+    private final float mPpi;
+
+    private int mMode;
+    private int mStartX;
+    private int mStartY;
+    private int mFinalX;
+    private int mFinalY;
+    private int mMinX;
+    private int mMaxX;
+    private int mMinY;
+    private int mMaxY;
+    private int mCurrX;
+    private int mCurrY;
+    private long mStartTime;
+    private int mDuration;
+    private float mDurationReciprocal;
+    private float mDeltaX;
+    private float mDeltaY;
+    private boolean mFinished = true;
+    private float mVelocity;
+    private float mCurrVelocity;
+    private int mDistance;
+
+    /**
+     * @param density 屏幕密度，android.util.DisplayMetrics#density
+     */
+    public HEasingScrollerApi(float density) {
+        this(density, HFrameClock.SYSTEM);
+    }
+
+    /**
+     * @param density 屏幕密度，android.util.DisplayMetrics#density
+     * @param clock   动画时钟
+     */
+    public HEasingScrollerApi(float density, HFrameClock clock) {
+        if (clock == null)
+            throw new NullPointerException();
+
+        mClock = clock;
+        mPpi = density * 160.0f;
+        mDeceleration = computeDeceleration(DEFAULT_FRICTION);
+        mPhysicalCoeff = computeDeceleration(0.84f);
+    }
+
+    private static float viscousFluid(float x) {
+        x *= VISCOUS_FLUID_SCALE;
+        if (x < 1.0f) {
+            x -= (1.0f - (float) Math.exp(-x));
+        } else {
+            final float start = 0.36787944117f;   // 1/e == exp(-1)
+            x = 1.0f - (float) Math.exp(1.0f - x);
+            x = start + x * (1.0f - start);
+        }
+        return x;
+    }
+
+    /**
+     * 默认滚动插值，和android.widget.Scroller默认的插值器一致
+     *
+     * @param input [0-1]
+     * @return
+     */
+    public static float getViscousFluidInterpolation(float input) {
+        final float interpolated = VISCOUS_FLUID_NORMALIZE * viscousFluid(input);
+        if (interpolated > 0)
+            return interpolated + VISCOUS_FLUID_OFFSET;
+        return interpolated;
+    }
+
+    /**
+     * 默认滚动插值的导数，用于计算滚动中的速度
+     *
+     * @param input [0-1]
+     * @return
+     */
+    public static float getViscousFluidVelocity(float input) {
+        final float x = input * VISCOUS_FLUID_SCALE;
+        final float derivative;
+        if (x < 1.0f) {
+            derivative = 1.0f - (float) Math.exp(-x);
+        } else {
+            final float start = 0.36787944117f;   // 1/e == exp(-1)
+            derivative = (float) Math.exp(1.0f - x) * (1.0f - start);
+        }
+        return VISCOUS_FLUID_NORMALIZE * VISCOUS_FLUID_SCALE * derivative;
+    }
+
+    private float computeDeceleration(float friction) {
+        return GRAVITY_EARTH   // g (m/s^2)
+                * 39.37f       // inch/meter
+                * mPpi         // pixels per inch
+                * friction;
+    }
+
+    @Override
+    public void setFriction(float friction) {
+        mDeceleration = computeDeceleration(friction);
+        mFlingFriction = friction;
+    }
+
+    @Override
+    public void startScroll(int startX, int startY, int dx, int dy, int duration) {
+        mMode = SCROLL_MODE;
+        mFinished = false;
+        mDuration = duration;
+        mStartTime = mClock.currentTimeMillis();
+        mStartX = startX;
+        mStartY = startY;
+        mFinalX = startX + dx;
+        mFinalY = startY + dy;
+        mDeltaX = dx;
+        mDeltaY = dy;
+        mDurationReciprocal = 1.0f / (float) mDuration;
+    }
+
+    @Override
+    public void fling(int startX, int startY, int velocityX, int velocityY, int minX, int maxX, int minY, int maxY) {
+        // 继续之前方向相同的惯性滑动
+        if (!mFinished) {
+            final float oldVel = getCurrVelocity();
+
+            final float dx = (float) (mFinalX - mStartX);
+            final float dy = (float) (mFinalY - mStartY);
+            final float hyp = (float) Math.hypot(dx, dy);
+
+            if (hyp > 0) {
+                final float oldVelocityX = dx / hyp * oldVel;
+                final float oldVelocityY = dy / hyp * oldVel;
+                if (Math.signum(velocityX) == Math.signum(oldVelocityX)
+                        && Math.signum(velocityY) == Math.signum(oldVelocityY)) {
+                    velocityX += oldVelocityX;
+                    velocityY += oldVelocityY;
+                }
+            }
+        }
+
+        mMode = FLING_MODE;
+        mFinished = false;
+
+        final float velocity = (float) Math.hypot(velocityX, velocityY);
+
+        mVelocity = velocity;
+        mDuration = getSplineFlingDuration(velocity);
+        mStartTime = mClock.currentTimeMillis();
+        mStartX = startX;
+        mStartY = startY;
+
+        final float coeffX = velocity == 0 ? 1.0f : velocityX / velocity;
+        final float coeffY = velocity == 0 ? 1.0f : velocityY / velocity;
+
+        final double totalDistance = getSplineFlingDistance(velocity);
+        mDistance = (int) (totalDistance * Math.signum(velocity));
+
+        mMinX = minX;
+        mMaxX = maxX;
+        mMinY = minY;
+        mMaxY = maxY;
+
+        mFinalX = startX + (int) Math.round(totalDistance * coeffX);
+        mFinalX = Math.max(mMinX, Math.min(mFinalX, mMaxX));
+
+        mFinalY = startY + (int) Math.round(totalDistance * coeffY);
+        mFinalY = Math.max(mMinY, Math.min(mFinalY, mMaxY));
+    }
+
+    private double getSplineDeceleration(float velocity) {
+        return Math.log(INFLEXION * Math.abs(velocity) / (mFlingFriction * mPhysicalCoeff));
+    }
+
+    private int getSplineFlingDuration(float velocity) {
+        final double l = getSplineDeceleration(velocity);
+        final double decelMinusOne = DECELERATION_RATE - 1.0;
+        return (int) (1000.0 * Math.exp(l / decelMinusOne));
+    }
+
+    private double getSplineFlingDistance(float velocity) {
+        final double l = getSplineDeceleration(velocity);
+        final double decelMinusOne = DECELERATION_RATE - 1.0;
+        return mFlingFriction * mPhysicalCoeff * Math.exp(DECELERATION_RATE / decelMinusOne * l);
+    }
+
+    @Override
+    public boolean computeScrollOffset() {
+        if (mFinished)
+            return false;
+
+        final int timePassed = (int) (mClock.currentTimeMillis() - mStartTime);
+        if (timePassed < mDuration) {
+            switch (mMode) {
+                case SCROLL_MODE:
+                    final float x = getViscousFluidInterpolation(timePassed * mDurationReciprocal);
+                    mCurrX = mStartX + Math.round(x * mDeltaX);
+                    mCurrY = mStartY + Math.round(x * mDeltaY);
+                    break;
+                case FLING_MODE:
+                    final float t = (float) timePassed / mDuration;
+                    final int index = (int) (NB_SAMPLES * t);
+                    float distanceCoef = 1.f;
+                    float velocityCoef = 0.f;
+                    if (index < NB_SAMPLES) {
+                        final float tInf = (float) index / NB_SAMPLES;
+                        final float tSup = (float) (index + 1) / NB_SAMPLES;
+                        final float dInf = SPLINE_POSITION[index];
+                        final float dSup = SPLINE_POSITION[index + 1];
+                        velocityCoef = (dSup - dInf) / (tSup - tInf);
+                        distanceCoef = dInf + (t - tInf) * velocityCoef;
+                    }
+
+                    mCurrVelocity = velocityCoef * mDistance / mDuration * 1000.0f;
+
+                    mCurrX = mStartX + Math.round(distanceCoef * (mFinalX - mStartX));
+                    mCurrX = Math.max(mMinX, Math.min(mCurrX, mMaxX));
+
+                    mCurrY = mStartY + Math.round(distanceCoef * (mFinalY - mStartY));
+                    mCurrY = Math.max(mMinY, Math.min(mCurrY, mMaxY));
+
+                    if (mCurrX == mFinalX && mCurrY == mFinalY)
+                        mFinished = true;
+                    break;
+            }
+        } else {
+            mCurrX = mFinalX;
+            mCurrY = mFinalY;
+            mFinished = true;
+        }
+        return true;
+    }
+
+    /**
+     * 返回当前速度(像素/秒)
+     *
+     * @return
+     */
+    public float getCurrVelocity() {
+        if (mMode == FLING_MODE)
+            return mCurrVelocity;
+
+        final long timePassed = mClock.currentTimeMillis() - mStartTime;
+        return mVelocity - mDeceleration * timePassed / 2000.0f;
+    }
+
+    /**
+     * 返回当前滚动的时长(毫秒)
+     *
+     * @return
+     */
+    public int getDuration() {
+        return mDuration;
+    }
+
+    @Override
+    public void abortAnimation() {
+        mCurrX = mFinalX;
+        mCurrY = mFinalY;
+        mFinished = true;
+    }
+
+    @Override
+    public boolean isFinished() {
+        return mFinished;
+    }
+
+    @Override
+    public int getCurrX() {
+        return mCurrX;
+    }
+
+    @Override
+    public int getCurrY() {
+        return mCurrY;
+    }
+
+    /**
+     * 返回滚动的终点x
+     *
+     * @return
+     */
+    public int getFinalX() {
+        return mFinalX;
+    }
+
+    /**
+     * 返回滚动的终点y
+     *
+     * @return
+     */
+    public int getFinalY() {
+        return mFinalY;
+    }
+}
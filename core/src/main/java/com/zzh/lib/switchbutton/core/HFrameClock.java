@@ -0,0 +1,23 @@
+package com.zzh.lib.switchbutton.core;
+
+/**
+ * 动画时钟，可以替换为手动控制的时钟逐帧驱动动画
+ */
+public interface HFrameClock {
+    /**
+     * 系统时钟
+     */
+    HFrameClock SYSTEM = new HFrameClock() {
+        @Override
+        public long currentTimeMillis() {
+            return System.nanoTime() / 1000000L;
+        }
+    };
+
+    /**
+     * 返回当前时间(毫秒)，只用于计算时间差，不要求是真实时间
+     *
+     * @return
+     */
+    long currentTimeMillis();
+}
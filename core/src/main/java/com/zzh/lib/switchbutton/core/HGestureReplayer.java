@@ -0,0 +1,442 @@
+package com.zzh.lib.switchbutton.core;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 在普通JVM中重放{@link HGestureTrace}，输入到{@link HSwitchGesture}，输出状态变化、回调时间和每个事件的耗时
+ * <br>
+ * 开关view的触摸事件也是由{@link HSwitchGesture}处理的，重放和实际使用同一份判断逻辑
+ * <br>
+ * 滚动动画按{@link #setSettleDuration(long)}设置的时长计算，到达结束时间之后的第一个事件之前调用{@link HSwitchGesture#onScrollFinish()}，
+ * 所以滚动过程中按下等情况可以按记录的时间重现
+ */
+public class HGestureReplayer {
+    /**
+     * 默认滚动时长(毫秒)，和开关默认的最大滚动时长一致
+     */
+    public static final long DEFAULT_SETTLE_DURATION = 400;
+
+    private long mSettleDuration = DEFAULT_SETTLE_DURATION;
+    private boolean mMeasure = true;
+
+    /**
+     * 设置滚动时长(毫秒)，0表示立即结束滚动
+     *
+     * @param duration
+     */
+    public void setSettleDuration(long duration) {
+        if (duration < 0)
+            throw new IllegalArgumentException("duration < 0");
+        mSettleDuration = duration;
+    }
+
+    /**
+     * 设置是否统计每个事件的CPU时间和内存分配，默认true
+     *
+     * @param measure
+     */
+    public void setMeasure(boolean measure) {
+        mMeasure = measure;
+    }
+
+    /**
+     * 重放
+     *
+     * @param trace
+     * @return
+     */
+    public Report replay(HGestureTrace trace) {
+        final Report report = new Report(trace.getEventCount());
+        final Session session = new Session(trace, report);
+        final Probe probe = mMeasure ? Probe.get() : null;
+
+        for (int i = 0; i < trace.getEventCount(); i++) {
+            final long time = trace.getTime(i);
+            session.mIndex = i;
+            session.finishScrollIfNeeded(time);
+            session.mTime = time;
+
+            if (probe == null) {
+                session.mGesture.onTouchEvent(trace.getAction(i), trace.getX(i), trace.getY(i), time);
+                continue;
+            }
+
+            final long cpuStart = probe.getCpuTime();
+            final long allocStart = probe.getAllocatedBytes();
+            final long start = System.nanoTime();
+            session.mGesture.onTouchEvent(trace.getAction(i), trace.getX(i), trace.getY(i), time);
+            report.mEventNanos[i] = System.nanoTime() - start;
+            report.mEventCpuNanos[i] = cpuStart < 0 ? -1 : probe.getCpuTime() - cpuStart;
+            report.mEventAllocatedBytes[i] = allocStart < 0 ? -1 : probe.getAllocatedBytes() - allocStart - probe.mAllocatedBytesOverhead;
+        }
+
+        session.mIndex = trace.getEventCount();
+        session.finishScrollIfNeeded(Long.MAX_VALUE);
+        report.mChecked = session.mIsChecked;
+        report.mFinalState = session.mGesture.getState();
+        return report;
+    }
+
+    /**
+     * 保存选中状态和手柄位置，和开关view一样响应{@link HSwitchGesture}的回调
+     */
+    private final class Session extends HSwitchGesture.Callback {
+        private final HSwitchGesture mGesture;
+        private final Report mReport;
+
+        private final int mLeftNormal;
+        private final int mLeftChecked;
+        private final int mThumbWidth;
+
+        private boolean mIsChecked;
+        private float mThumbLeft;
+
+        private int mIndex;
+        private long mTime;
+        private long mSettleEndTime = -1;
+
+        Session(HGestureTrace trace, Report report) {
+            mReport = report;
+            mLeftNormal = trace.getLeftNormal();
+            mLeftChecked = trace.getLeftChecked();
+            mThumbWidth = trace.getThumbWidth();
+            // 初始状态不是手势产生的，直接设置不记录
+            mIsChecked = trace.isChecked();
+            mThumbLeft = getTargetLeft();
+            mGesture = new HSwitchGesture(trace.getTouchSlop(), trace.getClickTimeout(), trace.getMinFlingVelocity(), this);
+        }
+
+        private float getTargetLeft() {
+            return mIsChecked ? mLeftChecked : mLeftNormal;
+        }
+
+        /**
+         * 和开关view设置选中状态的流程一致，位置变化的时候开始滚动，滚动在{@link #finishScrollIfNeeded(long)}结束
+         */
+        private void setChecked(boolean checked) {
+            mGesture.beginTransaction();
+            try {
+                mGesture.cancelConsumeEvent();
+
+                if (mIsChecked != checked) {
+                    mIsChecked = checked;
+                    mReport.mEntries.add(new Entry(mIndex, mTime, null, null, checked));
+                }
+
+                if (mThumbLeft != getTargetLeft()) {
+                    mSettleEndTime = mTime + mSettleDuration;
+                    mGesture.onScrollStart();
+                } else if (mSettleEndTime >= 0) {
+                    mSettleEndTime = -1;
+                    mGesture.onScrollFinish();
+                }
+            } finally {
+                mGesture.endTransaction();
+            }
+        }
+
+        void finishScrollIfNeeded(long time) {
+            if (mSettleEndTime >= 0 && time >= mSettleEndTime) {
+                mTime = mSettleEndTime;
+                mSettleEndTime = -1;
+                setThumbLeft(getTargetLeft());
+                mGesture.onScrollFinish();
+            }
+        }
+
+        private void setThumbLeft(float left) {
+            if (mThumbLeft != left) {
+                mThumbLeft = left;
+                mReport.mThumbMoveCount++;
+            }
+        }
+
+        @Override
+        public boolean isChecked() {
+            return mIsChecked;
+        }
+
+        @Override
+        public boolean isThumbUnder(float x, float y) {
+            return x >= mThumbLeft && x < mThumbLeft + mThumbWidth;
+        }
+
+        @Override
+        public float getThumbLeft() {
+            return mThumbLeft;
+        }
+
+        @Override
+        public int getLeftNormal() {
+            return mLeftNormal;
+        }
+
+        @Override
+        public int getLeftChecked() {
+            return mLeftChecked;
+        }
+
+        @Override
+        public void onStateChanged(HGestureStateMachine.State oldState, HGestureStateMachine.State newState) {
+            if (newState != HGestureStateMachine.State.Fling)
+                mSettleEndTime = -1;
+            mReport.mEntries.add(new Entry(mIndex, mTime, oldState, newState, null));
+        }
+
+        @Override
+        public void onDrag(float dx) {
+            setThumbLeft(HSwitchRules.clamp(mThumbLeft + dx, mLeftNormal, mLeftChecked));
+        }
+
+        @Override
+        public void onClick() {
+            setChecked(!mIsChecked);
+        }
+
+        @Override
+        public void onRelease(boolean checked, float velocity) {
+            setChecked(checked);
+        }
+    }
+
+    /**
+     * 重放结果
+     */
+    public static final class Report {
+        private final List<Entry> mEntries = new ArrayList<>();
+        private final long[] mEventNanos;
+        private final long[] mEventCpuNanos;
+        private final long[] mEventAllocatedBytes;
+        private int mThumbMoveCount;
+        private boolean mChecked;
+        private HGestureStateMachine.State mFinalState;
+
+        Report(int eventCount) {
+            mEventNanos = new long[eventCount];
+            mEventCpuNanos = new long[eventCount];
+            mEventAllocatedBytes = new long[eventCount];
+        }
+
+        /**
+         * 按顺序返回状态变化和选中状态变化
+         *
+         * @return
+         */
+        public List<Entry> getEntries() {
+            return Collections.unmodifiableList(mEntries);
+        }
+
+        /**
+         * 返回处理第index个事件的耗时(纳秒)，未统计的时候为0
+         *
+         * @param index
+         * @return
+         */
+        public long getEventNanos(int index) {
+            return mEventNanos[index];
+        }
+
+        /**
+         * 返回处理第index个事件的线程CPU时间(纳秒)，虚拟机不支持的时候为-1
+         *
+         * @param index
+         * @return
+         */
+        public long getEventCpuNanos(int index) {
+            return mEventCpuNanos[index];
+        }
+
+        /**
+         * 返回处理第index个事件分配的内存(字节)，虚拟机不支持的时候为-1
+         *
+         * @param index
+         * @return
+         */
+        public long getEventAllocatedBytes(int index) {
+            return mEventAllocatedBytes[index];
+        }
+
+        public long getTotalNanos() {
+            long total = 0;
+            for (long item : mEventNanos) {
+                total += item;
+            }
+            return total;
+        }
+
+        public int getThumbMoveCount() {
+            return mThumbMoveCount;
+        }
+
+        /**
+         * 重放结束之后是否选中
+         *
+         * @return
+         */
+        public boolean isChecked() {
+            return mChecked;
+        }
+
+        /**
+         * 重放结束之后的状态，结束之前会完成滚动，正常情况下为{@link HGestureStateMachine.State#Idle}
+         *
+         * @return
+         */
+        public HGestureStateMachine.State getFinalState() {
+            return mFinalState;
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder builder = new StringBuilder();
+            for (Entry item : mEntries) {
+                builder.append(item).append('\n');
+            }
+            builder.append("checked:").append(mChecked)
+                    .append(" state:").append(mFinalState)
+                    .append(" thumbMove:").append(mThumbMoveCount)
+                    .append(" totalNanos:").append(getTotalNanos());
+            return builder.toString();
+        }
+    }
+
+    /**
+     * 状态变化或者选中状态变化
+     */
+    public static final class Entry {
+        private final int mEventIndex;
+        private final long mTime;
+        private final HGestureStateMachine.State mOldState;
+        private final HGestureStateMachine.State mNewState;
+        private final Boolean mChecked;
+
+        Entry(int eventIndex, long time, HGestureStateMachine.State oldState, HGestureStateMachine.State newState, Boolean checked) {
+            mEventIndex = eventIndex;
+            mTime = time;
+            mOldState = oldState;
+            mNewState = newState;
+            mChecked = checked;
+        }
+
+        /**
+         * 返回触发变化的事件位置，滚动在所有事件之后结束的时候为事件个数
+         *
+         * @return
+         */
+        public int getEventIndex() {
+            return mEventIndex;
+        }
+
+        /**
+         * 返回变化的时间(毫秒)，滚动结束的变化为滚动的结束时间
+         *
+         * @return
+         */
+        public long getTime() {
+            return mTime;
+        }
+
+        /**
+         * 是否是选中状态变化
+         *
+         * @return
+         */
+        public boolean isCheckedChange() {
+            return mChecked != null;
+        }
+
+        public HGestureStateMachine.State getOldState() {
+            return mOldState;
+        }
+
+        public HGestureStateMachine.State getNewState() {
+            return mNewState;
+        }
+
+        public boolean isChecked() {
+            return mChecked != null && mChecked;
+        }
+
+        @Override
+        public String toString() {
+            if (mChecked != null)
+                return "[" + mEventIndex + "] " + mTime + " checked:" + mChecked;
+            return "[" + mEventIndex + "] " + mTime + " " + mOldState + " -> " + mNewState;
+        }
+    }
+
+    /**
+     * 读取当前线程的CPU时间和内存分配，内存分配使用HotSpot的扩展接口，不支持的时候返回-1
+     */
+    private static final class Probe {
+        private static Probe sInstance;
+
+        private final ThreadMXBean mThreadBean;
+        private final Method mAllocatedBytesMethod;
+        /**
+         * 读取内存分配本身分配的内存(装箱等)
+         */
+        private final long mAllocatedBytesOverhead;
+
+        private Probe() {
+            mThreadBean = ManagementFactory.getThreadMXBean();
+
+            Method method;
+            try {
+                final Class<?> clazz = Class.forName("com.sun.management.ThreadMXBean");
+                method = clazz.isInstance(mThreadBean) ? clazz.getMethod("getThreadAllocatedBytes", long.class) : null;
+            } catch (Exception e) {
+                method = null;
+            }
+            mAllocatedBytesMethod = method;
+
+            try {
+                if (mThreadBean.isCurrentThreadCpuTimeSupported() && !mThreadBean.isThreadCpuTimeEnabled())
+                    mThreadBean.setThreadCpuTimeEnabled(true);
+            } catch (UnsupportedOperationException e) {
+                // 忽略，不统计CPU时间
+            }
+
+            long overhead = 0;
+            if (getAllocatedBytes() >= 0) {
+                overhead = Long.MAX_VALUE;
+                for (int i = 0; i < 8; i++) {
+                    final long start = getAllocatedBytes();
+                    overhead = Math.min(overhead, getAllocatedBytes() - start);
+                }
+            }
+            mAllocatedBytesOverhead = overhead;
+        }
+
+        static synchronized Probe get() {
+            if (sInstance == null)
+                sInstance = new Probe();
+            return sInstance;
+        }
+
+        long getCpuTime() {
+            if (!mThreadBean.isCurrentThreadCpuTimeSupported())
+                return -1;
+            try {
+                return mThreadBean.getCurrentThreadCpuTime();
+            } catch (UnsupportedOperationException e) {
+                return -1;
+            }
+        }
+
+        long getAllocatedBytes() {
+            if (mAllocatedBytesMethod == null)
+                return -1;
+            try {
+                return (Long) mAllocatedBytesMethod.invoke(mThreadBean, Thread.currentThread().getId());
+            } catch (Exception e) {
+                return -1;
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.zzh.lib.switchbutton.core;
+
+/**
+ * 手势状态机，不依赖Android
+ * <br>
+ * 状态在调用线程同步变化，{@link #beginTransaction()}和{@link #endTransaction()}之间请求的{@link State#Idle}状态延迟到事务结束设置
+ */
+public class HGestureStateMachine {
+    private State mState = State.Idle;
+
+    /**
+     * 事务嵌套层数
+     */
+    private int mTransactionDepth;
+    /**
+     * 是否有延迟设置的{@link State#Idle}状态
+     */
+    private boolean mPendingIdle;
+
+    private final Callback mCallback;
+
+    public HGestureStateMachine(Callback callback) {
+        if (callback == null)
+            throw new NullPointerException();
+        mCallback = callback;
+    }
+
+    public State getState() {
+        return mState;
+    }
+
+    /**
+     * 设置状态，会取消延迟设置的{@link State#Idle}状态
+     *
+     * @param state
+     */
+    public void setState(State state) {
+        if (state == null)
+            throw new NullPointerException();
+
+        mPendingIdle = false;
+
+        final State old = mState;
+        if (old != state) {
+            mState = state;
+            mCallback.onStateChanged(old, state);
+        }
+    }
+
+    /**
+     * 请求设置{@link State#Idle}状态，事务中延迟到{@link #endTransaction()}设置
+     *
+     * @return true-已经设置，false-延迟设置
+     */
+    public boolean requestIdle() {
+        if (mTransactionDepth > 0) {
+            mPendingIdle = true;
+            return false;
+        }
+
+        setState(State.Idle);
+        return true;
+    }
+
+    /**
+     * 开始事务，事务结束之前不会进入{@link State#Idle}状态，可以嵌套
+     */
+    public void beginTransaction() {
+        mTransactionDepth++;
+    }
+
+    /**
+     * 结束事务，如果事务中请求过{@link State#Idle}状态并且之后没有变更为其他状态，则立即设置{@link State#Idle}状态
+     */
+    public void endTransaction() {
+        if (mTransactionDepth <= 0)
+            throw new IllegalStateException("endTransaction() without beginTransaction()");
+
+        mTransactionDepth--;
+        if (mTransactionDepth == 0 && mPendingIdle)
+            setState(State.Idle);
+    }
+
+    public enum State {
+        /**
+         * 空闲
+         */
+        Idle,
+        /**
+         * 消费事件
+         */
+        Consume,
+        /**
+         * 滚动
+         */
+        Fling
+    }
+
+    public interface Callback {
+        /**
+         * 状态变化回调
+         *
+         * @param oldState
+         * @param newState
+         */
+        void onStateChanged(State oldState, State newState);
+    }
+}
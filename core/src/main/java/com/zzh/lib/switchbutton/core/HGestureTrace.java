@@ -0,0 +1,275 @@
+package com.zzh.lib.switchbutton.core;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * 手势记录，保存开关的尺寸参数和按顺序输入的触摸点，可以用{@link HGestureReplayer}重放
+ * <br>
+ * 二进制格式(大端)：
+ * <pre>
+ * magic "HGT" + 版本(1字节)
+ * 头部：checked(1字节) leftNormal leftChecked thumbWidth touchSlop(int) clickTimeout(long) minFlingVelocity(float)
+ * 事件个数(int)
+ * 每个事件：action(1字节) x y(float) 和上一个事件的时间差(变长无符号整数，毫秒，第一个事件为绝对时间)
+ * </pre>
+ * 一次普通的滑动每个事件约10字节
+ * <br>
+ * 坐标按屏幕坐标的增量记录，和实际处理触摸事件时的增量一致，拖动过程中开关被嵌套滚动的父view移动也不影响重放；
+ * 每次按下的点是view坐标，和手柄位置在同一个坐标系
+ */
+public class HGestureTrace {
+    private static final int MAGIC = ('H' << 16) | ('G' << 8) | 'T';
+    private static final int VERSION = 1;
+
+    /**
+     * 默认最多记录的事件个数
+     */
+    public static final int DEFAULT_MAX_EVENTS = 4096;
+
+    private final boolean mChecked;
+    private final int mLeftNormal;
+    private final int mLeftChecked;
+    private final int mThumbWidth;
+    private final int mTouchSlop;
+    private final long mClickTimeout;
+    private final float mMinFlingVelocity;
+
+    private int mMaxEvents = DEFAULT_MAX_EVENTS;
+    private int mCount;
+    private byte[] mAction = new byte[16];
+    private float[] mX = new float[16];
+    private float[] mY = new float[16];
+    private long[] mTime = new long[16];
+
+    /**
+     * @param checked          开始记录的时候是否选中
+     * @param leftNormal       未选中时手柄的left值
+     * @param leftChecked      选中时手柄的left值
+     * @param thumbWidth       手柄宽度
+     * @param touchSlop        点击的最大移动距离
+     * @param clickTimeout     点击的最大时长(毫秒)
+     * @param minFlingVelocity 拖动结束时超过这个速度(像素/秒)按速度方向决定状态
+     */
+    public HGestureTrace(boolean checked, int leftNormal, int leftChecked, int thumbWidth,
+                         int touchSlop, long clickTimeout, float minFlingVelocity) {
+        mChecked = checked;
+        mLeftNormal = leftNormal;
+        mLeftChecked = leftChecked;
+        mThumbWidth = thumbWidth;
+        mTouchSlop = touchSlop;
+        mClickTimeout = clickTimeout;
+        mMinFlingVelocity = minFlingVelocity;
+    }
+
+    public boolean isChecked() {
+        return mChecked;
+    }
+
+    public int getLeftNormal() {
+        return mLeftNormal;
+    }
+
+    public int getLeftChecked() {
+        return mLeftChecked;
+    }
+
+    public int getThumbWidth() {
+        return mThumbWidth;
+    }
+
+    public int getTouchSlop() {
+        return mTouchSlop;
+    }
+
+    public long getClickTimeout() {
+        return mClickTimeout;
+    }
+
+    public float getMinFlingVelocity() {
+        return mMinFlingVelocity;
+    }
+
+    /**
+     * 设置最多记录的事件个数，超过之后的事件会被丢弃
+     *
+     * @param maxEvents
+     */
+    public void setMaxEvents(int maxEvents) {
+        if (maxEvents < 0)
+            throw new IllegalArgumentException("maxEvents < 0");
+        mMaxEvents = maxEvents;
+    }
+
+    /**
+     * 添加一个事件，和上一个事件完全相同的事件(例如同一个事件先后经过拦截和消费)只记录一次
+     *
+     * @param action {@link HTouchTracker#ACTION_DOWN}等
+     * @param x      x坐标，按下点为view坐标，之后按屏幕坐标(MotionEvent#getRawX())的增量累加
+     * @param y      y坐标，按下点为view坐标，之后按屏幕坐标(MotionEvent#getRawY())的增量累加
+     * @param time   事件时间(毫秒)
+     * @return true-已记录
+     */
+    public boolean addEvent(int action, float x, float y, long time) {
+        if (mCount > 0) {
+            final int last = mCount - 1;
+            if (mAction[last] == action && mTime[last] == time && mX[last] == x && mY[last] == y)
+                return false;
+        }
+
+        if (mCount >= mMaxEvents)
+            return false;
+
+        if (mCount == mAction.length)
+            grow();
+
+        mAction[mCount] = (byte) action;
+        mX[mCount] = x;
+        mY[mCount] = y;
+        mTime[mCount] = time;
+        mCount++;
+        return true;
+    }
+
+    private void grow() {
+        final int size = mAction.length * 2;
+
+        final byte[] action = new byte[size];
+        final float[] x = new float[size];
+        final float[] y = new float[size];
+        final long[] time = new long[size];
+        System.arraycopy(mAction, 0, action, 0, mCount);
+        System.arraycopy(mX, 0, x, 0, mCount);
+        System.arraycopy(mY, 0, y, 0, mCount);
+        System.arraycopy(mTime, 0, time, 0, mCount);
+
+        mAction = action;
+        mX = x;
+        mY = y;
+        mTime = time;
+    }
+
+    public int getEventCount() {
+        return mCount;
+    }
+
+    public int getAction(int index) {
+        checkIndex(index);
+        return mAction[index];
+    }
+
+    public float getX(int index) {
+        checkIndex(index);
+        return mX[index];
+    }
+
+    public float getY(int index) {
+        checkIndex(index);
+        return mY[index];
+    }
+
+    public long getTime(int index) {
+        checkIndex(index);
+        return mTime[index];
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= mCount)
+            throw new IndexOutOfBoundsException("index:" + index + " count:" + mCount);
+    }
+
+    /**
+     * 写入二进制数据，不关闭输出流
+     *
+     * @param out
+     * @throws IOException
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        final DataOutputStream output = new DataOutputStream(out);
+        output.writeByte(MAGIC >> 16);
+        output.writeByte(MAGIC >> 8);
+        output.writeByte(MAGIC);
+        output.writeByte(VERSION);
+
+        output.writeBoolean(mChecked);
+        output.writeInt(mLeftNormal);
+        output.writeInt(mLeftChecked);
+        output.writeInt(mThumbWidth);
+        output.writeInt(mTouchSlop);
+        output.writeLong(mClickTimeout);
+        output.writeFloat(mMinFlingVelocity);
+
+        output.writeInt(mCount);
+        long lastTime = 0;
+        for (int i = 0; i < mCount; i++) {
+            output.writeByte(mAction[i]);
+            output.writeFloat(mX[i]);
+            output.writeFloat(mY[i]);
+            writeVarLong(output, mTime[i] - lastTime);
+            lastTime = mTime[i];
+        }
+        output.flush();
+    }
+
+    /**
+     * 读取{@link #writeTo(OutputStream)}写入的二进制数据，不关闭输入流
+     *
+     * @param in
+     * @return
+     * @throws IOException 数据格式不正确
+     */
+    public static HGestureTrace readFrom(InputStream in) throws IOException {
+        final DataInputStream input = new DataInputStream(in);
+        final int magic = (input.readUnsignedByte() << 16) | (input.readUnsignedByte() << 8) | input.readUnsignedByte();
+        if (magic != MAGIC)
+            throw new IOException("not a gesture trace");
+
+        final int version = input.readUnsignedByte();
+        if (version != VERSION)
+            throw new IOException("unsupported gesture trace version:" + version);
+
+        final HGestureTrace trace = new HGestureTrace(input.readBoolean(),
+                input.readInt(), input.readInt(), input.readInt(), input.readInt(),
+                input.readLong(), input.readFloat());
+
+        final int count = input.readInt();
+        if (count < 0)
+            throw new IOException("illegal event count:" + count);
+
+        trace.setMaxEvents(count);
+        long time = 0;
+        for (int i = 0; i < count; i++) {
+            final int action = input.readByte();
+            final float x = input.readFloat();
+            final float y = input.readFloat();
+            time += readVarLong(input);
+            trace.addEvent(action, x, y, time);
+        }
+        return trace;
+    }
+
+    private static void writeVarLong(DataOutputStream output, long value) throws IOException {
+        if (value < 0)
+            throw new IOException("event time goes backwards");
+
+        while ((value & ~0x7FL) != 0) {
+            output.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        output.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream input) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            final int b = input.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return value;
+        }
+        throw new IOException("malformed varint");
+    }
+}
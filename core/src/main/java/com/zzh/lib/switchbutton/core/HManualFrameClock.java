@@ -0,0 +1,61 @@
+package com.zzh.lib.switchbutton.core;
+
+/**
+ * 手动控制的时钟，用于测试和基准测试中按固定帧率逐帧驱动动画
+ */
+public class HManualFrameClock implements HFrameClock {
+    private long mTimeNanos;
+    /**
+     * 按帧前进时不足1纳秒的部分
+     */
+    private double mFrameRemainderNanos;
+
+    public HManualFrameClock() {
+        this(0);
+    }
+
+    /**
+     * @param timeMillis 初始时间(毫秒)
+     */
+    public HManualFrameClock(long timeMillis) {
+        mTimeNanos = timeMillis * 1000000L;
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return mTimeNanos / 1000000L;
+    }
+
+    /**
+     * 返回当前时间(纳秒)
+     *
+     * @return
+     */
+    public long currentTimeNanos() {
+        return mTimeNanos;
+    }
+
+    /**
+     * 前进指定时间
+     *
+     * @param millis
+     */
+    public void advance(long millis) {
+        mTimeNanos += millis * 1000000L;
+    }
+
+    /**
+     * 按刷新率前进一帧，例如60，90，120，144，时间按纳秒累加，不会累积取整误差
+     *
+     * @param refreshRate 刷新率(Hz)
+     */
+    public void advanceFrame(float refreshRate) {
+        if (refreshRate <= 0)
+            throw new IllegalArgumentException("refreshRate must be > 0");
+
+        mFrameRemainderNanos += 1000000000.0 / refreshRate;
+        final long nanos = Math.round(mFrameRemainderNanos);
+        mFrameRemainderNanos -= nanos;
+        mTimeNanos += nanos;
+    }
+}
@@ -0,0 +1,248 @@
+package com.zzh.lib.switchbutton.core;
+
+/**
+ * 可以在滚动中修改目标位置并保留当前速度的{@link HScrollerApi}
+ * <br>
+ * 静止开始的滚动使用和android.widget.Scroller默认插值器一致的曲线；
+ * 带初始速度的滚动(包括滚动中再次调用{@link #startScroll(int, int, int, int, int)})使用三次Hermite曲线，
+ * 起点速度等于当前速度，终点速度为0，位置和速度都是连续的
+ * <br>
+ * 惯性滑动交给{@link HEasingScrollerApi}
+ */
+public class HRetargetScrollerApi implements HVelocityScrollerApi {
+    private static final int MODE_VISCOUS = 0;
+    private static final int MODE_HERMITE = 1;
+    private static final int MODE_FLING = 2;
+
+    private final HFrameClock mClock;
+    private final HEasingScrollerApi mFlingApi;
+
+    private int mMode;
+    private boolean mFinished = true;
+
+    private long mStartTime;
+    private int mDuration;
+
+    private float mStartX;
+    private float mStartY;
+    private float mDeltaX;
+    private float mDeltaY;
+    /**
+     * Hermite曲线的初始速度(像素/毫秒)
+     */
+    private float mVelocityX;
+    private float mVelocityY;
+
+    private float mCurrX;
+    private float mCurrY;
+
+    /**
+     * 惯性滑动的方向系数
+     */
+    private float mFlingCoeffX;
+    private float mFlingCoeffY;
+
+    /**
+     * @param density 屏幕密度，android.util.DisplayMetrics#density
+     */
+    public HRetargetScrollerApi(float density) {
+        this(density, HFrameClock.SYSTEM);
+    }
+
+    /**
+     * @param density 屏幕密度，android.util.DisplayMetrics#density
+     * @param clock   动画时钟
+     */
+    public HRetargetScrollerApi(float density, HFrameClock clock) {
+        if (clock == null)
+            throw new NullPointerException();
+
+        mClock = clock;
+        mFlingApi = new HEasingScrollerApi(density, clock);
+    }
+
+    @Override
+    public void setFriction(float friction) {
+        mFlingApi.setFriction(friction);
+    }
+
+    /**
+     * 开始滚动，滚动中调用的时候保留当前速度，速度按{@link HSwitchRules#settleVelocity(float, float, int, float)}截断，
+     * 不会越过新的终点，反向的时候不会越过原来的终点
+     */
+    @Override
+    public void startScroll(int startX, int startY, int dx, int dy, int duration) {
+        if (mFinished) {
+            startScrollInternal(MODE_VISCOUS, startX, startY, dx, dy, duration, 0, 0);
+        } else {
+            final float velocityX = HSwitchRules.settleVelocity(dx, getCurrVelocityX(), duration,
+                    Math.abs(getEndX() - startX));
+            final float velocityY = HSwitchRules.settleVelocity(dy, getCurrVelocityY(), duration,
+                    Math.abs(getEndY() - startY));
+            startScroll(startX, startY, dx, dy, duration, velocityX, velocityY);
+        }
+    }
+
+    private float getEndX() {
+        return mMode == MODE_FLING ? mFlingApi.getFinalX() : mStartX + mDeltaX;
+    }
+
+    private float getEndY() {
+        return mMode == MODE_FLING ? mFlingApi.getFinalY() : mStartY + mDeltaY;
+    }
+
+    @Override
+    public void startScroll(int startX, int startY, int dx, int dy, int duration, float velocityX, float velocityY) {
+        final int mode = velocityX == 0 && velocityY == 0 ? MODE_VISCOUS : MODE_HERMITE;
+        startScrollInternal(mode, startX, startY, dx, dy, duration, velocityX / 1000f, velocityY / 1000f);
+    }
+
+    private void startScrollInternal(int mode, int startX, int startY, int dx, int dy, int duration,
+                                     float velocityX, float velocityY) {
+        mFlingApi.abortAnimation();
+
+        mMode = mode;
+        mStartTime = mClock.currentTimeMillis();
+        mDuration = duration;
+        mStartX = startX;
+        mStartY = startY;
+        mDeltaX = dx;
+        mDeltaY = dy;
+        mVelocityX = velocityX;
+        mVelocityY = velocityY;
+        mCurrX = startX;
+        mCurrY = startY;
+        mFinished = duration <= 0;
+
+        if (mFinished) {
+            mCurrX = startX + dx;
+            mCurrY = startY + dy;
+        }
+    }
+
+    @Override
+    public void fling(int startX, int startY, int velocityX, int velocityY, int minX, int maxX, int minY, int maxY) {
+        mMode = MODE_FLING;
+        mFlingApi.fling(startX, startY, velocityX, velocityY, minX, maxX, minY, maxY);
+
+        final float velocity = (float) Math.hypot(velocityX, velocityY);
+        mFlingCoeffX = velocity == 0 ? 0 : velocityX / velocity;
+        mFlingCoeffY = velocity == 0 ? 0 : velocityY / velocity;
+        mFinished = mFlingApi.isFinished();
+    }
+
+    @Override
+    public boolean computeScrollOffset() {
+        if (mFinished)
+            return false;
+
+        if (mMode == MODE_FLING) {
+            mFlingApi.computeScrollOffset();
+            mCurrX = mFlingApi.getCurrX();
+            mCurrY = mFlingApi.getCurrY();
+            mFinished = mFlingApi.isFinished();
+            return true;
+        }
+
+        final long timePassed = mClock.currentTimeMillis() - mStartTime;
+        if (timePassed < mDuration) {
+            final float t = (float) timePassed / mDuration;
+            if (mMode == MODE_VISCOUS) {
+                final float x = HEasingScrollerApi.getViscousFluidInterpolation(t);
+                mCurrX = mStartX + x * mDeltaX;
+                mCurrY = mStartY + x * mDeltaY;
+            } else {
+                mCurrX = hermite(t, mStartX, mDeltaX, mVelocityX * mDuration);
+                mCurrY = hermite(t, mStartY, mDeltaY, mVelocityY * mDuration);
+            }
+        } else {
+            mCurrX = mStartX + mDeltaX;
+            mCurrY = mStartY + mDeltaY;
+            mFinished = true;
+        }
+        return true;
+    }
+
+    /**
+     * 三次Hermite曲线，终点速度为0
+     *
+     * @param t        [0-1]
+     * @param start    起点
+     * @param delta    起点到终点的距离
+     * @param tangent  起点的切线(初始速度 * 时长)
+     * @return
+     */
+    private static float hermite(float t, float start, float delta, float tangent) {
+        final float t2 = t * t;
+        final float t3 = t2 * t;
+        return start + (-2 * t3 + 3 * t2) * delta + (t3 - 2 * t2 + t) * tangent;
+    }
+
+    /**
+     * {@link #hermite(float, float, float, float)}对t的导数
+     */
+    private static float hermiteDerivative(float t, float delta, float tangent) {
+        final float t2 = t * t;
+        return (-6 * t2 + 6 * t) * delta + (3 * t2 - 4 * t + 1) * tangent;
+    }
+
+    @Override
+    public float getCurrVelocityX() {
+        return getCurrVelocity(mDeltaX, mVelocityX, mFlingCoeffX);
+    }
+
+    @Override
+    public float getCurrVelocityY() {
+        return getCurrVelocity(mDeltaY, mVelocityY, mFlingCoeffY);
+    }
+
+    private float getCurrVelocity(float delta, float velocity, float flingCoeff) {
+        if (mFinished)
+            return 0;
+
+        if (mMode == MODE_FLING)
+            return mFlingApi.getCurrVelocity() * flingCoeff;
+
+        final long timePassed = mClock.currentTimeMillis() - mStartTime;
+        if (timePassed >= mDuration)
+            return 0;
+
+        final float t = (float) timePassed / mDuration;
+        final float derivative;
+        if (mMode == MODE_VISCOUS) {
+            derivative = HEasingScrollerApi.getViscousFluidVelocity(t) * delta;
+        } else {
+            derivative = hermiteDerivative(t, delta, velocity * mDuration);
+        }
+        // 对t的导数转换为像素/秒
+        return derivative / mDuration * 1000f;
+    }
+
+    @Override
+    public void abortAnimation() {
+        if (mMode == MODE_FLING) {
+            mFlingApi.abortAnimation();
+            mCurrX = mFlingApi.getCurrX();
+            mCurrY = mFlingApi.getCurrY();
+        } else {
+            mCurrX = mStartX + mDeltaX;
+            mCurrY = mStartY + mDeltaY;
+        }
+        mFinished = true;
+    }
+
+    @Override
+    public boolean isFinished() {
+        return mFinished;
+    }
+
+    @Override
+    public int getCurrX() {
+        return Math.round(mCurrX);
+    }
+
+    @Override
+    public int getCurrY() {
+        return Math.round(mCurrY);
+    }
+}
@@ -0,0 +1,22 @@
+package com.zzh.lib.switchbutton.core;
+
+/**
+ * 滚动计算接口，和android.widget.Scroller的方法一致
+ */
+public interface HScrollerApi {
+    void setFriction(float friction);
+
+    void startScroll(int startX, int startY, int dx, int dy, int duration);
+
+    void fling(int startX, int startY, int velocityX, int velocityY, int minX, int maxX, int minY, int maxY);
+
+    boolean computeScrollOffset();
+
+    void abortAnimation();
+
+    boolean isFinished();
+
+    int getCurrX();
+
+    int getCurrY();
+}
@@ -0,0 +1,383 @@
+package com.zzh.lib.switchbutton.core;
+
+/**
+ * 不依赖Android的开关手势处理，输入原始的触摸点，输出状态变化、手柄拖动距离和松手之后的目标状态
+ * <br>
+ * 开关view的手势管理对象把MotionEvent转换之后输入到这个类，{@link HGestureReplayer}重放记录的手势也输入到这个类，
+ * 两者使用同一份判断逻辑({@link HTouchTracker}，{@link HVelocityTracker}，{@link HDragClassifier}，{@link HGestureStateMachine}，{@link HSwitchRules})
+ * <br>
+ * 选中状态和手柄位置由调用方保存，通过{@link Callback}读取；滚动动画也由调用方执行，
+ * 开始和结束的时候分别调用{@link #onScrollStart()}和{@link #onScrollFinish()}
+ */
+public class HSwitchGesture {
+    private final HTouchTracker mTouchTracker = new HTouchTracker();
+    private final HVelocityTracker mVelocityTracker = new HVelocityTracker();
+    private final HDragClassifier mDragClassifier;
+    private final HGestureStateMachine mStateMachine;
+
+    private final int mTouchSlop;
+    private final long mClickTimeout;
+    private final float mMinFlingVelocity;
+
+    private final Callback mCallback;
+
+    /**
+     * 是否需要拦截事件标识(用于{@link #onInterceptTouchEvent(int, float, float, long)})
+     */
+    private boolean mTagIntercept;
+    /**
+     * 是否需要消费事件标识(用于{@link #onTouchEvent(int, float, float, long)})
+     */
+    private boolean mTagConsume;
+    /**
+     * 从按下到当前是否移动过手柄
+     */
+    private boolean mHasConsumeEvent;
+    /**
+     * 是否取消过消费事件
+     */
+    private boolean mIsCancelConsumeEvent;
+
+    /**
+     * 抬起时的速度(像素/秒)
+     */
+    private float mVelocityX;
+    private float mVelocityY;
+
+    /**
+     * @param touchSlop        点击的最大移动距离
+     * @param clickTimeout     点击的最大时长(毫秒)
+     * @param minFlingVelocity 拖动结束时超过这个速度(像素/秒)按速度方向决定状态
+     * @param callback
+     */
+    public HSwitchGesture(int touchSlop, long clickTimeout, float minFlingVelocity, Callback callback) {
+        if (callback == null)
+            throw new NullPointerException();
+
+        mTouchSlop = touchSlop;
+        mClickTimeout = clickTimeout;
+        mMinFlingVelocity = minFlingVelocity;
+        mCallback = callback;
+        mDragClassifier = new HDragClassifier(touchSlop);
+
+        mStateMachine = new HGestureStateMachine(new HGestureStateMachine.Callback() {
+            @Override
+            public void onStateChanged(HGestureStateMachine.State oldState, HGestureStateMachine.State newState) {
+                mCallback.onStateChanged(oldState, newState);
+            }
+        });
+    }
+
+    public HTouchTracker getTouchTracker() {
+        return mTouchTracker;
+    }
+
+    public HGestureStateMachine.State getState() {
+        return mStateMachine.getState();
+    }
+
+    /**
+     * 返回拖动方向的判断结果，{@link HDragClassifier#STATE_PENDING}等
+     *
+     * @return
+     */
+    public int getDragState() {
+        return mDragClassifier.getState();
+    }
+
+    /**
+     * 返回锁定的拖动方向，{@link HSwitchRules#DIRECTION_NONE}等
+     *
+     * @return
+     */
+    public int getDragDirection() {
+        return mDragClassifier.getDirection();
+    }
+
+    public boolean isTagIntercept() {
+        return mTagIntercept;
+    }
+
+    public boolean isTagConsume() {
+        return mTagConsume;
+    }
+
+    /**
+     * 从按下到当前是否移动过手柄
+     *
+     * @return
+     */
+    public boolean hasConsumeEvent() {
+        return mHasConsumeEvent;
+    }
+
+    /**
+     * 从按下到当前是否取消过消费事件
+     *
+     * @return
+     */
+    public boolean isCancelConsumeEvent() {
+        return mIsCancelConsumeEvent;
+    }
+
+    /**
+     * 返回最近一次抬起时x轴方向的速度(像素/秒)，下一次按下之前有效
+     *
+     * @return
+     */
+    public float getVelocityX() {
+        return mVelocityX;
+    }
+
+    /**
+     * 返回最近一次抬起时y轴方向的速度(像素/秒)，下一次按下之前有效
+     *
+     * @return
+     */
+    public float getVelocityY() {
+        return mVelocityY;
+    }
+
+    /**
+     * 处理拦截阶段的触摸点，按下的时候不拦截，确定拖动手柄之后才拦截
+     *
+     * @param action {@link HTouchTracker#ACTION_DOWN}等
+     * @param x
+     * @param y
+     * @param time   事件时间(毫秒)
+     * @return 是否拦截
+     */
+    public boolean onInterceptTouchEvent(int action, float x, float y, long time) {
+        processEvent(action, x, y, time);
+
+        if (action == HTouchTracker.ACTION_UP || action == HTouchTracker.ACTION_CANCEL) {
+            onEventFinish(action);
+        } else if (action == HTouchTracker.ACTION_DOWN) {
+            onEventStart(x, y);
+        } else if (!mTagIntercept) {
+            setTagIntercept(isDrag());
+        }
+        return mTagIntercept;
+    }
+
+    /**
+     * 处理一个触摸点
+     *
+     * @param action {@link HTouchTracker#ACTION_DOWN}等
+     * @param x
+     * @param y
+     * @param time   事件时间(毫秒)
+     * @return 是否消费，按下的时候总是返回true
+     */
+    public boolean onTouchEvent(int action, float x, float y, long time) {
+        processEvent(action, x, y, time);
+
+        if (action == HTouchTracker.ACTION_UP || action == HTouchTracker.ACTION_CANCEL) {
+            onEventFinish(action);
+        } else if (action == HTouchTracker.ACTION_DOWN) {
+            onEventStart(x, y);
+            return true;
+        } else if (!mIsCancelConsumeEvent) {
+            if (!mTagConsume) {
+                setTagConsume(isDrag());
+            } else {
+                // 第一次拖动把确定方向之前移动的距离也加上
+                mCallback.onDrag(mHasConsumeEvent ? mTouchTracker.getDeltaX() : mTouchTracker.getDeltaXFromDown());
+                mHasConsumeEvent = true;
+            }
+        }
+        return mTagConsume;
+    }
+
+    private void processEvent(int action, float x, float y, long time) {
+        mTouchTracker.process(action, x, y, time);
+        mVelocityTracker.addMovement(action, x, y, time);
+    }
+
+    /**
+     * 判断是否拖动手柄，移动超过touchSlop之后只判断一次
+     *
+     * @return
+     */
+    private boolean isDrag() {
+        return mDragClassifier.onMove(mCallback.isChecked(), mTouchTracker.getDeltaXFromDown(),
+                mTouchTracker.getDeltaYFromDown()) == HDragClassifier.STATE_DRAG;
+    }
+
+    private void onEventStart(float x, float y) {
+        mHasConsumeEvent = false;
+        mIsCancelConsumeEvent = false;
+        mVelocityX = 0;
+        mVelocityY = 0;
+        mDragClassifier.onDown(mCallback.isThumbUnder(x, y));
+    }
+
+    private void onEventFinish(int action) {
+        setTagIntercept(false);
+        setTagConsume(false);
+
+        mVelocityTracker.computeCurrentVelocity(1000);
+        mVelocityX = mVelocityTracker.getXVelocity();
+        mVelocityY = mVelocityTracker.getYVelocity();
+        mVelocityTracker.clear();
+
+        if (!mIsCancelConsumeEvent) {
+            if (mTouchTracker.isClick(action, mClickTimeout, mTouchSlop)) {
+                mCallback.onClick();
+            } else if (mHasConsumeEvent) {
+                final boolean checked = HSwitchRules.settleChecked(mVelocityX, mMinFlingVelocity,
+                        mCallback.getThumbLeft(), mCallback.getLeftNormal(), mCallback.getLeftChecked());
+                mCallback.onRelease(checked, mVelocityX);
+            }
+        }
+
+        mHasConsumeEvent = false;
+        mIsCancelConsumeEvent = false;
+
+        if (getState() == HGestureStateMachine.State.Consume)
+            mStateMachine.setState(HGestureStateMachine.State.Idle);
+    }
+
+    /**
+     * 取消消费事件，本次手势剩下的事件不再拖动手柄，抬起的时候也不再决定状态
+     * <br>
+     * 调用之后外部有可能立即开始滚动，这种情况外部需要把两个调用放在同一个事务中{@link #beginTransaction()}
+     */
+    public void cancelConsumeEvent() {
+        if (!mTagConsume)
+            return;
+
+        mIsCancelConsumeEvent = true;
+        if (getState() != HGestureStateMachine.State.Fling)
+            mStateMachine.requestIdle();
+
+        setTagIntercept(false);
+        setTagConsume(false);
+    }
+
+    /**
+     * 调用方开始滚动动画
+     */
+    public void onScrollStart() {
+        mStateMachine.setState(HGestureStateMachine.State.Fling);
+    }
+
+    /**
+     * 调用方的滚动动画结束或者被中止
+     */
+    public void onScrollFinish() {
+        if (mTagConsume) {
+            mStateMachine.setState(HGestureStateMachine.State.Consume);
+        } else {
+            mStateMachine.requestIdle();
+        }
+    }
+
+    /**
+     * 开始事务，事务结束之前不会进入{@link HGestureStateMachine.State#Idle}状态，可以嵌套
+     */
+    public void beginTransaction() {
+        mStateMachine.beginTransaction();
+    }
+
+    /**
+     * 结束事务，参考{@link HGestureStateMachine#endTransaction()}
+     */
+    public void endTransaction() {
+        mStateMachine.endTransaction();
+    }
+
+    private void setTagIntercept(boolean tag) {
+        if (mTagIntercept != tag) {
+            mTagIntercept = tag;
+            mCallback.onTagInterceptChanged(tag);
+        }
+    }
+
+    private void setTagConsume(boolean tag) {
+        if (mTagConsume != tag) {
+            mTagConsume = tag;
+            if (tag)
+                mStateMachine.setState(HGestureStateMachine.State.Consume);
+            mCallback.onTagConsumeChanged(tag);
+        }
+    }
+
+    public abstract static class Callback {
+        /**
+         * 当前是否选中
+         *
+         * @return
+         */
+        public abstract boolean isChecked();
+
+        /**
+         * 按下的点是否在手柄上面，在手柄上面的时候可以往任意方向拖动
+         *
+         * @param x
+         * @param y
+         * @return
+         */
+        public abstract boolean isThumbUnder(float x, float y);
+
+        public abstract float getThumbLeft();
+
+        /**
+         * 返回未选中时手柄的left值
+         *
+         * @return
+         */
+        public abstract int getLeftNormal();
+
+        /**
+         * 返回选中时手柄的left值
+         *
+         * @return
+         */
+        public abstract int getLeftChecked();
+
+        /**
+         * 状态变化回调
+         *
+         * @param oldState
+         * @param newState
+         */
+        public abstract void onStateChanged(HGestureStateMachine.State oldState, HGestureStateMachine.State newState);
+
+        /**
+         * 拖动手柄
+         *
+         * @param dx x轴方向移动的距离
+         */
+        public abstract void onDrag(float dx);
+
+        /**
+         * 点击
+         */
+        public abstract void onClick();
+
+        /**
+         * 拖动之后抬起
+         *
+         * @param checked  根据位置和速度决定的选中状态
+         * @param velocity x轴方向的速度(像素/秒)
+         */
+        public abstract void onRelease(boolean checked, float velocity);
+
+        /**
+         * 拦截标识变化
+         *
+         * @param tag
+         */
+        public void onTagInterceptChanged(boolean tag) {
+        }
+
+        /**
+         * 消费标识变化
+         *
+         * @param tag
+         */
+        public void onTagConsumeChanged(boolean tag) {
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.zzh.lib.switchbutton.core;
+
+/**
+ * 开关手势的判断规则，不依赖Android，所有方法都是无状态的
+ */
+public final class HSwitchRules {
+    /**
+     * 拖动方向和x轴的最大夹角，超过认为不是拖动开关
+     */
+    public static final double MAX_DRAG_DEGREE_X = 30;
+    /**
+     * {@link #MAX_DRAG_DEGREE_X}对应的斜率tan(30°)，|dy| < |dx| * 斜率 等价于夹角小于30度
+     */
+    public static final float MAX_DRAG_SLOPE = 0.57735026f;
+
+    /**
+     * 方向未锁定
+     */
+    public static final int DIRECTION_NONE = 0;
+    /**
+     * 锁定为水平方向
+     */
+    public static final int DIRECTION_HORIZONTAL = 1;
+    /**
+     * 锁定为竖直方向
+     */
+    public static final int DIRECTION_VERTICAL = 2;
+
+    /**
+     * 归位曲线的最小切线，速度和目标方向相反时手柄最多往回走剩余距离的5%
+     */
+    public static final float SETTLE_TANGENT_MIN = -1f;
+    /**
+     * 归位曲线的最大切线，超过3曲线会越过终点
+     */
+    public static final float SETTLE_TANGENT_MAX = 3f;
+
+    private HSwitchRules() {
+    }
+
+    /**
+     * 是否可以拖动手柄，使用斜率判断和x轴的夹角
+     *
+     * @param checked        当前是否选中
+     * @param deltaXFromDown 当前点和按下点之间的x轴方向增量
+     * @param deltaYFromDown 当前点和按下点之间的y轴方向增量
+     * @return
+     */
+    public static boolean canPull(boolean checked, float deltaXFromDown, float deltaYFromDown) {
+        if (deltaXFromDown == 0)
+            return false;
+
+        if (!isHorizontal(deltaXFromDown, deltaYFromDown))
+            return false;
+
+        return isPullDirection(checked, deltaXFromDown);
+    }
+
+    private static boolean isPullDirection(boolean checked, float deltaX) {
+        final boolean checkMoveLeft = checked && deltaX < 0;
+        final boolean checkMoveRight = !checked && deltaX > 0;
+
+        return checkMoveLeft || checkMoveRight;
+    }
+
+    /**
+     * 和x轴的夹角是否小于{@link #MAX_DRAG_DEGREE_X}
+     *
+     * @param deltaX
+     * @param deltaY
+     * @return
+     */
+    public static boolean isHorizontal(float deltaX, float deltaY) {
+        return Math.abs(deltaY) < Math.abs(deltaX) * MAX_DRAG_SLOPE;
+    }
+
+    /**
+     * 锁定移动方向，移动距离超过touchSlop之后判断，和x轴的夹角小于{@link #MAX_DRAG_DEGREE_X}为水平方向，否则为竖直方向
+     *
+     * @param deltaXFromDown 当前点和按下点之间的x轴方向增量
+     * @param deltaYFromDown 当前点和按下点之间的y轴方向增量
+     * @param touchSlop      最小移动距离
+     * @return {@link #DIRECTION_NONE}，{@link #DIRECTION_HORIZONTAL}，{@link #DIRECTION_VERTICAL}
+     */
+    public static int lockDirection(float deltaXFromDown, float deltaYFromDown, int touchSlop) {
+        final float dxAbs = Math.abs(deltaXFromDown);
+        final float dyAbs = Math.abs(deltaYFromDown);
+
+        final float deltaMax = Math.max(dxAbs, dyAbs);
+        if (deltaMax == 0 || deltaMax < touchSlop)
+            return DIRECTION_NONE;
+
+        return isHorizontal(deltaXFromDown, deltaYFromDown) ? DIRECTION_HORIZONTAL : DIRECTION_VERTICAL;
+    }
+
+    /**
+     * 拖动结束后是否应该选中
+     *
+     * @param velocityX        结束时的x轴速度
+     * @param minFlingVelocity 超过这个速度按速度方向决定，否则按手柄是否过了中点决定
+     * @param thumbLeft        手柄当前left值
+     * @param leftNormal       未选中时手柄的left值
+     * @param leftChecked      选中时手柄的left值
+     * @return
+     */
+    public static boolean settleChecked(float velocityX, float minFlingVelocity,
+                                        float thumbLeft, int leftNormal, int leftChecked) {
+        if (Math.abs(velocityX) > minFlingVelocity)
+            return velocityX > 0;
+
+        final int leftMiddle = (leftNormal + leftChecked) / 2;
+        return thumbLeft >= leftMiddle;
+    }
+
+    /**
+     * 松手后归位的时长，速度朝向目标时按匀减速到0计算(时长 = 2 * 距离 / 速度)，快速滑动很快结束，慢速松手不超过最大时长
+     *
+     * @param distance        剩余距离(像素)，带方向
+     * @param velocity        松手速度(像素/秒)
+     * @param minDuration     最小时长
+     * @param maxDuration     最大时长
+     * @param defaultDuration 没有速度或者速度背离目标时返回的时长
+     * @return
+     */
+    public static int settleDuration(float distance, float velocity, int minDuration, int maxDuration, int defaultDuration) {
+        if (distance == 0 || velocity == 0 || (distance > 0) != (velocity > 0))
+            return defaultDuration;
+
+        final float duration = 2 * distance / velocity * 1000f;
+        return (int) Math.max(minDuration, Math.min(maxDuration, duration));
+    }
+
+    /**
+     * 松手后归位曲线的起点切线(初始速度 * 时长 / 距离)，起点速度等于松手速度，
+     * 超出[{@link #SETTLE_TANGENT_MIN}, {@link #SETTLE_TANGENT_MAX}]的部分会被截断，保证手柄不越过终点
+     *
+     * @param distance 剩余距离(像素)，带方向
+     * @param velocity 松手速度(像素/秒)
+     * @param duration 时长
+     * @return 匀减速为2，0表示从静止开始
+     */
+    public static float settleTangent(float distance, float velocity, int duration) {
+        return settleTangent(distance, velocity, duration, Float.MAX_VALUE);
+    }
+
+    /**
+     * 同{@link #settleTangent(float, float, int)}，速度和目标方向相反的时候限制曲线沿原方向继续走的距离
+     * <br>
+     * 切线为m(m小于0)的曲线沿原方向最多走 m * m / 12 * |distance|
+     *
+     * @param distance    剩余距离(像素)，带方向
+     * @param velocity    当前速度(像素/秒)
+     * @param duration    时长
+     * @param reverseRoom 沿原方向还可以移动的距离(像素)，例如到原来目标位置的距离
+     * @return
+     */
+    public static float settleTangent(float distance, float velocity, int duration, float reverseRoom) {
+        if (distance == 0 || duration <= 0)
+            return 0;
+
+        final float minTangent = Math.max(SETTLE_TANGENT_MIN,
+                -(float) Math.sqrt(12 * Math.max(0, reverseRoom) / Math.abs(distance)));
+        final float tangent = velocity * duration / 1000f / distance;
+        return Math.max(minTangent, Math.min(SETTLE_TANGENT_MAX, tangent));
+    }
+
+    /**
+     * 松手或者修改目标位置后归位的起点速度，按{@link #settleTangent(float, float, int, float)}截断，
+     * 保证不越过终点，反向的时候不超过reverseRoom
+     *
+     * @param distance    剩余距离(像素)，带方向
+     * @param velocity    当前速度(像素/秒)
+     * @param duration    时长
+     * @param reverseRoom 沿原方向还可以移动的距离(像素)
+     * @return 起点速度(像素/秒)
+     */
+    public static float settleVelocity(float distance, float velocity, int duration, float reverseRoom) {
+        final float tangent = settleTangent(distance, velocity, duration, reverseRoom);
+        if (tangent == 0)
+            return 0;
+        return tangent * distance / duration * 1000f;
+    }
+
+    /**
+     * 归位曲线，终点速度为0的三次Hermite曲线，切线为2的时候等价于android.view.animation.DecelerateInterpolator
+     *
+     * @param t       [0-1]
+     * @param tangent {@link #settleTangent(float, float, int)}
+     * @return 移动距离的比例
+     */
+    public static float settleInterpolation(float t, float tangent) {
+        final float t2 = t * t;
+        final float t3 = t2 * t;
+        return (-2 * t3 + 3 * t2) + (t3 - 2 * t2 + t) * tangent;
+    }
+
+    /**
+     * 返回合理的增量
+     *
+     * @param current 当前值
+     * @param min     最小值
+     * @param max     最大值
+     * @param delta   增量
+     * @return
+     */
+    public static int getLegalDelta(int current, int min, int max, int delta) {
+        if (delta == 0)
+            return 0;
+
+        final int future = current + delta;
+        if (future < min) {
+            delta += (min - future);
+        } else if (future > max) {
+            delta += (max - future);
+        }
+        return delta;
+    }
+
+    /**
+     * 把位置限制在[min, max]范围内
+     *
+     * @param value
+     * @param min
+     * @param max
+     * @return
+     */
+    public static float clamp(float value, float min, float max) {
+        return Math.max(min, Math.min(value, max));
+    }
+}
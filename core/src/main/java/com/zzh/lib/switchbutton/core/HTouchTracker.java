@@ -0,0 +1,195 @@
+package com.zzh.lib.switchbutton.core;
+
+/**
+ * 触摸点跟踪，不依赖Android，输入为原始的动作、坐标和时间
+ */
+public class HTouchTracker {
+    /**
+     * 动作取值和android.view.MotionEvent保持一致，可以直接传入MotionEvent#getActionMasked()
+     */
+    public static final int ACTION_DOWN = 0;
+    public static final int ACTION_UP = 1;
+    public static final int ACTION_MOVE = 2;
+    public static final int ACTION_CANCEL = 3;
+
+    private float mCurrentX;
+    private float mCurrentY;
+
+    private float mLastX;
+    private float mLastY;
+
+    private float mDownX;
+    private float mDownY;
+
+    private long mDownTime;
+    private long mEventTime;
+
+    /**
+     * 处理一个触摸点
+     *
+     * @param action {@link #ACTION_DOWN}等
+     * @param x
+     * @param y
+     * @param time   事件时间(毫秒)
+     */
+    public void process(int action, float x, float y, long time) {
+        mLastX = mCurrentX;
+        mLastY = mCurrentY;
+
+        mCurrentX = x;
+        mCurrentY = y;
+        mEventTime = time;
+
+        if (action == ACTION_DOWN) {
+            mDownX = x;
+            mDownY = y;
+            mDownTime = time;
+        }
+    }
+
+    public float getCurrentX() {
+        return mCurrentX;
+    }
+
+    public float getCurrentY() {
+        return mCurrentY;
+    }
+
+    public float getLastX() {
+        return mLastX;
+    }
+
+    public float getLastY() {
+        return mLastY;
+    }
+
+    public float getDownX() {
+        return mDownX;
+    }
+
+    public float getDownY() {
+        return mDownY;
+    }
+
+    public long getDownTime() {
+        return mDownTime;
+    }
+
+    public long getEventTime() {
+        return mEventTime;
+    }
+
+    //---------- Delta Start ----------
+
+    /**
+     * 返回当前点和上一个点之间的x轴方向增量
+     *
+     * @return
+     */
+    public float getDeltaX() {
+        return mCurrentX - mLastX;
+    }
+
+    /**
+     * 返回当前点和上一个点之间的y轴方向增量
+     *
+     * @return
+     */
+    public float getDeltaY() {
+        return mCurrentY - mLastY;
+    }
+
+    /**
+     * 返回当前点和按下点之间的x轴方向增量
+     *
+     * @return
+     */
+    public float getDeltaXFromDown() {
+        return mCurrentX - mDownX;
+    }
+
+    /**
+     * 返回当前点和按下点之间的y轴方向增量
+     *
+     * @return
+     */
+    public float getDeltaYFromDown() {
+        return mCurrentY - mDownY;
+    }
+
+    //---------- Delta End ----------
+
+    //---------- Degree Start ----------
+
+    /**
+     * 返回当前点和上一个点之间的x轴方向夹角
+     *
+     * @return
+     */
+    public double getDegreeX() {
+        return getDegree(getDeltaX(), getDeltaY());
+    }
+
+    /**
+     * 返回当前点和上一个点之间的y轴方向夹角
+     *
+     * @return
+     */
+    public double getDegreeY() {
+        return getDegree(getDeltaY(), getDeltaX());
+    }
+
+    /**
+     * 返回当前点和按下点之间的x轴方向夹角
+     *
+     * @return
+     */
+    public double getDegreeXFromDown() {
+        return getDegree(getDeltaXFromDown(), getDeltaYFromDown());
+    }
+
+    /**
+     * 返回当前点和按下点之间的y轴方向夹角
+     *
+     * @return
+     */
+    public double getDegreeYFromDown() {
+        return getDegree(getDeltaYFromDown(), getDeltaXFromDown());
+    }
+
+    /**
+     * 返回和main轴方向的夹角
+     *
+     * @param main  主轴增量
+     * @param cross 另一个轴的增量
+     * @return
+     */
+    private static double getDegree(float main, float cross) {
+        if (main == 0)
+            return 0;
+
+        final float angle = Math.abs(cross) / Math.abs(main);
+        return Math.toDegrees(Math.atan(angle));
+    }
+
+    //---------- Degree End ----------
+
+    /**
+     * 是否是点击
+     *
+     * @param action       当前动作，只有{@link #ACTION_UP}才可能是点击
+     * @param clickTimeout 点击的最大时长(毫秒)
+     * @param touchSlop    点击的最大移动距离
+     * @return
+     */
+    public boolean isClick(int action, long clickTimeout, int touchSlop) {
+        if (action != ACTION_UP)
+            return false;
+
+        final long duration = mEventTime - mDownTime;
+        final int dx = (int) getDeltaXFromDown();
+        final int dy = (int) getDeltaYFromDown();
+
+        return duration < clickTimeout && dx < touchSlop && dy < touchSlop;
+    }
+}
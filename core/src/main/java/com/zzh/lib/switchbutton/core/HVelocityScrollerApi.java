@@ -0,0 +1,35 @@
+package com.zzh.lib.switchbutton.core;
+
+/**
+ * 可以返回当前速度，并且可以带初始速度开始滚动的{@link HScrollerApi}
+ * <br>
+ * 滚动中修改目标位置的时候使用当前速度作为初始速度，手柄不会先停下再重新开始
+ */
+public interface HVelocityScrollerApi extends HScrollerApi {
+    /**
+     * 返回当前x方向速度(像素/秒)，滚动结束返回0
+     *
+     * @return
+     */
+    float getCurrVelocityX();
+
+    /**
+     * 返回当前y方向速度(像素/秒)，滚动结束返回0
+     *
+     * @return
+     */
+    float getCurrVelocityY();
+
+    /**
+     * 带初始速度开始滚动，结束时速度为0
+     *
+     * @param startX
+     * @param startY
+     * @param dx
+     * @param dy
+     * @param duration  时长(毫秒)
+     * @param velocityX 初始x方向速度(像素/秒)
+     * @param velocityY 初始y方向速度(像素/秒)
+     */
+    void startScroll(int startX, int startY, int dx, int dy, int duration, float velocityX, float velocityY);
+}
@@ -0,0 +1,154 @@
+package com.zzh.lib.switchbutton.core;
+
+/**
+ * 速度计算，不依赖Android，算法和android.view.VelocityTracker默认的二次最小二乘拟合一致
+ * <br>
+ * 只保存最近{@link #HISTORY_SIZE}个点，添加和计算都不创建对象
+ */
+public class HVelocityTracker {
+    /**
+     * 保存的点个数
+     */
+    private static final int HISTORY_SIZE = 20;
+    /**
+     * 只使用最近这段时间(毫秒)内的点
+     */
+    private static final long HORIZON = 100;
+    /**
+     * 两个点之间间隔超过这个值(毫秒)认为停顿过，丢弃之前的点
+     */
+    private static final long ASSUME_POINTER_STOPPED_TIME = 40;
+
+    private final float[] mX = new float[HISTORY_SIZE];
+    private final float[] mY = new float[HISTORY_SIZE];
+    private final long[] mTime = new long[HISTORY_SIZE];
+    /**
+     * 最新一个点的位置
+     */
+    private int mIndex = -1;
+    private int mCount;
+
+    private float mVelocityX;
+    private float mVelocityY;
+
+    /**
+     * 添加一个点，{@link HTouchTracker#ACTION_DOWN}会清空之前的点
+     *
+     * @param action
+     * @param x
+     * @param y
+     * @param time   事件时间(毫秒)
+     */
+    public void addMovement(int action, float x, float y, long time) {
+        if (action == HTouchTracker.ACTION_DOWN)
+            clear();
+
+        if (mCount > 0 && time - mTime[mIndex] > ASSUME_POINTER_STOPPED_TIME)
+            mCount = 0;
+
+        mIndex = (mIndex + 1) % HISTORY_SIZE;
+        mX[mIndex] = x;
+        mY[mIndex] = y;
+        mTime[mIndex] = time;
+        if (mCount < HISTORY_SIZE)
+            mCount++;
+    }
+
+    public void clear() {
+        mIndex = -1;
+        mCount = 0;
+        mVelocityX = 0;
+        mVelocityY = 0;
+    }
+
+    /**
+     * 计算速度
+     *
+     * @param units 1-像素/毫秒，1000-像素/秒
+     */
+    public void computeCurrentVelocity(int units) {
+        computeCurrentVelocity(units, Float.MAX_VALUE);
+    }
+
+    /**
+     * 计算速度
+     *
+     * @param units       1-像素/毫秒，1000-像素/秒
+     * @param maxVelocity 最大速度
+     */
+    public void computeCurrentVelocity(int units, float maxVelocity) {
+        mVelocityX = clamp(solve(mX) * units, maxVelocity);
+        mVelocityY = clamp(solve(mY) * units, maxVelocity);
+    }
+
+    public float getXVelocity() {
+        return mVelocityX;
+    }
+
+    public float getYVelocity() {
+        return mVelocityY;
+    }
+
+    private static float clamp(float velocity, float max) {
+        return Math.max(-max, Math.min(velocity, max));
+    }
+
+    /**
+     * 以最新的点为时间原点，二次最小二乘拟合 p(t) = a + b*t + c*t^2，返回最新点的速度b(像素/毫秒)
+     *
+     * @param values
+     * @return
+     */
+    private float solve(float[] values) {
+        if (mCount < 2)
+            return 0;
+
+        final long newest = mTime[mIndex];
+
+        // 正规方程的系数 sum(t^k) 和 sum(v*t^k)
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0, s4 = 0;
+        double v0 = 0, v1 = 0, v2 = 0;
+        int count = 0;
+
+        int index = mIndex;
+        for (int i = 0; i < mCount; i++) {
+            final long age = newest - mTime[index];
+            if (age > HORIZON)
+                break;
+
+            final double t = -age;
+            final double v = values[index];
+            final double t2 = t * t;
+
+            s0 += 1;
+            s1 += t;
+            s2 += t2;
+            s3 += t2 * t;
+            s4 += t2 * t2;
+            v0 += v;
+            v1 += v * t;
+            v2 += v * t2;
+            count++;
+
+            index = (index - 1 + HISTORY_SIZE) % HISTORY_SIZE;
+        }
+
+        if (count < 2)
+            return 0;
+
+        if (count >= 3) {
+            // 克莱姆法则求解3x3方程组中的b
+            final double det = s0 * (s2 * s4 - s3 * s3) - s1 * (s1 * s4 - s3 * s2) + s2 * (s1 * s3 - s2 * s2);
+            if (Math.abs(det) > 1e-9) {
+                final double detB = s0 * (v1 * s4 - s3 * v2) - v0 * (s1 * s4 - s3 * s2) + s2 * (s1 * v2 - v1 * s2);
+                return (float) (detB / det);
+            }
+        }
+
+        // 点不够或者时间相同，使用一次拟合
+        final double det = s0 * s2 - s1 * s1;
+        if (Math.abs(det) < 1e-9)
+            return 0;
+        return (float) ((s0 * v1 - s1 * v0) / det);
+    }
+}
@@ -0,0 +1,87 @@
+package com.zzh.lib.switchbutton.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class HDragClassifierTest {
+    private static final int TOUCH_SLOP = 8;
+
+    @Test
+    public void pendingUntilTouchSlop() {
+        final HDragClassifier classifier = new HDragClassifier(TOUCH_SLOP);
+        classifier.onDown(false);
+
+        assertEquals(HDragClassifier.STATE_PENDING, classifier.onMove(false, 0, 0));
+        assertEquals(HDragClassifier.STATE_PENDING, classifier.onMove(false, 7, 2));
+        assertEquals(HDragClassifier.STATE_DRAG, classifier.onMove(false, 8, 2));
+    }
+
+    @Test
+    public void pullDirectionOutsideThumb() {
+        final HDragClassifier classifier = new HDragClassifier(TOUCH_SLOP);
+
+        classifier.onDown(false);
+        assertEquals(HDragClassifier.STATE_DRAG, classifier.onMove(true, -10, 0));
+
+        classifier.onDown(false);
+        assertEquals(HDragClassifier.STATE_REJECT, classifier.onMove(true, 10, 0));
+    }
+
+    @Test
+    public void anyHorizontalDirectionOnThumb() {
+        final HDragClassifier classifier = new HDragClassifier(TOUCH_SLOP);
+        classifier.onDown(true);
+        assertTrue(classifier.isDownOnThumb());
+        assertEquals(HDragClassifier.STATE_DRAG, classifier.onMove(true, 10, 0));
+    }
+
+    @Test
+    public void verticalRejectedEvenOnThumb() {
+        final HDragClassifier classifier = new HDragClassifier(TOUCH_SLOP);
+        classifier.onDown(true);
+        assertEquals(HDragClassifier.STATE_REJECT, classifier.onMove(false, 5, 10));
+    }
+
+    @Test
+    public void directionLockedOnce() {
+        final HDragClassifier classifier = new HDragClassifier(TOUCH_SLOP);
+
+        // 先竖直滑动被拒绝，之后变成水平也不会再拖动
+        classifier.onDown(false);
+        assertEquals(HDragClassifier.STATE_REJECT, classifier.onMove(false, 0, 10));
+        assertEquals(HDragClassifier.STATE_REJECT, classifier.onMove(false, 50, 10));
+        assertEquals(HSwitchRules.DIRECTION_VERTICAL, classifier.getDirection());
+
+        // 确定拖动之后变成竖直也继续拖动
+        classifier.onDown(false);
+        assertEquals(HDragClassifier.STATE_DRAG, classifier.onMove(false, 10, 0));
+        assertEquals(HDragClassifier.STATE_DRAG, classifier.onMove(false, 10, 80));
+        assertEquals(HDragClassifier.STATE_DRAG, classifier.getState());
+        assertEquals(HSwitchRules.DIRECTION_HORIZONTAL, classifier.getDirection());
+    }
+
+    @Test
+    public void onDownResets() {
+        final HDragClassifier classifier = new HDragClassifier(TOUCH_SLOP);
+        classifier.onDown(true);
+        classifier.onMove(false, 0, 10);
+
+        classifier.onDown(false);
+        assertFalse(classifier.isDownOnThumb());
+        assertEquals(HDragClassifier.STATE_PENDING, classifier.getState());
+        assertEquals(HSwitchRules.DIRECTION_NONE, classifier.getDirection());
+    }
+
+    @Test
+    public void slopeBoundary() {
+        final HDragClassifier classifier = new HDragClassifier(TOUCH_SLOP);
+        // tan(30°)约为0.577
+        classifier.onDown(false);
+        assertEquals(HDragClassifier.STATE_DRAG, classifier.onMove(false, 100, 57));
+        classifier.onDown(false);
+        assertEquals(HDragClassifier.STATE_REJECT, classifier.onMove(false, 100, 58));
+    }
+}
@@ -0,0 +1,124 @@
+package com.zzh.lib.switchbutton.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 按固定帧率逐帧驱动{@link HEasingScrollerApi}
+ */
+public class HEasingScrollerApiTest {
+    private static final float[] REFRESH_RATES = {60, 90, 120, 144};
+
+    @Test
+    public void manualClockDoesNotDrift() {
+        for (float rate : REFRESH_RATES) {
+            final HManualFrameClock clock = new HManualFrameClock();
+            for (int i = 0; i < (int) rate; i++) {
+                clock.advanceFrame(rate);
+            }
+            assertEquals("rate:" + rate, 1000, clock.currentTimeMillis());
+        }
+    }
+
+    @Test
+    public void scrollFollowsViscousCurve() {
+        for (float rate : REFRESH_RATES) {
+            final HManualFrameClock clock = new HManualFrameClock();
+            final HEasingScrollerApi api = new HEasingScrollerApi(1, clock);
+            api.startScroll(10, 20, 200, -100, 300);
+
+            int frames = 0;
+            int lastX = 10;
+            while (!api.isFinished()) {
+                clock.advanceFrame(rate);
+                assertTrue(api.computeScrollOffset());
+                frames++;
+
+                assertTrue(api.getCurrX() >= lastX);
+                lastX = api.getCurrX();
+                if (api.isFinished())
+                    break;
+
+                final float x = HEasingScrollerApi.getViscousFluidInterpolation(clock.currentTimeMillis() / 300f);
+                assertEquals(10 + x * 200, api.getCurrX(), 0.5f);
+                assertEquals(20 - x * 100, api.getCurrY(), 0.5f);
+            }
+
+            // 300毫秒内的帧数
+            assertEquals("rate:" + rate, Math.ceil(rate * 0.3f), frames, 1);
+            assertEquals(210, api.getCurrX());
+            assertEquals(-80, api.getCurrY());
+            assertFalse(api.computeScrollOffset());
+        }
+    }
+
+    @Test
+    public void viscousVelocityMatchesCurve() {
+        final float step = 0.001f;
+        for (float t = 0.01f; t < 0.99f; t += 0.01f) {
+            final float slope = (HEasingScrollerApi.getViscousFluidInterpolation(t + step)
+                    - HEasingScrollerApi.getViscousFluidInterpolation(t - step)) / (2 * step);
+            assertEquals("t:" + t, slope, HEasingScrollerApi.getViscousFluidVelocity(t), 0.05f);
+        }
+    }
+
+    @Test
+    public void flingEndsAtSameFinalForAllRates() {
+        int finalX = Integer.MIN_VALUE;
+        for (float rate : REFRESH_RATES) {
+            final HManualFrameClock clock = new HManualFrameClock();
+            final HEasingScrollerApi api = new HEasingScrollerApi(2, clock);
+            api.fling(0, 0, 3000, 0, 0, 10000, 0, 0);
+            if (finalX == Integer.MIN_VALUE)
+                finalX = api.getFinalX();
+            assertEquals(finalX, api.getFinalX());
+            assertTrue(finalX > 0);
+
+            int lastX = 0;
+            int frames = 0;
+            while (!api.isFinished()) {
+                clock.advanceFrame(rate);
+                api.computeScrollOffset();
+                assertTrue(api.getCurrX() >= lastX);
+                assertTrue(api.getCurrX() <= finalX);
+                lastX = api.getCurrX();
+                assertTrue(++frames < 1000);
+            }
+            assertEquals(finalX, api.getCurrX());
+            assertTrue(clock.currentTimeMillis() <= api.getDuration() + 1000 / rate + 1);
+        }
+    }
+
+    @Test
+    public void flingClampedToBounds() {
+        for (float rate : REFRESH_RATES) {
+            final HManualFrameClock clock = new HManualFrameClock();
+            final HEasingScrollerApi api = new HEasingScrollerApi(2, clock);
+            api.fling(50, 0, -5000, 0, 0, 100, 0, 0);
+            assertEquals(0, api.getFinalX());
+
+            while (!api.isFinished()) {
+                clock.advanceFrame(rate);
+                api.computeScrollOffset();
+                assertTrue(api.getCurrX() >= 0 && api.getCurrX() <= 50);
+            }
+            assertEquals(0, api.getCurrX());
+        }
+    }
+
+    @Test
+    public void abortAnimationJumpsToFinal() {
+        final HManualFrameClock clock = new HManualFrameClock();
+        final HEasingScrollerApi api = new HEasingScrollerApi(1, clock);
+        api.startScroll(0, 0, 100, 0, 250);
+        clock.advanceFrame(60);
+        api.computeScrollOffset();
+
+        api.abortAnimation();
+        assertTrue(api.isFinished());
+        assertEquals(100, api.getCurrX());
+    }
+}
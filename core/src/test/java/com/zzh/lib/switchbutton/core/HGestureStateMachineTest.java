@@ -0,0 +1,104 @@
+package com.zzh.lib.switchbutton.core;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class HGestureStateMachineTest {
+    private final List<HGestureStateMachine.State> mStates = new ArrayList<>();
+    private HGestureStateMachine mStateMachine;
+
+    @Before
+    public void setUp() {
+        mStateMachine = new HGestureStateMachine(new HGestureStateMachine.Callback() {
+            @Override
+            public void onStateChanged(HGestureStateMachine.State oldState, HGestureStateMachine.State newState) {
+                mStates.add(newState);
+            }
+        });
+    }
+
+    @Test
+    public void setStateNotifiesOnlyChanges() {
+        mStateMachine.setState(HGestureStateMachine.State.Idle);
+        assertTrue(mStates.isEmpty());
+
+        mStateMachine.setState(HGestureStateMachine.State.Consume);
+        mStateMachine.setState(HGestureStateMachine.State.Consume);
+        mStateMachine.setState(HGestureStateMachine.State.Fling);
+        assertStates(HGestureStateMachine.State.Consume, HGestureStateMachine.State.Fling);
+    }
+
+    @Test
+    public void requestIdleOutsideTransaction() {
+        mStateMachine.setState(HGestureStateMachine.State.Fling);
+        assertTrue(mStateMachine.requestIdle());
+        assertEquals(HGestureStateMachine.State.Idle, mStateMachine.getState());
+    }
+
+    @Test
+    public void requestIdleDeferredToEndTransaction() {
+        mStateMachine.setState(HGestureStateMachine.State.Fling);
+        mStates.clear();
+
+        mStateMachine.beginTransaction();
+        assertFalse(mStateMachine.requestIdle());
+        assertEquals(HGestureStateMachine.State.Fling, mStateMachine.getState());
+        assertTrue(mStates.isEmpty());
+
+        mStateMachine.endTransaction();
+        assertStates(HGestureStateMachine.State.Idle);
+    }
+
+    @Test
+    public void setStateCancelsPendingIdle() {
+        mStateMachine.setState(HGestureStateMachine.State.Fling);
+        mStates.clear();
+
+        // 事务中先结束滚动，再开始新的滚动，不会经过Idle
+        mStateMachine.beginTransaction();
+        mStateMachine.requestIdle();
+        mStateMachine.setState(HGestureStateMachine.State.Consume);
+        mStateMachine.endTransaction();
+
+        assertStates(HGestureStateMachine.State.Consume);
+    }
+
+    @Test
+    public void nestedTransaction() {
+        mStateMachine.setState(HGestureStateMachine.State.Fling);
+        mStates.clear();
+
+        mStateMachine.beginTransaction();
+        mStateMachine.beginTransaction();
+        mStateMachine.requestIdle();
+        mStateMachine.endTransaction();
+        assertEquals(HGestureStateMachine.State.Fling, mStateMachine.getState());
+
+        mStateMachine.endTransaction();
+        assertStates(HGestureStateMachine.State.Idle);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void endTransactionWithoutBegin() {
+        mStateMachine.endTransaction();
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void setNullState() {
+        mStateMachine.setState(null);
+    }
+
+    private void assertStates(HGestureStateMachine.State... states) {
+        assertEquals(states.length, mStates.size());
+        for (int i = 0; i < states.length; i++) {
+            assertEquals(states[i], mStates.get(i));
+        }
+    }
+}
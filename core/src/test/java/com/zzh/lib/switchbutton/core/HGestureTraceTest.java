@@ -0,0 +1,156 @@
+package com.zzh.lib.switchbutton.core;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class HGestureTraceTest {
+    private static final int LEFT_NORMAL = 0;
+    private static final int LEFT_CHECKED = 40;
+    private static final int THUMB_WIDTH = 20;
+
+    @Test
+    public void writeAndReadBack() throws IOException {
+        final HGestureTrace trace = newTrace();
+        final HGestureTrace copy = readBack(trace);
+
+        assertEquals(trace.isChecked(), copy.isChecked());
+        assertEquals(trace.getLeftNormal(), copy.getLeftNormal());
+        assertEquals(trace.getLeftChecked(), copy.getLeftChecked());
+        assertEquals(trace.getThumbWidth(), copy.getThumbWidth());
+        assertEquals(trace.getTouchSlop(), copy.getTouchSlop());
+        assertEquals(trace.getClickTimeout(), copy.getClickTimeout());
+        assertEquals(trace.getMinFlingVelocity(), copy.getMinFlingVelocity(), 0);
+
+        assertEquals(trace.getEventCount(), copy.getEventCount());
+        for (int i = 0; i < trace.getEventCount(); i++) {
+            assertEquals(trace.getAction(i), copy.getAction(i));
+            assertEquals(trace.getX(i), copy.getX(i), 0);
+            assertEquals(trace.getY(i), copy.getY(i), 0);
+            assertEquals(trace.getTime(i), copy.getTime(i));
+        }
+    }
+
+    @Test
+    public void replayAfterReadBack() throws IOException {
+        final HGestureReplayer replayer = new HGestureReplayer();
+        replayer.setMeasure(false);
+
+        final HGestureTrace trace = newTrace();
+        final HGestureReplayer.Report report = replayer.replay(trace);
+        final HGestureReplayer.Report copyReport = replayer.replay(readBack(trace));
+        assertEquals(report.toString(), copyReport.toString());
+
+        final List<HGestureReplayer.Entry> entries = report.getEntries();
+        // 点击选中，滚动结束
+        assertChecked(entries.get(0), 1, true);
+        assertState(entries.get(1), 1, HGestureStateMachine.State.Fling);
+        assertState(entries.get(2), 2, HGestureStateMachine.State.Idle);
+        assertEquals(1050 + HGestureReplayer.DEFAULT_SETTLE_DURATION, entries.get(2).getTime());
+        // 从手柄上往左拖动，超过touchSlop之后开始消费，手柄拖到了未选中的位置，不需要滚动
+        assertState(entries.get(3), 4, HGestureStateMachine.State.Consume);
+        assertChecked(entries.get(4), 12, false);
+        assertState(entries.get(5), 12, HGestureStateMachine.State.Idle);
+        // 按在手柄上面往不能拖动的方向拖动也会消费事件
+        assertState(entries.get(6), 15, HGestureStateMachine.State.Consume);
+        assertState(entries.get(7), 17, HGestureStateMachine.State.Idle);
+        assertEquals(8, entries.size());
+
+        assertFalse(report.isChecked());
+        assertEquals(HGestureStateMachine.State.Idle, report.getFinalState());
+        assertTrue(report.getThumbMoveCount() > 0);
+    }
+
+    @Test
+    public void replayCheckedTrace() {
+        final HGestureReplayer replayer = new HGestureReplayer();
+        replayer.setMeasure(false);
+
+        final HGestureTrace trace = new HGestureTrace(true, LEFT_NORMAL, LEFT_CHECKED, THUMB_WIDTH, 8, 200, 400);
+        trace.addEvent(HTouchTracker.ACTION_DOWN, 50, 10, 1000);
+        trace.addEvent(HTouchTracker.ACTION_UP, 50, 10, 1050);
+
+        final HGestureReplayer.Report report = replayer.replay(trace);
+        final List<HGestureReplayer.Entry> entries = report.getEntries();
+        // 初始的选中状态不产生记录，第一条是点击取消选中
+        assertChecked(entries.get(0), 1, false);
+        assertState(entries.get(1), 1, HGestureStateMachine.State.Fling);
+        assertState(entries.get(2), 2, HGestureStateMachine.State.Idle);
+        assertEquals(3, entries.size());
+
+        assertFalse(report.isChecked());
+    }
+
+    @Test
+    public void addEventSkipsDuplicate() {
+        final HGestureTrace trace = new HGestureTrace(false, LEFT_NORMAL, LEFT_CHECKED, THUMB_WIDTH, 8, 200, 400);
+        assertTrue(trace.addEvent(HTouchTracker.ACTION_DOWN, 1, 2, 3));
+        assertFalse(trace.addEvent(HTouchTracker.ACTION_DOWN, 1, 2, 3));
+        assertTrue(trace.addEvent(HTouchTracker.ACTION_MOVE, 1, 2, 3));
+
+        trace.setMaxEvents(2);
+        assertFalse(trace.addEvent(HTouchTracker.ACTION_UP, 1, 2, 4));
+        assertEquals(2, trace.getEventCount());
+    }
+
+    @Test(expected = IOException.class)
+    public void readFromRejectsOtherData() throws IOException {
+        HGestureTrace.readFrom(new ByteArrayInputStream(new byte[]{'P', 'N', 'G', 1}));
+    }
+
+    @Test(expected = IOException.class)
+    public void writeToRejectsTimeGoingBackwards() throws IOException {
+        final HGestureTrace trace = new HGestureTrace(false, LEFT_NORMAL, LEFT_CHECKED, THUMB_WIDTH, 8, 200, 400);
+        trace.addEvent(HTouchTracker.ACTION_DOWN, 0, 0, 100);
+        trace.addEvent(HTouchTracker.ACTION_UP, 0, 0, 50);
+        trace.writeTo(new ByteArrayOutputStream());
+    }
+
+    private static HGestureTrace readBack(HGestureTrace trace) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        trace.writeTo(out);
+        return HGestureTrace.readFrom(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    private static HGestureTrace newTrace() {
+        final HGestureTrace trace = new HGestureTrace(false, LEFT_NORMAL, LEFT_CHECKED, THUMB_WIDTH, 8, 200, 400);
+
+        // 0-1 点击
+        trace.addEvent(HTouchTracker.ACTION_DOWN, 30, 10, 1000);
+        trace.addEvent(HTouchTracker.ACTION_UP, 30, 10, 1050);
+
+        // 2-12 从手柄上往左拖动
+        trace.addEvent(HTouchTracker.ACTION_DOWN, 50, 10, 2000);
+        for (int i = 1; i <= 9; i++) {
+            trace.addEvent(HTouchTracker.ACTION_MOVE, 50 - i * 5, 10.5f, 2000 + i * 10);
+        }
+        trace.addEvent(HTouchTracker.ACTION_UP, 5, 10.5f, 2100);
+
+        // 13-17 按在手柄上往左拖动，停留一段时间不算点击
+        trace.addEvent(HTouchTracker.ACTION_DOWN, 10, 10, 2200);
+        trace.addEvent(HTouchTracker.ACTION_MOVE, 10, 10, 2600);
+        trace.addEvent(HTouchTracker.ACTION_MOVE, 0, 11, 2616);
+        trace.addEvent(HTouchTracker.ACTION_MOVE, -10, 11, 2632);
+        trace.addEvent(HTouchTracker.ACTION_UP, -10, 11, 2648);
+        return trace;
+    }
+
+    private static void assertChecked(HGestureReplayer.Entry entry, int eventIndex, boolean checked) {
+        assertEquals(entry.toString(), eventIndex, entry.getEventIndex());
+        assertTrue(entry.toString(), entry.isCheckedChange());
+        assertEquals(entry.toString(), checked, entry.isChecked());
+    }
+
+    private static void assertState(HGestureReplayer.Entry entry, int eventIndex, HGestureStateMachine.State state) {
+        assertEquals(entry.toString(), eventIndex, entry.getEventIndex());
+        assertFalse(entry.toString(), entry.isCheckedChange());
+        assertEquals(entry.toString(), state, entry.getNewState());
+    }
+}
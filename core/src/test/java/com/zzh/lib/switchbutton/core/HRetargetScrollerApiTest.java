@@ -0,0 +1,135 @@
+package com.zzh.lib.switchbutton.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 按固定帧率逐帧驱动{@link HRetargetScrollerApi}，修改目标位置的方式和HScroller#retargetX一致
+ */
+public class HRetargetScrollerApiTest {
+    private static final float[] REFRESH_RATES = {60, 90, 120, 144};
+    private static final int[] RETARGET_TIMES = {16, 30, 60, 100, 150, 200, 300, 380};
+
+    private static final int TRACK = 100;
+    private static final int DURATION = 400;
+    private static final int MIN_SETTLE_DURATION = 60;
+
+    @Test
+    public void scrollFromRestFollowsViscousCurve() {
+        for (float rate : REFRESH_RATES) {
+            final HManualFrameClock clock = new HManualFrameClock();
+            final HRetargetScrollerApi api = new HRetargetScrollerApi(1, clock);
+            api.startScroll(0, 0, TRACK, 0, DURATION);
+
+            while (true) {
+                clock.advanceFrame(rate);
+                assertTrue(api.computeScrollOffset());
+                if (api.isFinished())
+                    break;
+
+                final float t = (float) clock.currentTimeMillis() / DURATION;
+                assertEquals(HEasingScrollerApi.getViscousFluidInterpolation(t) * TRACK, api.getCurrX(), 0.5f);
+            }
+            assertEquals(TRACK, api.getCurrX());
+            assertEquals(0, api.getCurrVelocityX(), 0);
+        }
+    }
+
+    @Test
+    public void retargetToSameEndNeverOvershoots() {
+        for (float rate : REFRESH_RATES) {
+            for (int time : RETARGET_TIMES) {
+                assertInsideTrack(rate, time, TRACK);
+            }
+        }
+    }
+
+    @Test
+    public void retargetBackStaysInsideTrack() {
+        for (float rate : REFRESH_RATES) {
+            for (int time : RETARGET_TIMES) {
+                assertInsideTrack(rate, time, 0);
+            }
+        }
+    }
+
+    @Test
+    public void retargetKeepsVelocity() {
+        final HManualFrameClock clock = new HManualFrameClock();
+        final HRetargetScrollerApi api = new HRetargetScrollerApi(1, clock);
+        api.startScroll(0, 0, TRACK * 4, 0, DURATION);
+        runUntil(api, clock, 60, 16);
+
+        final int lastX = api.getCurrX();
+        final float velocity = api.getCurrVelocityX();
+        retarget(api, lastX, TRACK * 4, TRACK * 2);
+
+        assertEquals(lastX, api.getCurrX());
+        assertEquals(velocity, api.getCurrVelocityX(), Math.abs(velocity) * 0.01f);
+    }
+
+    @Test
+    public void startScrollWhileRunningNeverOvershoots() {
+        for (float rate : REFRESH_RATES) {
+            for (int time : RETARGET_TIMES) {
+                final HManualFrameClock clock = new HManualFrameClock();
+                final HRetargetScrollerApi api = new HRetargetScrollerApi(1, clock);
+                api.startScroll(0, 0, TRACK, 0, DURATION);
+                runUntil(api, clock, rate, time);
+                if (api.isFinished())
+                    continue;
+
+                final int lastX = api.getCurrX();
+                api.startScroll(lastX, 0, TRACK - lastX, 0, DURATION);
+                assertFalse(api.isFinished());
+                runToEnd(api, clock, rate, 0, TRACK);
+                assertEquals(TRACK, api.getCurrX());
+            }
+        }
+    }
+
+    private static void assertInsideTrack(float rate, int time, int endX) {
+        final HManualFrameClock clock = new HManualFrameClock();
+        final HRetargetScrollerApi api = new HRetargetScrollerApi(1, clock);
+        api.startScroll(0, 0, TRACK, 0, DURATION);
+        runUntil(api, clock, rate, time);
+        if (api.isFinished())
+            return;
+
+        retarget(api, api.getCurrX(), TRACK, endX);
+        runToEnd(api, clock, rate, 0, TRACK);
+        assertEquals("rate:" + rate + " time:" + time, endX, api.getCurrX());
+    }
+
+    /**
+     * 和HScroller#retargetX相同的计算
+     */
+    private static void retarget(HRetargetScrollerApi api, int lastX, int oldEndX, int endX) {
+        final int dx = endX - lastX;
+        final float velocity = api.getCurrVelocityX();
+        final int defaultDuration = Math.min(DURATION, 200 + Math.abs(dx) * 200 / TRACK);
+        final int duration = HSwitchRules.settleDuration(dx, velocity, MIN_SETTLE_DURATION, DURATION, defaultDuration);
+        api.startScroll(lastX, 0, dx, 0, duration,
+                HSwitchRules.settleVelocity(dx, velocity, duration, Math.abs(oldEndX - lastX)), 0);
+    }
+
+    private static void runUntil(HRetargetScrollerApi api, HManualFrameClock clock, float rate, int time) {
+        while (clock.currentTimeMillis() < time && !api.isFinished()) {
+            clock.advanceFrame(rate);
+            api.computeScrollOffset();
+        }
+    }
+
+    private static void runToEnd(HRetargetScrollerApi api, HManualFrameClock clock, float rate, int min, int max) {
+        int frames = 0;
+        while (!api.isFinished()) {
+            clock.advanceFrame(rate);
+            api.computeScrollOffset();
+            assertTrue("x:" + api.getCurrX(), api.getCurrX() >= min && api.getCurrX() <= max);
+            assertTrue("not finished", ++frames < 1000);
+        }
+    }
+}
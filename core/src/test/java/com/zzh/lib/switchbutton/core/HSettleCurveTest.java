@@ -0,0 +1,132 @@
+package com.zzh.lib.switchbutton.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 松手后的归位曲线，{@link HSwitchRules#settleDuration}，{@link HSwitchRules#settleTangent}，{@link HSwitchRules#settleInterpolation}
+ */
+public class HSettleCurveTest {
+    private static final float[] REFRESH_RATES = {60, 90, 120, 144};
+
+    @Test
+    public void interpolationEndpoints() {
+        for (float tangent = HSwitchRules.SETTLE_TANGENT_MIN; tangent <= HSwitchRules.SETTLE_TANGENT_MAX; tangent += 0.25f) {
+            assertEquals(0f, HSwitchRules.settleInterpolation(0, tangent), 1e-6f);
+            assertEquals(1f, HSwitchRules.settleInterpolation(1, tangent), 1e-6f);
+
+            // 起点斜率等于切线
+            final float step = 1e-3f;
+            assertEquals(tangent, HSwitchRules.settleInterpolation(step, tangent) / step, 0.01f);
+        }
+    }
+
+    @Test
+    public void tangentTwoIsDecelerate() {
+        for (float t = 0; t <= 1; t += 0.05f) {
+            final float decelerate = 1 - (1 - t) * (1 - t);
+            assertEquals(decelerate, HSwitchRules.settleInterpolation(t, 2), 1e-5f);
+        }
+    }
+
+    @Test
+    public void interpolationNeverOvershoots() {
+        for (float tangent = 0; tangent <= HSwitchRules.SETTLE_TANGENT_MAX; tangent += 0.25f) {
+            float last = 0;
+            for (float t = 0; t <= 1; t += 0.01f) {
+                final float x = HSwitchRules.settleInterpolation(t, tangent);
+                assertTrue(x >= last - 1e-6f);
+                assertTrue(x <= 1 + 1e-6f);
+                last = x;
+            }
+        }
+    }
+
+    @Test
+    public void negativeTangentBacksOffAtMostTwelfthOfSquare() {
+        for (float tangent = HSwitchRules.SETTLE_TANGENT_MIN; tangent < 0; tangent += 0.125f) {
+            float min = 0;
+            for (float t = 0; t <= 1; t += 0.001f) {
+                min = Math.min(min, HSwitchRules.settleInterpolation(t, tangent));
+            }
+            assertTrue("tangent:" + tangent, -min <= tangent * tangent / 12 + 1e-6f);
+        }
+    }
+
+    @Test
+    public void settleDurationDeceleratesToZero() {
+        // 60像素，3000像素/秒，匀减速需要40毫秒，不能小于60毫秒
+        assertEquals(60, HSwitchRules.settleDuration(60, 3000, 60, 400, 250));
+        assertEquals(100, HSwitchRules.settleDuration(60, 1200, 60, 400, 250));
+        assertEquals(100, HSwitchRules.settleDuration(-60, -1200, 60, 400, 250));
+        assertEquals(400, HSwitchRules.settleDuration(60, 100, 60, 400, 250));
+    }
+
+    @Test
+    public void settleDurationDefault() {
+        assertEquals(250, HSwitchRules.settleDuration(60, 0, 60, 400, 250));
+        assertEquals(250, HSwitchRules.settleDuration(60, -1200, 60, 400, 250));
+        assertEquals(250, HSwitchRules.settleDuration(0, 1200, 60, 400, 250));
+    }
+
+    @Test
+    public void settleTangentClamped() {
+        assertEquals(2f, HSwitchRules.settleTangent(60, 1200, 100), 1e-6f);
+        assertEquals(HSwitchRules.SETTLE_TANGENT_MAX, HSwitchRules.settleTangent(60, 6000, 100), 0);
+        assertEquals(HSwitchRules.SETTLE_TANGENT_MIN, HSwitchRules.settleTangent(60, -6000, 100), 0);
+        assertEquals(-0.5f, HSwitchRules.settleTangent(-60, 300, 100), 1e-6f);
+        assertEquals(0f, HSwitchRules.settleTangent(0, 1200, 100), 0);
+        assertEquals(0f, HSwitchRules.settleTangent(60, 1200, 0), 0);
+    }
+
+    @Test
+    public void settleTangentLimitedByReverseRoom() {
+        assertEquals(0f, HSwitchRules.settleTangent(60, -6000, 100, 0), 0);
+
+        // 反向的时候沿原方向最多走reverseRoom
+        final float room = 1f;
+        final float tangent = HSwitchRules.settleTangent(60, -6000, 100, room);
+        assertTrue(tangent < 0);
+        assertTrue(tangent * tangent / 12 * 60 <= room + 1e-4f);
+    }
+
+    @Test
+    public void settleVelocityKeepsReleaseVelocity() {
+        assertEquals(1200f, HSwitchRules.settleVelocity(60, 1200, 100, Float.MAX_VALUE), 0.01f);
+        assertEquals(1800f, HSwitchRules.settleVelocity(60, 6000, 100, Float.MAX_VALUE), 0.01f);
+        assertEquals(0f, HSwitchRules.settleVelocity(60, 0, 100, Float.MAX_VALUE), 0);
+    }
+
+    @Test
+    public void settleFromReleaseVelocity() {
+        for (float rate : REFRESH_RATES) {
+            final int distance = 60;
+            final float releaseVelocity = 1200;
+            final int duration = HSwitchRules.settleDuration(distance, releaseVelocity, 60, 400, 250);
+            final float velocity = HSwitchRules.settleVelocity(distance, releaseVelocity, duration, Float.MAX_VALUE);
+            final float tangent = HSwitchRules.settleTangent(distance, releaseVelocity, duration);
+
+            final HManualFrameClock clock = new HManualFrameClock();
+            final HRetargetScrollerApi api = new HRetargetScrollerApi(1, clock);
+            api.startScroll(0, 0, distance, 0, duration, velocity, 0);
+            assertEquals(releaseVelocity, api.getCurrVelocityX(), 1f);
+
+            int lastX = 0;
+            while (!api.isFinished()) {
+                clock.advanceFrame(rate);
+                assertTrue(api.computeScrollOffset());
+                assertTrue(api.getCurrX() >= lastX && api.getCurrX() <= distance);
+                lastX = api.getCurrX();
+
+                if (!api.isFinished()) {
+                    final float t = (float) clock.currentTimeMillis() / duration;
+                    assertEquals(HSwitchRules.settleInterpolation(t, tangent) * distance, api.getCurrX(), 0.5f);
+                }
+            }
+            assertEquals(distance, api.getCurrX());
+            assertTrue(clock.currentTimeMillis() < duration + 1000 / rate);
+        }
+    }
+}
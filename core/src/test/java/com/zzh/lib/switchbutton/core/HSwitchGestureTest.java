@@ -0,0 +1,203 @@
+package com.zzh.lib.switchbutton.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class HSwitchGestureTest {
+    private static final int TOUCH_SLOP = 8;
+    private static final int LEFT_NORMAL = 0;
+    private static final int LEFT_CHECKED = 40;
+    private static final int THUMB_WIDTH = 20;
+
+    @Test
+    public void interceptAfterHorizontalDrag() {
+        final Host host = new Host();
+        final HSwitchGesture gesture = host.newGesture();
+
+        // 按在手柄上面不拦截，超过touchSlop并且确定水平拖动之后才拦截
+        assertFalse(gesture.onInterceptTouchEvent(HTouchTracker.ACTION_DOWN, 10, 10, 0));
+        assertFalse(gesture.onInterceptTouchEvent(HTouchTracker.ACTION_MOVE, 15, 10, 10));
+        assertTrue(gesture.onInterceptTouchEvent(HTouchTracker.ACTION_MOVE, 25, 10, 20));
+        assertEquals(HDragClassifier.STATE_DRAG, gesture.getDragState());
+        assertEquals("intercept:true", host.mTags.get(0));
+
+        // 拦截之后的事件交给onTouchEvent，开始消费之后第一次拖动把按下之后的距离都加上
+        assertTrue(gesture.onTouchEvent(HTouchTracker.ACTION_MOVE, 30, 10, 30));
+        assertEquals(HGestureStateMachine.State.Consume, gesture.getState());
+        assertEquals(LEFT_NORMAL, host.mThumbLeft, 0);
+        assertTrue(gesture.onTouchEvent(HTouchTracker.ACTION_MOVE, 35, 10, 40));
+        assertEquals(25, host.mThumbLeft, 0);
+
+        gesture.onTouchEvent(HTouchTracker.ACTION_UP, 35, 10, 50);
+        assertEquals(1, host.mReleaseCount);
+        assertEquals(HGestureStateMachine.State.Idle, gesture.getState());
+        assertFalse(gesture.isTagIntercept());
+        assertFalse(gesture.isTagConsume());
+    }
+
+    @Test
+    public void verticalDragIsRejected() {
+        final Host host = new Host();
+        final HSwitchGesture gesture = host.newGesture();
+
+        gesture.onInterceptTouchEvent(HTouchTracker.ACTION_DOWN, 10, 10, 0);
+        assertFalse(gesture.onInterceptTouchEvent(HTouchTracker.ACTION_MOVE, 11, 30, 10));
+        assertFalse(gesture.onInterceptTouchEvent(HTouchTracker.ACTION_MOVE, 40, 30, 20));
+        assertEquals(HDragClassifier.STATE_REJECT, gesture.getDragState());
+        assertEquals(HGestureStateMachine.State.Idle, gesture.getState());
+        assertTrue(host.mTags.isEmpty());
+    }
+
+    @Test
+    public void cancelConsumeEventSkipsRelease() {
+        final Host host = new Host();
+        final HSwitchGesture gesture = host.newGesture();
+
+        gesture.onTouchEvent(HTouchTracker.ACTION_DOWN, 10, 10, 0);
+        gesture.onTouchEvent(HTouchTracker.ACTION_MOVE, 25, 10, 10);
+        gesture.onTouchEvent(HTouchTracker.ACTION_MOVE, 30, 10, 20);
+        assertTrue(gesture.hasConsumeEvent());
+
+        gesture.cancelConsumeEvent();
+        assertEquals(HGestureStateMachine.State.Idle, gesture.getState());
+        assertTrue(gesture.isCancelConsumeEvent());
+
+        // 取消之后不再拖动，抬起也不决定状态
+        final float thumbLeft = host.mThumbLeft;
+        assertFalse(gesture.onTouchEvent(HTouchTracker.ACTION_MOVE, 35, 10, 30));
+        assertEquals(thumbLeft, host.mThumbLeft, 0);
+        gesture.onTouchEvent(HTouchTracker.ACTION_UP, 35, 10, 40);
+        assertEquals(0, host.mReleaseCount);
+        assertFalse(gesture.isCancelConsumeEvent());
+    }
+
+    @Test
+    public void cancelAndScrollInTransactionSkipsIdle() {
+        final Host host = new Host();
+        final HSwitchGesture gesture = host.newGesture();
+
+        gesture.onTouchEvent(HTouchTracker.ACTION_DOWN, 10, 10, 0);
+        gesture.onTouchEvent(HTouchTracker.ACTION_MOVE, 25, 10, 10);
+        assertEquals(HGestureStateMachine.State.Consume, gesture.getState());
+
+        gesture.beginTransaction();
+        gesture.cancelConsumeEvent();
+        gesture.onScrollStart();
+        gesture.endTransaction();
+        assertEquals(HGestureStateMachine.State.Fling, gesture.getState());
+        assertFalse(host.mStates.contains(HGestureStateMachine.State.Idle));
+
+        gesture.onScrollFinish();
+        assertEquals(HGestureStateMachine.State.Idle, gesture.getState());
+    }
+
+    @Test
+    public void scrollFinishDuringDragReturnsToConsume() {
+        final Host host = new Host();
+        final HSwitchGesture gesture = host.newGesture();
+
+        gesture.onScrollStart();
+        gesture.onTouchEvent(HTouchTracker.ACTION_DOWN, 10, 10, 0);
+        gesture.onTouchEvent(HTouchTracker.ACTION_MOVE, 25, 10, 10);
+        assertEquals(HGestureStateMachine.State.Consume, gesture.getState());
+
+        gesture.onScrollStart();
+        gesture.onScrollFinish();
+        assertEquals(HGestureStateMachine.State.Consume, gesture.getState());
+    }
+
+    @Test
+    public void releaseVelocityKeptUntilNextDown() {
+        final Host host = new Host();
+        final HSwitchGesture gesture = host.newGesture();
+
+        gesture.onTouchEvent(HTouchTracker.ACTION_DOWN, 10, 10, 0);
+        for (int i = 1; i <= 5; i++) {
+            gesture.onTouchEvent(HTouchTracker.ACTION_MOVE, 10 + i * 5, 10 + i, i * 10);
+        }
+        gesture.onTouchEvent(HTouchTracker.ACTION_UP, 35, 15, 60);
+        assertTrue(gesture.getVelocityX() > 0);
+        assertTrue(gesture.getVelocityY() > 0);
+        assertEquals(gesture.getVelocityX(), host.mReleaseVelocity, 0);
+
+        gesture.onTouchEvent(HTouchTracker.ACTION_DOWN, 10, 10, 100);
+        assertEquals(0, gesture.getVelocityX(), 0);
+        assertEquals(0, gesture.getVelocityY(), 0);
+    }
+
+    private static final class Host extends HSwitchGesture.Callback {
+        private final List<HGestureStateMachine.State> mStates = new ArrayList<>();
+        private final List<String> mTags = new ArrayList<>();
+        private boolean mIsChecked;
+        private float mThumbLeft = LEFT_NORMAL;
+        private int mReleaseCount;
+        private float mReleaseVelocity;
+
+        HSwitchGesture newGesture() {
+            return new HSwitchGesture(TOUCH_SLOP, 200, 400, this);
+        }
+
+        @Override
+        public boolean isChecked() {
+            return mIsChecked;
+        }
+
+        @Override
+        public boolean isThumbUnder(float x, float y) {
+            return x >= mThumbLeft && x < mThumbLeft + THUMB_WIDTH;
+        }
+
+        @Override
+        public float getThumbLeft() {
+            return mThumbLeft;
+        }
+
+        @Override
+        public int getLeftNormal() {
+            return LEFT_NORMAL;
+        }
+
+        @Override
+        public int getLeftChecked() {
+            return LEFT_CHECKED;
+        }
+
+        @Override
+        public void onStateChanged(HGestureStateMachine.State oldState, HGestureStateMachine.State newState) {
+            mStates.add(newState);
+        }
+
+        @Override
+        public void onDrag(float dx) {
+            mThumbLeft = HSwitchRules.clamp(mThumbLeft + dx, LEFT_NORMAL, LEFT_CHECKED);
+        }
+
+        @Override
+        public void onClick() {
+            mIsChecked = !mIsChecked;
+        }
+
+        @Override
+        public void onRelease(boolean checked, float velocity) {
+            mReleaseCount++;
+            mReleaseVelocity = velocity;
+            mIsChecked = checked;
+        }
+
+        @Override
+        public void onTagInterceptChanged(boolean tag) {
+            mTags.add("intercept:" + tag);
+        }
+
+        @Override
+        public void onTagConsumeChanged(boolean tag) {
+            mTags.add("consume:" + tag);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.zzh.lib.switchbutton.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class HSwitchRulesTest {
+    @Test
+    public void canPullOnlyTowardsOtherState() {
+        assertTrue(HSwitchRules.canPull(false, 10f, 0f));
+        assertFalse(HSwitchRules.canPull(false, -10f, 0f));
+        assertTrue(HSwitchRules.canPull(true, -10f, 0f));
+        assertFalse(HSwitchRules.canPull(true, 10f, 0f));
+    }
+
+    @Test
+    public void canPullRejectsNoMove() {
+        assertFalse(HSwitchRules.canPull(false, 0f, 0f));
+        assertFalse(HSwitchRules.canPull(true, 0f, 5f));
+    }
+
+    @Test
+    public void canPullRejectsSteepDrag() {
+        // tan(30°)约为0.577
+        assertTrue(HSwitchRules.canPull(false, 100f, 57f));
+        assertFalse(HSwitchRules.canPull(false, 100f, 58f));
+        assertFalse(HSwitchRules.canPull(true, -100f, -100f));
+    }
+
+    @Test
+    public void slopeMatchesDegree() {
+        assertEquals(Math.tan(Math.toRadians(HSwitchRules.MAX_DRAG_DEGREE_X)), HSwitchRules.MAX_DRAG_SLOPE, 1e-6);
+    }
+
+    @Test
+    public void lockDirectionWaitsForTouchSlop() {
+        assertEquals(HSwitchRules.DIRECTION_NONE, HSwitchRules.lockDirection(0, 0, 8));
+        assertEquals(HSwitchRules.DIRECTION_NONE, HSwitchRules.lockDirection(7, 3, 8));
+        assertEquals(HSwitchRules.DIRECTION_HORIZONTAL, HSwitchRules.lockDirection(-8, 3, 8));
+        assertEquals(HSwitchRules.DIRECTION_VERTICAL, HSwitchRules.lockDirection(3, 8, 8));
+        assertEquals(HSwitchRules.DIRECTION_VERTICAL, HSwitchRules.lockDirection(10, -10, 8));
+    }
+
+    @Test
+    public void settleCheckedByVelocity() {
+        assertTrue(HSwitchRules.settleChecked(500f, 100f, 0f, 0, 100));
+        assertFalse(HSwitchRules.settleChecked(-500f, 100f, 100f, 0, 100));
+    }
+
+    @Test
+    public void settleCheckedByMiddle() {
+        assertFalse(HSwitchRules.settleChecked(0f, 100f, 49f, 0, 100));
+        assertTrue(HSwitchRules.settleChecked(0f, 100f, 50f, 0, 100));
+        // 速度没有超过最小值按位置决定
+        assertTrue(HSwitchRules.settleChecked(-100f, 100f, 80f, 0, 100));
+        assertFalse(HSwitchRules.settleChecked(100f, 100f, 20f, 0, 100));
+    }
+
+    @Test
+    public void getLegalDeltaStaysInRange() {
+        assertEquals(0, HSwitchRules.getLegalDelta(50, 0, 100, 0));
+        assertEquals(20, HSwitchRules.getLegalDelta(50, 0, 100, 20));
+        assertEquals(50, HSwitchRules.getLegalDelta(50, 0, 100, 80));
+        assertEquals(-50, HSwitchRules.getLegalDelta(50, 0, 100, -80));
+    }
+
+    @Test
+    public void clamp() {
+        assertEquals(0f, HSwitchRules.clamp(-1f, 0f, 10f), 0);
+        assertEquals(10f, HSwitchRules.clamp(11f, 0f, 10f), 0);
+        assertEquals(5f, HSwitchRules.clamp(5f, 0f, 10f), 0);
+    }
+}
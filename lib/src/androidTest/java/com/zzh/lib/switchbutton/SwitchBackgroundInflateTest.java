@@ -0,0 +1,136 @@
+package com.zzh.lib.switchbutton;
+
+import android.content.Context;
+import android.util.AttributeSet;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import com.zzh.lib.switchbutton.test.R;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 在子线程并发解析和创建开关，子线程没有Looper，构造过程中只要创建Handler或者使用主线程对象就会抛异常
+ */
+@RunWith(AndroidJUnit4.class)
+public class SwitchBackgroundInflateTest {
+    private static final int THREAD_COUNT = 4;
+    private static final int INFLATE_COUNT = 300;
+
+    private final Context mContext = InstrumentationRegistry.getInstrumentation().getTargetContext();
+
+    @Test
+    public void inflateOnBackgroundExecutor() throws Exception {
+        final List<ViewGroup> layouts = runOnExecutor(new Callable<ViewGroup>() {
+            @Override
+            public ViewGroup call() {
+                return (ViewGroup) LayoutInflater.from(mContext).inflate(R.layout.lib_sb_test_inflate, null, false);
+            }
+        });
+
+        assertEquals(INFLATE_COUNT, layouts.size());
+        for (final ViewGroup layout : layouts) {
+            final HSwitchButton sbDefault = layout.findViewById(R.id.sb_default);
+            final HSwitchButton sbProperty = layout.findViewById(R.id.sb_property);
+            final HSwitchButton sbChildren = layout.findViewById(R.id.sb_children);
+            final HCanvasSwitchButton sbCanvas = layout.findViewById(R.id.sb_canvas);
+
+            assertTrue(sbDefault.isChecked());
+            assertFalse(sbProperty.isChecked());
+            assertTrue(sbChildren.isChecked());
+            assertTrue(sbCanvas.isChecked());
+
+            // xml中的子view替换了默认的子view
+            assertSame(sbChildren, sbChildren.getViewThumb().getParent());
+            assertEquals(com.zzh.lib.switchbutton.R.id.lib_sb_view_thumb, sbChildren.getViewThumb().getId());
+            assertEquals(3, sbChildren.getChildCount());
+        }
+
+        // 回到主线程布局并切换状态，没有attach的开关直接放到最终位置
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                for (ViewGroup layout : layouts) {
+                    layoutView(layout);
+
+                    final HSwitchButton sbDefault = layout.findViewById(R.id.sb_default);
+                    sbDefault.setChecked(false, true, false);
+                    assertFalse(sbDefault.isChecked());
+                    assertEquals(SwitchButton.ScrollState.Idle, sbDefault.getScrollState());
+
+                    final HCanvasSwitchButton sbCanvas = layout.findViewById(R.id.sb_canvas);
+                    sbCanvas.setChecked(false, true, false);
+                    assertFalse(sbCanvas.isChecked());
+                    assertEquals(SwitchButton.ScrollState.Idle, sbCanvas.getScrollState());
+                }
+            }
+        });
+    }
+
+    @Test
+    public void constructOnBackgroundExecutor() throws Exception {
+        final List<View> views = runOnExecutor(new Callable<View>() {
+            private int mCount;
+
+            @Override
+            public View call() {
+                synchronized (this) {
+                    mCount++;
+                    if (mCount % 2 == 0)
+                        return new HCanvasSwitchButton(mContext, SwitchStyle.getDefault(mContext));
+                }
+                return new HSwitchButton(mContext, (AttributeSet) null);
+            }
+        });
+
+        assertEquals(INFLATE_COUNT, views.size());
+        for (View view : views) {
+            assertNotNull(view);
+            assertFalse(((SwitchButton) view).isChecked());
+        }
+    }
+
+    private static <T> List<T> runOnExecutor(Callable<T> callable) throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        try {
+            final List<Future<T>> futures = new ArrayList<>(INFLATE_COUNT);
+            for (int i = 0; i < INFLATE_COUNT; i++) {
+                futures.add(executor.submit(callable));
+            }
+
+            final List<T> result = new ArrayList<>(INFLATE_COUNT);
+            for (Future<T> item : futures) {
+                // 子线程的异常会在这里重新抛出
+                result.add(item.get(30, TimeUnit.SECONDS));
+            }
+            return result;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void layoutView(View view) {
+        final int spec = View.MeasureSpec.makeMeasureSpec(1000, View.MeasureSpec.AT_MOST);
+        view.measure(spec, spec);
+        view.layout(0, 0, view.getMeasuredWidth(), view.getMeasuredHeight());
+    }
+}
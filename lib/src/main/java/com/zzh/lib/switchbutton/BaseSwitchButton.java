@@ -1,24 +1,54 @@
 package com.zzh.lib.switchbutton;
 
+import android.animation.ValueAnimator;
 import android.content.Context;
 import android.graphics.drawable.Drawable;
 import android.graphics.drawable.StateListDrawable;
+import android.os.Build;
 import android.util.AttributeSet;
 import android.util.Log;
 import android.view.View;
 import android.view.ViewGroup;
+import android.view.ViewPropertyAnimator;
+import android.view.animation.DecelerateInterpolator;
+import android.view.animation.Interpolator;
 import android.widget.ImageView;
 
+import com.zzh.lib.switchbutton.core.HSwitchRules;
+import com.zzh.lib.switchbutton.gesture.HScroller;
+import com.zzh.lib.switchbutton.gesture.HSettleInterpolator;
 import com.zzh.lib.switchbutton.gesture.HTouchHelper;
+import com.zzh.lib.switchbutton.gesture.HVisibilityHelper;
 
 import androidx.core.view.ViewCompat;
 
+/**
+ * 开关基类
+ * <br>
+ * 构造方法和xml解析可以在子线程调用(例如AsyncLayoutInflater)，只能在主线程执行的初始化(手势管理，Z轴设置等)在attach的时候执行
+ */
+public abstract class BaseSwitchButton extends ViewGroup implements BindableSwitchButton {
+    /**
+     * 8位透明度的一级
+     */
+    private static final float ALPHA_STEP = 1.0f / 255;
+    /**
+     * 属性动画的最大时长，和{@link HScroller}保持一致
+     */
+    private static final int PROPERTY_ANIM_DURATION_MAX = 400;
+    /**
+     * 属性动画的最小时长，和{@link HScroller}保持一致
+     */
+    private static final int PROPERTY_ANIM_DURATION_MIN = 200;
+    /**
+     * 属性动画松手归位的最小时长，和{@link HScroller}保持一致
+     */
+    private static final int PROPERTY_ANIM_SETTLE_DURATION_MIN = 60;
 
-public abstract class BaseSwitchButton extends ViewGroup implements SwitchButton {
     private View mViewNormal;
     private View mViewChecked;
     private View mViewThumb;
-    protected final HAttrModel mAttrModel = new HAttrModel();
+    protected final SwitchStyle mStyle;
 
     private boolean mIsChecked;
     private ScrollState mScrollState = ScrollState.Idle;
@@ -29,25 +59,95 @@ public abstract class BaseSwitchButton extends ViewGroup implements SwitchButton
 
     protected boolean mIsDebug;
 
+    /**
+     * 拖动和惯性滑动的时候是否开启硬件层
+     */
+    private boolean mHardwareLayerEnabled;
+    /**
+     * 是否已经占用了{@link HLayerBudget}的名额
+     */
+    private boolean mHasHardwareLayer;
+    private int mLayerTypeNormal;
+    private int mLayerTypeChecked;
+
+    /**
+     * 渐变的时候正常view是否保持不透明，只改变选中view的透明度
+     */
+    private boolean mOverlayCrossfade;
+
+    /**
+     * 是否通过translationX移动手柄view
+     */
+    private boolean mTranslationThumb;
+    /**
+     * translationX模式下手柄view的逻辑left值，保留小数部分
+     */
+    private float mThumbPosition;
+
+    /**
+     * 切换动画是否使用属性动画
+     */
+    private boolean mPropertyAnimEnabled;
+    /**
+     * 是否正在执行属性动画
+     */
+    private boolean mIsPropertyAnimating;
+    private Runnable mPropertyAnimEndRunnable;
+    private ValueAnimator.AnimatorUpdateListener mPropertyAnimUpdateListener;
+
+    /**
+     * 是否正在执行{@link #bindChecked(boolean)}，期间不通知选中和位置回调
+     */
+    private boolean mIsBinding;
+
+    /**
+     * 正在执行{@link #settleChecked(boolean, float)}时的松手速度(像素/秒)
+     */
+    private float mSettleVelocity;
+
+    private final HVisibilityHelper mVisibilityHelper = new HVisibilityHelper(this);
+
     public BaseSwitchButton(Context context, AttributeSet attrs) {
         super(context, attrs);
+        mStyle = SwitchStyle.obtain(context, attrs);
+        init();
+    }
 
-        mAttrModel.parse(context, attrs);
-        mIsChecked = mAttrModel.isChecked();
-        mIsDebug = mAttrModel.isDebug();
+    /**
+     * 代码创建
+     *
+     * @param context
+     * @param style   样式，可以在多个开关之间共享
+     */
+    public BaseSwitchButton(Context context, SwitchStyle style) {
+        super(context);
+        if (style == null)
+            throw new NullPointerException();
 
-        final View normal = new View(getContext());
-        normal.setBackgroundResource(mAttrModel.getImageNormalResId());
+        mStyle = style;
+        init();
+    }
+
+    private void init() {
+        mIsChecked = mStyle.isChecked();
+        mIsDebug = mStyle.isDebug();
+        mHardwareLayerEnabled = mStyle.isHardwareLayer();
+        mOverlayCrossfade = mStyle.isOverlayCrossfade();
+        mTranslationThumb = mStyle.isTranslationThumb();
+        mPropertyAnimEnabled = mStyle.isPropertyAnim();
+
+        final View normal = new HTrackView(getContext());
+        ViewCompat.setBackground(normal, HDrawableCache.getDrawable(getContext(), mStyle.getImageNormalResId()));
         addView(normal, new ViewGroup.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
         mViewNormal = normal;
 
-        final View checked = new View(getContext());
-        checked.setBackgroundResource(mAttrModel.getImageCheckedResId());
+        final View checked = new HTrackView(getContext());
+        ViewCompat.setBackground(checked, HDrawableCache.getDrawable(getContext(), mStyle.getImageCheckedResId()));
         addView(checked, new ViewGroup.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
         mViewChecked = checked;
 
         final View thumb = new HThumbView(getContext());
-        thumb.setBackgroundResource(mAttrModel.getImageThumbResId());
+        ViewCompat.setBackground(thumb, HDrawableCache.getDrawable(getContext(), mStyle.getImageThumbResId()));
         addView(thumb, new ViewGroup.LayoutParams(ViewGroup.LayoutParams.WRAP_CONTENT, ViewGroup.LayoutParams.MATCH_PARENT));
         mViewThumb = thumb;
     }
@@ -56,6 +156,100 @@ public abstract class BaseSwitchButton extends ViewGroup implements SwitchButton
         mIsDebug = debug;
     }
 
+    /**
+     * 设置拖动和惯性滑动的时候是否给背景view开启硬件层，开启后每帧只需要合成图层，不需要重绘背景
+     * <br>
+     * 同时开启硬件层的开关个数受{@link HLayerBudget}限制
+     *
+     * @param enabled
+     */
+    public void setHardwareLayerEnabled(boolean enabled) {
+        mHardwareLayerEnabled = enabled;
+        if (!enabled)
+            demoteLayer();
+    }
+
+    /**
+     * 设置渐变模式
+     * <br>
+     * true-正常view保持不透明，选中view覆盖在上面改变透明度，每帧只有一次混合绘制，
+     * 适用于正常view和选中view形状相同的情况
+     * <br>
+     * false-两个view同时改变透明度(默认)
+     *
+     * @param overlay
+     */
+    public void setOverlayCrossfade(boolean overlay) {
+        if (mOverlayCrossfade != overlay) {
+            mOverlayCrossfade = overlay;
+            notifyViewPositionChanged();
+        }
+    }
+
+    /**
+     * 设置手柄view的移动方式
+     * <br>
+     * true-手柄view固定布局在normal状态的位置，通过translationX移动，位置保留小数部分，
+     * 移动和不带动画的状态切换都不需要重新布局
+     * <br>
+     * false-通过{@link ViewCompat#offsetLeftAndRight(View, int)}移动(默认)
+     *
+     * @param translation
+     */
+    public void setTranslationThumb(boolean translation) {
+        if (mTranslationThumb == translation)
+            return;
+
+        stopPropertyAnimation();
+        mThumbPosition = mViewThumb.getLeft() + mViewThumb.getTranslationX();
+        mTranslationThumb = translation;
+        mViewThumb.setTranslationX(0);
+        requestLayout();
+    }
+
+    /**
+     * 设置切换动画是否使用属性动画
+     * <br>
+     * 开启后手柄的translationX和背景的透明度交给{@link ViewPropertyAnimator}执行，手柄带硬件层，
+     * 动画过程中不需要重新绘制view内容，主线程繁忙的时候也能保持平滑
+     * <br>
+     * 只在translationX模式({@link #setTranslationThumb(boolean)})并且开启硬件加速的情况下生效，否则仍然使用{@link HScroller}
+     *
+     * @param enabled
+     */
+    public void setPropertyAnimEnabled(boolean enabled) {
+        mPropertyAnimEnabled = enabled;
+        if (!enabled)
+            stopPropertyAnimation();
+    }
+
+    /**
+     * 恢复到样式的默认值，{@link SwitchButtonPool}复用开关的时候调用
+     * <br>
+     * 清空所有回调，调试、硬件层、渐变、translationX和属性动画模式按样式设置，选中状态按样式设置(不执行动画，不通知回调)
+     */
+    public void resetToStyle() {
+        setOnCheckedChangeCallback(null);
+        setOnViewPositionChangeCallback(null);
+        setOnScrollStateChangeCallback(null);
+
+        setDebug(mStyle.isDebug());
+        setHardwareLayerEnabled(mStyle.isHardwareLayer());
+        setOverlayCrossfade(mStyle.isOverlayCrossfade());
+        setTranslationThumb(mStyle.isTranslationThumb());
+        setPropertyAnimEnabled(mStyle.isPropertyAnim());
+        setChecked(mStyle.isChecked(), false, false);
+    }
+
+    /**
+     * 是否正在执行属性动画
+     *
+     * @return
+     */
+    protected final boolean isPropertyAnimating() {
+        return mIsPropertyAnimating;
+    }
+
     protected final String getDebugTag() {
         return getClass().getSimpleName();
     }
@@ -122,7 +316,7 @@ public abstract class BaseSwitchButton extends ViewGroup implements SwitchButton
      * @return
      */
     protected final int getLeftNormal() {
-        return mAttrModel.getMarginLeft();
+        return mStyle.getMarginLeft();
     }
 
     /**
@@ -131,7 +325,7 @@ public abstract class BaseSwitchButton extends ViewGroup implements SwitchButton
      * @return
      */
     protected final int getLeftChecked() {
-        return getMeasuredWidth() - mViewThumb.getMeasuredWidth() - mAttrModel.getMarginRight();
+        return getMeasuredWidth() - mViewThumb.getMeasuredWidth() - mStyle.getMarginRight();
     }
 
     /**
@@ -148,8 +342,32 @@ public abstract class BaseSwitchButton extends ViewGroup implements SwitchButton
      *
      * @return
      */
-    private int getScrollDistance() {
-        return mViewThumb.getLeft() - getLeftNormal();
+    private float getScrollDistance() {
+        return getThumbLeft() - getLeftNormal();
+    }
+
+    /**
+     * 返回手柄view当前的left值，translationX模式下包含translationX
+     *
+     * @return
+     */
+    protected final float getThumbLeft() {
+        if (mIsPropertyAnimating)
+            return mViewThumb.getLeft() + mViewThumb.getTranslationX();
+        return mTranslationThumb ? mThumbPosition : mViewThumb.getLeft();
+    }
+
+    /**
+     * 坐标点是否在手柄view上面，相对当前view的坐标
+     *
+     * @param x
+     * @param y
+     * @return
+     */
+    protected final boolean isThumbUnder(int x, int y) {
+        final float left = getThumbLeft();
+        return x >= left && x < left + mViewThumb.getWidth()
+                && y >= mViewThumb.getTop() && y < mViewThumb.getBottom();
     }
 
     /**
@@ -164,15 +382,44 @@ public abstract class BaseSwitchButton extends ViewGroup implements SwitchButton
      */
     protected abstract void abortAnimation();
 
+    /**
+     * 停止拖动和滚动，{@link #bindChecked(boolean)}调用
+     */
+    protected void stopGesture() {
+        abortAnimation();
+    }
+
     /**
      * 执行滑动逻辑
      *
      * @param startLeft
      * @param endLeft
-     * @return
+     * @return false-没有开始滑动(例如还没有attach)，会直接把手柄view放到结束位置
      */
     protected abstract boolean smoothScroll(int startLeft, int endLeft);
 
+    /**
+     * 松手后执行滑动逻辑，默认忽略速度
+     *
+     * @param startLeft
+     * @param endLeft
+     * @param velocity  松手速度(像素/秒)
+     * @return false-没有开始滑动(例如还没有attach)，会直接把手柄view放到结束位置
+     */
+    protected boolean smoothScroll(int startLeft, int endLeft, float velocity) {
+        return smoothScroll(startLeft, endLeft);
+    }
+
+    /**
+     * 滚动中修改目标位置，保留当前速度
+     *
+     * @param endLeft
+     * @return false-没有在滚动或者不支持，会停止滚动之后重新开始
+     */
+    protected boolean retargetScroll(int endLeft) {
+        return false;
+    }
+
     /**
      * 根据状态刷新View
      *
@@ -180,20 +427,37 @@ public abstract class BaseSwitchButton extends ViewGroup implements SwitchButton
      * @param anim
      */
     private void updateViewByState(boolean checked, boolean anim) {
-        final int startLeft = mViewThumb.getLeft();
+        cancelPropertyAnimation();
+
+        // 看不见的时候直接放到最终位置
+        if (anim && !mVisibilityHelper.isVisibleOnScreen())
+            anim = false;
+
+        final int startLeft = Math.round(getThumbLeft());
         final int endLeft = checked ? getLeftChecked() : getLeftNormal();
 
         if (mIsDebug)
             Log.i(getDebugTag(), "updateViewByState " + checked + ":" + startLeft + " -> " + endLeft + " anim:" + anim);
 
-        abortAnimation();
-        if (startLeft != endLeft) {
-            if (anim) {
-                smoothScroll(startLeft, endLeft);
-            } else {
-                layoutInternal();
+        // 滚动中直接修改目标位置，保留当前速度
+        final boolean retarget = anim && startLeft != endLeft && retargetScroll(endLeft);
+        if (!retarget) {
+            abortAnimation();
+            if (startLeft != endLeft) {
+                if (anim) {
+                    if (!startPropertyAnimation(startLeft, endLeft, mSettleVelocity)
+                            && !smoothScroll(startLeft, endLeft, mSettleVelocity))
+                        updateViewIdle();
+                } else {
+                    updateViewIdle();
+                }
+            } else if (mTranslationThumb && !anim && getThumbLeft() != endLeft) {
+                updateViewIdle();
             }
         }
+
+        if (isViewIdle())
+            setScrollState(ScrollState.Idle);
     }
 
     /**
@@ -202,25 +466,196 @@ public abstract class BaseSwitchButton extends ViewGroup implements SwitchButton
      * @param delta 移动量
      */
     protected final void moveView(int delta) {
+        moveView((float) delta);
+    }
+
+    /**
+     * 移动手柄view，translationX模式下保留小数部分，否则只移动整数部分
+     *
+     * @param delta 移动量
+     */
+    protected final void moveView(float delta) {
         if (delta == 0)
             return;
 
+        if (mIsPropertyAnimating)
+            cancelPropertyAnimation();
+
+        if (mTranslationThumb) {
+            final float current = mThumbPosition;
+            final float future = Math.max(getLeftNormal(), Math.min(current + delta, getLeftChecked()));
+            if (future == current)
+                return;
+
+            setThumbPosition(future);
+            notifyViewPositionChanged();
+            return;
+        }
+
         final int current = mViewThumb.getLeft();
         final int min = getLeftNormal();
         final int max = getLeftChecked();
-        delta = HTouchHelper.getLegalDelta(current, min, max, delta);
+        final int legalDelta = HTouchHelper.getLegalDelta(current, min, max, (int) delta);
 
-        if (delta == 0)
+        if (legalDelta == 0)
             return;
 
-        ViewCompat.offsetLeftAndRight(mViewThumb, delta);
+        ViewCompat.offsetLeftAndRight(mViewThumb, legalDelta);
         notifyViewPositionChanged();
     }
 
+    /**
+     * translationX模式下设置手柄view的逻辑left值
+     *
+     * @param left
+     */
+    private void setThumbPosition(float left) {
+        mThumbPosition = left;
+        mViewThumb.setTranslationX(left - mViewThumb.getLeft());
+    }
+
+    private boolean canStartPropertyAnimation() {
+        return mPropertyAnimEnabled && mTranslationThumb
+                && Build.VERSION.SDK_INT >= 16
+                && isHardwareAccelerated()
+                && ViewCompat.isAttachedToWindow(this);
+    }
+
+    /**
+     * 使用属性动画把手柄从startLeft移动到endLeft
+     *
+     * @param startLeft
+     * @param endLeft
+     * @param velocity  松手速度(像素/秒)，0表示从静止开始
+     * @return false-不支持属性动画，需要使用{@link #smoothScroll(int, int, float)}
+     */
+    private boolean startPropertyAnimation(int startLeft, int endLeft, float velocity) {
+        if (!canStartPropertyAnimation())
+            return false;
+
+        final int distance = endLeft - startLeft;
+        final int defaultDuration = HScroller.computeDuration(distance, 0, getAvailableWidth(),
+                PROPERTY_ANIM_DURATION_MAX, PROPERTY_ANIM_DURATION_MIN);
+        final int duration = HSwitchRules.settleDuration(distance, velocity,
+                PROPERTY_ANIM_SETTLE_DURATION_MIN, PROPERTY_ANIM_DURATION_MAX, defaultDuration);
+        final float tangent = HSwitchRules.settleTangent(distance, velocity, duration);
+        final float alphaChecked = mIsChecked ? 1.0f : 0f;
+
+        if (mIsDebug)
+            Log.i(getDebugTag(), "startPropertyAnimation " + startLeft + " -> " + endLeft + " duration:" + duration);
+
+        mIsPropertyAnimating = true;
+        setScrollState(ScrollState.Fling);
+
+        // 切线为0时保持原来的减速曲线
+        final Interpolator interpolator = tangent == 0 ? new DecelerateInterpolator() : new HSettleInterpolator(tangent);
+        final ViewPropertyAnimator animatorThumb = mViewThumb.animate()
+                .translationX(endLeft - mViewThumb.getLeft())
+                .setDuration(duration)
+                .setInterpolator(interpolator)
+                .setListener(null)
+                .withLayer()
+                .withEndAction(getPropertyAnimEndRunnable());
+        if (Build.VERSION.SDK_INT >= 19)
+            animatorThumb.setUpdateListener(mOnViewPositionChangeCallback == null ? null : getPropertyAnimUpdateListener());
+        animatorThumb.start();
+
+        mViewChecked.animate()
+                .alpha(alphaChecked)
+                .setDuration(duration)
+                .setInterpolator(interpolator)
+                .setListener(null)
+                .start();
+
+        if (mOverlayCrossfade) {
+            // 正常view保持不透明，动画结束后由dealViewIdle()设置最终的透明度
+            mViewNormal.setAlpha(1.0f);
+        } else {
+            mViewNormal.animate()
+                    .alpha(1.0f - alphaChecked)
+                    .setDuration(duration)
+                    .setInterpolator(interpolator)
+                    .setListener(null)
+                    .start();
+        }
+        return true;
+    }
+
+    /**
+     * 取消属性动画，如果已经空闲则回到{@link ScrollState#Idle}状态
+     */
+    private void stopPropertyAnimation() {
+        if (!mIsPropertyAnimating)
+            return;
+
+        cancelPropertyAnimation();
+        if (isViewIdle())
+            setScrollState(ScrollState.Idle);
+    }
+
+    /**
+     * 取消属性动画，手柄停在当前位置，不改变滚动状态
+     */
+    private void cancelPropertyAnimation() {
+        if (!mIsPropertyAnimating)
+            return;
+
+        mIsPropertyAnimating = false;
+        mViewThumb.animate().cancel();
+        mViewChecked.animate().cancel();
+        mViewNormal.animate().cancel();
+        mThumbPosition = mViewThumb.getLeft() + mViewThumb.getTranslationX();
+
+        if (mIsDebug)
+            Log.i(getDebugTag(), "cancelPropertyAnimation position:" + mThumbPosition);
+    }
+
+    private Runnable getPropertyAnimEndRunnable() {
+        if (mPropertyAnimEndRunnable == null) {
+            mPropertyAnimEndRunnable = new Runnable() {
+                @Override
+                public void run() {
+                    if (!mIsPropertyAnimating)
+                        return;
+
+                    mIsPropertyAnimating = false;
+                    mThumbPosition = mViewThumb.getLeft() + mViewThumb.getTranslationX();
+
+                    if (mIsDebug)
+                        Log.i(getDebugTag(), "property animation end position:" + mThumbPosition);
+
+                    if (isViewIdle())
+                        setScrollState(ScrollState.Idle);
+                }
+            };
+        }
+        return mPropertyAnimEndRunnable;
+    }
+
+    private ValueAnimator.AnimatorUpdateListener getPropertyAnimUpdateListener() {
+        if (mPropertyAnimUpdateListener == null) {
+            mPropertyAnimUpdateListener = new ValueAnimator.AnimatorUpdateListener() {
+                @Override
+                public void onAnimationUpdate(ValueAnimator animation) {
+                    if (mIsPropertyAnimating && mOnViewPositionChangeCallback != null)
+                        mOnViewPositionChangeCallback.onViewPositionChanged(BaseSwitchButton.this);
+                }
+            };
+        }
+        return mPropertyAnimUpdateListener;
+    }
+
     private void notifyViewPositionChanged() {
         final float percent = getScrollPercent();
-        mViewChecked.setAlpha(percent);
-        mViewNormal.setAlpha(1.0f - percent);
+        setViewAlpha(mViewChecked, percent);
+        if (mOverlayCrossfade) {
+            setViewAlpha(mViewNormal, percent < 1.0f ? 1.0f : 0f);
+        } else {
+            setViewAlpha(mViewNormal, 1.0f - percent);
+        }
+
+        if (mIsBinding)
+            return;
 
         if (mOnViewPositionChangeCallback != null)
             mOnViewPositionChangeCallback.onViewPositionChanged(this);
@@ -242,22 +677,130 @@ public abstract class BaseSwitchButton extends ViewGroup implements SwitchButton
             if (mIsDebug)
                 Log.i(getDebugTag(), "setScrollState:" + old + " -> " + state);
 
-            if (state == ScrollState.Idle)
-                layoutInternal();
+            if (mIsBinding) {
+                // bindChecked()会自己放置手柄，只需要释放硬件层
+                if (state == ScrollState.Idle)
+                    demoteLayer();
+            } else if (state == ScrollState.Idle) {
+                updateViewIdle();
+                demoteLayer();
+            } else if (old == ScrollState.Idle) {
+                promoteLayer();
+            }
 
+            // 绑定期间也通知，否则之前收到Drag或者Fling的监听收不到Idle
             if (mOnScrollStateChangeCallback != null)
                 mOnScrollStateChangeCallback.onScrollStateChanged(old, state, this);
         }
     }
 
+    /**
+     * 给背景view开启硬件层
+     */
+    private void promoteLayer() {
+        if (!mHardwareLayerEnabled || mHasHardwareLayer)
+            return;
+
+        if (!isHardwareAccelerated())
+            return;
+
+        if (!HLayerBudget.tryAcquire()) {
+            if (mIsDebug)
+                Log.i(getDebugTag(), "promoteLayer out of budget");
+            return;
+        }
+
+        mHasHardwareLayer = true;
+        mLayerTypeNormal = mViewNormal.getLayerType();
+        mLayerTypeChecked = mViewChecked.getLayerType();
+        mViewNormal.setLayerType(View.LAYER_TYPE_HARDWARE, null);
+        mViewChecked.setLayerType(View.LAYER_TYPE_HARDWARE, null);
+
+        if (mIsDebug)
+            Log.i(getDebugTag(), "promoteLayer");
+    }
+
+    /**
+     * 恢复背景view原来的图层类型
+     */
+    private void demoteLayer() {
+        if (!mHasHardwareLayer)
+            return;
+
+        mHasHardwareLayer = false;
+        mViewNormal.setLayerType(mLayerTypeNormal, null);
+        mViewChecked.setLayerType(mLayerTypeChecked, null);
+        HLayerBudget.release();
+
+        if (mIsDebug)
+            Log.i(getDebugTag(), "demoteLayer");
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        updateThumbZ();
+    }
+
+    /**
+     * 保证手柄view在背景view上面
+     */
+    private void updateThumbZ() {
+        final float backZ = Math.max(ViewCompat.getZ(mViewNormal), ViewCompat.getZ(mViewChecked));
+        if (ViewCompat.getZ(mViewThumb) <= backZ)
+            ViewCompat.setZ(mViewThumb, backZ + 1);
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        finishAnimationInvisible();
+        demoteLayer();
+    }
+
+    @Override
+    public void onVisibilityAggregated(boolean isVisible) {
+        super.onVisibilityAggregated(isVisible);
+        if (!isVisible)
+            finishAnimationInvisible();
+    }
+
+    @Override
+    protected void onWindowVisibilityChanged(int visibility) {
+        super.onWindowVisibilityChanged(visibility);
+        // 24及以上由onVisibilityAggregated()处理
+        if (Build.VERSION.SDK_INT < 24 && visibility != VISIBLE)
+            finishAnimationInvisible();
+    }
+
+    @Override
+    protected void onVisibilityChanged(View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+        if (Build.VERSION.SDK_INT < 24 && visibility != VISIBLE)
+            finishAnimationInvisible();
+    }
+
+    /**
+     * 不可见或者detach的时候停止动画，手柄直接放到最终位置，重新显示的时候不需要恢复动画
+     */
+    private void finishAnimationInvisible() {
+        if (mScrollState != ScrollState.Fling)
+            return;
+
+        if (mIsDebug)
+            Log.i(getDebugTag(), "finishAnimationInvisible");
+
+        updateViewByState(mIsChecked, false);
+    }
+
     @Override
     protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
         measureChild(mViewNormal, widthMeasureSpec, heightMeasureSpec);
         measureChild(mViewChecked, widthMeasureSpec, heightMeasureSpec);
 
         final ViewGroup.LayoutParams lpThumb = mViewThumb.getLayoutParams();
-        measureChild(mViewThumb, getChildMeasureSpec(widthMeasureSpec, mAttrModel.getMarginLeft() + mAttrModel.getMarginRight(), lpThumb.width),
-                getChildMeasureSpec(heightMeasureSpec, mAttrModel.getMarginTop() + mAttrModel.getMarginBottom(), lpThumb.height));
+        measureChild(mViewThumb, getChildMeasureSpec(widthMeasureSpec, mStyle.getMarginLeft() + mStyle.getMarginRight(), lpThumb.width),
+                getChildMeasureSpec(heightMeasureSpec, mStyle.getMarginTop() + mStyle.getMarginBottom(), lpThumb.height));
 
         int width = Math.max(mViewThumb.getMeasuredWidth(), Math.max(mViewNormal.getMeasuredWidth(), mViewChecked.getMeasuredWidth()));
         int height = Math.max(mViewThumb.getMeasuredHeight(), Math.max(mViewNormal.getMeasuredHeight(), mViewChecked.getMeasuredHeight()));
@@ -307,8 +850,10 @@ public abstract class BaseSwitchButton extends ViewGroup implements SwitchButton
         mViewChecked.layout(0, 0, mViewChecked.getMeasuredWidth(), mViewChecked.getMeasuredHeight());
 
         int left = 0;
-        int top = mAttrModel.getMarginTop();
-        if (isViewIdle) {
+        int top = mStyle.getMarginTop();
+        if (mTranslationThumb) {
+            left = getLeftNormal();
+        } else if (isViewIdle) {
             left = mIsChecked ? getLeftChecked() : getLeftNormal();
         } else {
             left = mViewThumb.getLeft();
@@ -316,13 +861,34 @@ public abstract class BaseSwitchButton extends ViewGroup implements SwitchButton
         mViewThumb.layout(left, top,
                 left + mViewThumb.getMeasuredWidth(), top + mViewThumb.getMeasuredHeight());
 
-        final float backZ = Math.max(ViewCompat.getZ(mViewNormal), ViewCompat.getZ(mViewChecked));
-        if (ViewCompat.getZ(mViewThumb) <= backZ)
-            ViewCompat.setZ(mViewThumb, backZ + 1);
+        if (mTranslationThumb) {
+            final float position = isViewIdle ? (mIsChecked ? getLeftChecked() : getLeftNormal())
+                    : Math.max(getLeftNormal(), Math.min(mThumbPosition, getLeftChecked()));
+            setThumbPosition(position);
+        }
 
         dealViewIdle();
     }
 
+    /**
+     * 空闲状态下把手柄view放到选中状态对应的位置，translationX模式下不需要重新布局
+     */
+    private void updateViewIdle() {
+        if (!mTranslationThumb) {
+            layoutInternal();
+            return;
+        }
+
+        if (isViewIdle()) {
+            final float left = mIsChecked ? getLeftChecked() : getLeftNormal();
+            if (mThumbPosition != left) {
+                setThumbPosition(left);
+                notifyViewPositionChanged();
+            }
+            dealViewIdle();
+        }
+    }
+
     private void dealViewIdle() {
         if (isViewIdle()) {
             if (mIsDebug)
@@ -352,6 +918,23 @@ public abstract class BaseSwitchButton extends ViewGroup implements SwitchButton
             mViewNormal.setAlpha(alpha);
     }
 
+    /**
+     * 设置view的透明度，变化量小于8位透明度的一级时忽略，0和1总是会设置
+     *
+     * @param view
+     * @param alpha
+     */
+    private static void setViewAlpha(View view, float alpha) {
+        final float old = view.getAlpha();
+        if (old == alpha)
+            return;
+
+        if (alpha > 0f && alpha < 1.0f && Math.abs(old - alpha) < ALPHA_STEP)
+            return;
+
+        view.setAlpha(alpha);
+    }
+
     //----------SwitchButton implements start----------
 
     @Override
@@ -397,11 +980,67 @@ public abstract class BaseSwitchButton extends ViewGroup implements SwitchButton
         }
     }
 
+    /**
+     * 拖动松手后设置选中状态，手柄以松手速度开始归位
+     *
+     * @param checked
+     * @param velocity 松手速度(像素/秒)
+     */
+    protected final void settleChecked(boolean checked, float velocity) {
+        mSettleVelocity = velocity;
+        try {
+            setChecked(checked, true, true);
+        } finally {
+            mSettleVelocity = 0;
+        }
+    }
+
     @Override
     public void toggleChecked(boolean anim, boolean notifyCallback) {
         setChecked(!mIsChecked, anim, notifyCallback);
     }
 
+    @Override
+    public void bindChecked(boolean checked) {
+        final float endLeft = checked ? getLeftChecked() : getLeftNormal();
+        if (checked == mIsChecked) {
+            if (mScrollState == ScrollState.Fling)
+                return;
+            if (mScrollState == ScrollState.Idle && getThumbLeft() == endLeft)
+                return;
+        }
+
+        if (mIsDebug)
+            Log.i(getDebugTag(), "bindChecked:" + mIsChecked + " -> " + checked);
+
+        mIsBinding = true;
+        try {
+            if (mIsChecked != checked) {
+                mIsChecked = checked;
+                mViewThumb.setSelected(checked);
+            }
+
+            cancelPropertyAnimation();
+            stopGesture();
+            if (isViewIdle())
+                setScrollState(ScrollState.Idle);
+
+            if (isLayoutRequested() || !ViewCompat.isLaidOut(this)) {
+                // 等待布局的时候会放到正确的位置
+                requestLayout();
+            } else if (mTranslationThumb) {
+                setThumbPosition(endLeft);
+            } else {
+                ViewCompat.offsetLeftAndRight(mViewThumb, (int) endLeft - mViewThumb.getLeft());
+            }
+
+            notifyViewPositionChanged();
+            dealViewIdle();
+        } finally {
+            mIsBinding = false;
+        }
+    }
+
     @Override
     public void setOnCheckedChangeCallback(OnCheckedChangeCallback callback) {
         mOnCheckedChangeCallback = callback;
@@ -419,7 +1058,7 @@ public abstract class BaseSwitchButton extends ViewGroup implements SwitchButton
 
     @Override
     public float getScrollPercent() {
-        return getScrollDistance() / (float) getAvailableWidth();
+        return getScrollDistance() / getAvailableWidth();
     }
 
     @Override
@@ -0,0 +1,21 @@
+package com.zzh.lib.switchbutton;
+
+/**
+ * 支持列表绑定的开关，库里的开关都实现了这个接口
+ * <br>
+ * 外部的{@link SwitchButton}实现不需要实现，{@link SwitchButtonBinder#bindChecked(SwitchButton, boolean)}会退化为不带动画、不通知回调的{@link SwitchButton#setChecked(boolean, boolean, boolean)}
+ */
+public interface BindableSwitchButton extends SwitchButton {
+    /**
+     * 列表绑定数据时设置选中状态，不通知选中和位置回调，不执行动画
+     * <br>
+     * 打断拖动或者滚动的时候仍然会通知{@link SwitchButton.OnScrollStateChangeCallback}回到{@link SwitchButton.ScrollState#Idle}
+     * <br>
+     * 状态和位置都没有变化的时候直接返回；正在滚动到相同状态的动画会继续执行；
+     * 其他情况停止拖动和滚动，大小没有变化的时候不重新布局，直接把手柄放到对应位置
+     *
+     * @param checked true-选中，false-未选中
+     * @see SwitchButtonBinder
+     */
+    void bindChecked(boolean checked);
+}
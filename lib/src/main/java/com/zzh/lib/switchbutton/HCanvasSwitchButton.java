@@ -0,0 +1,821 @@
+package com.zzh.lib.switchbutton;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.drawable.Drawable;
+import android.os.Build;
+import android.util.AttributeSet;
+import android.util.Log;
+import android.view.MotionEvent;
+import android.view.View;
+
+import com.zzh.lib.switchbutton.core.HGestureStateMachine;
+import com.zzh.lib.switchbutton.core.HGestureTrace;
+import com.zzh.lib.switchbutton.core.HRetargetScrollerApi;
+import com.zzh.lib.switchbutton.core.HScrollerApi;
+import com.zzh.lib.switchbutton.gesture.HAnimationClock;
+import com.zzh.lib.switchbutton.gesture.HAnimationTicker;
+import com.zzh.lib.switchbutton.gesture.HGestureManager;
+import com.zzh.lib.switchbutton.gesture.HNestedScrollHelper;
+import com.zzh.lib.switchbutton.gesture.HScroller;
+import com.zzh.lib.switchbutton.gesture.HTouchHelper;
+import com.zzh.lib.switchbutton.gesture.HVisibilityHelper;
+
+import androidx.core.view.NestedScrollingChild3;
+
+/**
+ * 单view绘制模式的开关，不创建子view，在{@link #onDraw(Canvas)}中一次性绘制背景、渐变和手柄
+ * <br>
+ * 适用于列表等需要大量开关的场景，{@link #getViewNormal()}，{@link #getViewChecked()}，{@link #getViewThumb()}返回null
+ * <br>
+ * 构造方法可以在子线程调用(例如AsyncLayoutInflater)，手势管理等只能在主线程使用的对象在attach的时候才创建
+ */
+public class HCanvasSwitchButton extends View implements BindableSwitchButton, NestedScrollingChild3 {
+    private Drawable mDrawableNormal;
+    private Drawable mDrawableChecked;
+    private Drawable mDrawableThumb;
+
+    /**
+     * 从{@link HDrawableCache}获得的共享bitmap，为null的时候使用drawable绘制
+     */
+    private Bitmap mBitmapNormal;
+    private Bitmap mBitmapChecked;
+    private Bitmap mBitmapThumbNormal;
+    private Bitmap mBitmapThumbChecked;
+    private final Paint mBitmapPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    protected final SwitchStyle mStyle;
+
+    /**
+     * 手柄的left值，保留小数部分
+     */
+    private float mThumbLeft;
+    /**
+     * 手柄的宽度
+     */
+    private int mThumbWidth;
+    /**
+     * 手柄的高度
+     */
+    private int mThumbHeight;
+
+    private boolean mIsChecked;
+    private ScrollState mScrollState = ScrollState.Idle;
+
+    private OnCheckedChangeCallback mOnCheckedChangeCallback;
+    private OnViewPositionChangeCallback mOnViewPositionChangeCallback;
+    private OnScrollStateChangeCallback mOnScrollStateChangeCallback;
+
+    private HGestureManager mGestureManager;
+    /**
+     * 手势管理对象创建之前设置的滚动实现
+     */
+    private HScrollerApi mScrollerApi;
+    private HGestureTrace mGestureTrace;
+    private final HNestedScrollHelper mNestedScrollHelper = new HNestedScrollHelper(this);
+    private final HVisibilityHelper mVisibilityHelper = new HVisibilityHelper(this);
+
+    protected boolean mIsDebug;
+
+    /**
+     * 渐变的时候正常背景是否保持不透明，只改变选中背景的透明度
+     */
+    private boolean mOverlayCrossfade;
+
+    /**
+     * 是否正在执行{@link #bindChecked(boolean)}，期间不通知选中和位置回调
+     */
+    private boolean mIsBinding;
+
+    /**
+     * 拖动松手后归位时的松手速度(像素/秒)
+     */
+    private float mSettleVelocity;
+
+    public HCanvasSwitchButton(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        mStyle = SwitchStyle.obtain(context, attrs);
+        init();
+    }
+
+    /**
+     * 代码创建
+     *
+     * @param context
+     * @param style   样式，可以在多个开关之间共享
+     */
+    public HCanvasSwitchButton(Context context, SwitchStyle style) {
+        super(context);
+        if (style == null)
+            throw new NullPointerException();
+
+        mStyle = style;
+        init();
+    }
+
+    private void init() {
+        mIsChecked = mStyle.isChecked();
+        mIsDebug = mStyle.isDebug();
+        mOverlayCrossfade = mStyle.isOverlayCrossfade();
+
+        mDrawableNormal = loadDrawable(mStyle.getImageNormalResId());
+        mDrawableChecked = loadDrawable(mStyle.getImageCheckedResId());
+        mDrawableThumb = loadDrawable(mStyle.getImageThumbResId());
+        updateBtnState(mIsChecked);
+    }
+
+    private Drawable loadDrawable(int resId) {
+        final Drawable drawable = HDrawableCache.getDrawable(getContext(), resId);
+        if (drawable == null)
+            return null;
+
+        // 绘制过程中会修改alpha和状态，避免影响其他共享同一个ConstantState的drawable
+        final Drawable mutate = drawable.mutate();
+        mutate.setCallback(this);
+        return mutate;
+    }
+
+    public void setDebug(boolean debug) {
+        mIsDebug = debug;
+        if (mGestureManager != null)
+            mGestureManager.setDebug(debug);
+    }
+
+    /**
+     * 设置渐变模式，true-正常背景保持不透明，每帧只有选中背景一次混合绘制
+     *
+     * @param overlay
+     * @see BaseSwitchButton#setOverlayCrossfade(boolean)
+     */
+    public void setOverlayCrossfade(boolean overlay) {
+        if (mOverlayCrossfade != overlay) {
+            mOverlayCrossfade = overlay;
+            invalidate();
+        }
+    }
+
+    protected final String getDebugTag() {
+        return getClass().getSimpleName();
+    }
+
+    /**
+     * 设置滚动动画的实现，例如{@link com.zzh.lib.switchbutton.gesture.HSpringScrollerApi}
+     *
+     * @param scrollerApi null表示使用默认的{@link HRetargetScrollerApi}
+     */
+    public void setScrollerApi(HScrollerApi scrollerApi) {
+        mScrollerApi = scrollerApi;
+        if (mGestureManager != null)
+            mGestureManager.getScroller().setScrollerApi(getScrollerApi());
+    }
+
+    private HScrollerApi getScrollerApi() {
+        if (mScrollerApi != null)
+            return mScrollerApi;
+        return new HRetargetScrollerApi(getResources().getDisplayMetrics().density, HAnimationClock.INSTANCE);
+    }
+
+    /**
+     * 恢复到样式的默认值，{@link SwitchButtonPool}复用开关的时候调用
+     * <br>
+     * 清空所有回调，调试和渐变模式按样式设置，选中状态按样式设置(不执行动画，不通知回调)，
+     * 恢复默认的滚动实现，停止记录手势，开启嵌套滚动
+     */
+    public void resetToStyle() {
+        setOnCheckedChangeCallback(null);
+        setOnViewPositionChangeCallback(null);
+        setOnScrollStateChangeCallback(null);
+
+        setDebug(mStyle.isDebug());
+        setOverlayCrossfade(mStyle.isOverlayCrossfade());
+        setChecked(mStyle.isChecked(), false, false);
+
+        setScrollerApi(null);
+        stopGestureTrace();
+        setNestedScrollingEnabled(true);
+    }
+
+    /**
+     * 开始记录手势，需要在布局完成之后调用，记录的尺寸参数和当前状态用于{@link com.zzh.lib.switchbutton.core.HGestureReplayer}重放
+     * <br>
+     * 只能在主线程调用
+     *
+     * @return 记录对象
+     */
+    public HGestureTrace startGestureTrace() {
+        final HGestureTrace trace = getGestureManager().newGestureTrace(isChecked(), getLeftNormal(), getLeftChecked(), mThumbWidth);
+
+        mGestureTrace = trace;
+        mGestureManager.setGestureTrace(trace);
+        return trace;
+    }
+
+    /**
+     * 停止记录手势
+     *
+     * @return 记录对象，没有开始记录返回null
+     */
+    public HGestureTrace stopGestureTrace() {
+        final HGestureTrace trace = mGestureTrace;
+        mGestureTrace = null;
+        if (mGestureManager != null)
+            mGestureManager.setGestureTrace(null);
+        return trace;
+    }
+
+    /**
+     * 返回手势管理对象，只能在主线程调用，attach或者开始记录手势之前不会创建
+     *
+     * @return
+     */
+    private HGestureManager getGestureManager() {
+        if (mGestureManager == null) {
+            mGestureManager = new HGestureManager(this, new HGestureManager.Callback() {
+                @Override
+                public boolean isChecked() {
+                    return mIsChecked;
+                }
+
+                @Override
+                public boolean isThumbUnder(float x, float y) {
+                    final int top = mStyle.getMarginTop();
+                    return x >= mThumbLeft && x < mThumbLeft + mThumbWidth
+                            && y >= top && y < top + mThumbHeight;
+                }
+
+                @Override
+                public float getThumbLeft() {
+                    return mThumbLeft;
+                }
+
+                @Override
+                public int getLeftNormal() {
+                    return HCanvasSwitchButton.this.getLeftNormal();
+                }
+
+                @Override
+                public int getLeftChecked() {
+                    return HCanvasSwitchButton.this.getLeftChecked();
+                }
+
+                @Override
+                public void onDrag(float dx) {
+                    moveView(dx);
+                }
+
+                @Override
+                public void onClick() {
+                    toggleChecked(mStyle.isNeedToggleAnim(), true);
+                }
+
+                @Override
+                public void onRelease(boolean checked, float velocity) {
+                    if (mIsDebug)
+                        Log.e(getDebugTag(), "onConsumeEventFinish checked:" + checked);
+
+                    mSettleVelocity = velocity;
+                    try {
+                        setChecked(checked, true, true);
+                    } finally {
+                        mSettleVelocity = 0;
+                    }
+                }
+
+                @Override
+                public void onTagInterceptChanged(boolean tag) {
+                    HTouchHelper.requestDisallowInterceptTouchEvent(HCanvasSwitchButton.this, tag);
+                }
+
+                @Override
+                public void onTagConsumeChanged(boolean tag) {
+                    if (mIsDebug)
+                        Log.i(getDebugTag(), "shouldConsumeEvent:" + tag);
+
+                    HTouchHelper.requestDisallowInterceptTouchEvent(HCanvasSwitchButton.this, tag);
+                }
+
+                @Override
+                public void onStateChanged(HGestureStateMachine.State oldState, HGestureStateMachine.State newState) {
+                    switch (newState) {
+                        case Consume:
+                            setScrollState(ScrollState.Drag);
+                            break;
+                        case Fling:
+                            setScrollState(ScrollState.Fling);
+                            break;
+                        case Idle:
+                            setScrollState(ScrollState.Idle);
+                            break;
+                    }
+                }
+
+                @Override
+                public void onScrollerCompute(int lastX, int lastY, int currX, int currY) {
+                    final int dx = currX - lastX;
+                    moveView(dx);
+                }
+            });
+            mGestureManager.setDebug(mIsDebug);
+            mGestureManager.setGestureTrace(mGestureTrace);
+            mGestureManager.getScroller().setScrollerApi(getScrollerApi());
+            mGestureManager.getScroller().setAnimationTicker(HAnimationTicker.getInstance());
+            mGestureManager.getScroller().setMaxScrollDistance(getAvailableWidth());
+        }
+        return mGestureManager;
+    }
+
+    private boolean isViewIdle() {
+        return mGestureManager == null || mGestureManager.getState() == HGestureStateMachine.State.Idle;
+    }
+
+    /**
+     * 返回normal状态下手柄的left值
+     *
+     * @return
+     */
+    protected final int getLeftNormal() {
+        return mStyle.getMarginLeft();
+    }
+
+    /**
+     * 返回checked状态下手柄的left值
+     *
+     * @return
+     */
+    protected final int getLeftChecked() {
+        return getWidth() - mThumbWidth - mStyle.getMarginRight();
+    }
+
+    /**
+     * 返回手柄可以移动的宽度大小
+     *
+     * @return
+     */
+    protected final int getAvailableWidth() {
+        return getLeftChecked() - getLeftNormal();
+    }
+
+    /**
+     * 根据状态刷新手柄位置
+     *
+     * @param checked
+     * @param anim
+     */
+    private void updateViewByState(boolean checked, boolean anim) {
+        // 看不见的时候直接放到最终位置
+        if (anim && !mVisibilityHelper.isVisibleOnScreen())
+            anim = false;
+
+        final int startLeft = Math.round(mThumbLeft);
+        final int endLeft = checked ? getLeftChecked() : getLeftNormal();
+
+        if (mIsDebug)
+            Log.i(getDebugTag(), "updateViewByState " + checked + ":" + startLeft + " -> " + endLeft + " anim:" + anim);
+
+        // 滚动中直接修改目标位置，保留当前速度
+        if (anim && startLeft != endLeft && mGestureManager != null
+                && mGestureManager.getScroller().retargetX(endLeft, -1))
+            return;
+
+        if (mGestureManager != null)
+            mGestureManager.getScroller().abortAnimation();
+
+        if (startLeft != endLeft) {
+            if (!anim || mGestureManager == null
+                    || !mGestureManager.getScroller().settleX(startLeft, endLeft, mSettleVelocity))
+                layoutInternal();
+        } else if (!anim && mThumbLeft != endLeft) {
+            layoutInternal();
+        }
+
+        // 没有开始滚动的时候直接回到空闲状态
+        if (isViewIdle())
+            setScrollState(ScrollState.Idle);
+    }
+
+    /**
+     * 移动手柄，保留小数部分
+     *
+     * @param delta 移动量
+     */
+    private void moveView(float delta) {
+        if (delta == 0)
+            return;
+
+        final float future = Math.max(getLeftNormal(), Math.min(mThumbLeft + delta, getLeftChecked()));
+        if (future == mThumbLeft)
+            return;
+
+        mThumbLeft = future;
+        notifyViewPositionChanged();
+    }
+
+    private void notifyViewPositionChanged() {
+        invalidate();
+
+        if (mIsBinding)
+            return;
+
+        if (mOnViewPositionChangeCallback != null)
+            mOnViewPositionChangeCallback.onViewPositionChanged(this);
+    }
+
+    private void setScrollState(ScrollState state) {
+        final ScrollState old = mScrollState;
+        if (old != state) {
+            mScrollState = state;
+
+            if (mIsDebug)
+                Log.i(getDebugTag(), "setScrollState:" + old + " -> " + state);
+
+            if (state == ScrollState.Idle)
+                layoutInternal();
+
+            // 绑定期间也通知，否则之前收到Drag或者Fling的监听收不到Idle
+            if (mOnScrollStateChangeCallback != null)
+                mOnScrollStateChangeCallback.onScrollStateChanged(old, state, this);
+        }
+    }
+
+    /**
+     * 空闲状态下把手柄放到当前选中状态对应的位置
+     */
+    private void layoutInternal() {
+        if (isViewIdle()) {
+            final float left = mIsChecked ? getLeftChecked() : getLeftNormal();
+            if (mThumbLeft != left) {
+                mThumbLeft = left;
+                notifyViewPositionChanged();
+            }
+            updateBtnState(mIsChecked);
+        }
+    }
+
+    private void updateBtnState(boolean checked) {
+        if (mDrawableThumb == null)
+            return;
+
+        HDrawableCache.applyCheckedState(mDrawableThumb, checked);
+        invalidate();
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        final int width = Math.max(getIntrinsicWidth(mDrawableNormal), getIntrinsicWidth(mDrawableChecked));
+        final int height = Math.max(getIntrinsicHeight(mDrawableNormal), getIntrinsicHeight(mDrawableChecked));
+
+        setMeasuredDimension(getDefaultSize(width, widthMeasureSpec), getDefaultSize(height, heightMeasureSpec));
+    }
+
+    private static int getIntrinsicWidth(Drawable drawable) {
+        return drawable == null ? 0 : Math.max(0, drawable.getIntrinsicWidth());
+    }
+
+    private static int getIntrinsicHeight(Drawable drawable) {
+        return drawable == null ? 0 : Math.max(0, drawable.getIntrinsicHeight());
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+
+        // 和HThumbView一致，手柄宽度等于高度
+        mThumbHeight = Math.max(0, h - mStyle.getMarginTop() - mStyle.getMarginBottom());
+        mThumbWidth = Math.min(mThumbHeight, Math.max(0, w - mStyle.getMarginLeft() - mStyle.getMarginRight()));
+
+        if (mDrawableNormal != null)
+            mDrawableNormal.setBounds(0, 0, w, h);
+        if (mDrawableChecked != null)
+            mDrawableChecked.setBounds(0, 0, w, h);
+
+        final Context context = getContext();
+        mBitmapNormal = HDrawableCache.getBitmap(context, mStyle.getImageNormalResId(), w, h, false);
+        mBitmapChecked = HDrawableCache.getBitmap(context, mStyle.getImageCheckedResId(), w, h, false);
+        mBitmapThumbNormal = HDrawableCache.getBitmap(context, mStyle.getImageThumbResId(), mThumbWidth, mThumbHeight, false);
+        mBitmapThumbChecked = HDrawableCache.getBitmap(context, mStyle.getImageThumbResId(), mThumbWidth, mThumbHeight, true);
+
+        if (mGestureManager != null)
+            mGestureManager.getScroller().setMaxScrollDistance(getAvailableWidth());
+
+        if (isViewIdle()) {
+            mThumbLeft = mIsChecked ? getLeftChecked() : getLeftNormal();
+        } else {
+            mThumbLeft = Math.max(getLeftNormal(), Math.min(mThumbLeft, getLeftChecked()));
+        }
+        notifyViewPositionChanged();
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+
+        final float percent = getScrollPercent();
+        final int alphaChecked = (int) (percent * 255 + 0.5f);
+
+        final int alphaNormal;
+        if (mOverlayCrossfade) {
+            alphaNormal = alphaChecked < 255 ? 255 : 0;
+        } else {
+            alphaNormal = 255 - alphaChecked;
+        }
+
+        drawTrack(canvas, mBitmapNormal, mDrawableNormal, alphaNormal);
+        drawTrack(canvas, mBitmapChecked, mDrawableChecked, alphaChecked);
+
+        final int top = mStyle.getMarginTop();
+        final Bitmap bitmapThumb = mIsChecked ? mBitmapThumbChecked : mBitmapThumbNormal;
+        if (bitmapThumb != null) {
+            mBitmapPaint.setAlpha(255);
+            canvas.drawBitmap(bitmapThumb, mThumbLeft, top, mBitmapPaint);
+        } else if (mDrawableThumb != null) {
+            final int left = Math.round(mThumbLeft);
+            mDrawableThumb.setBounds(left, top, left + mThumbWidth, top + mThumbHeight);
+            mDrawableThumb.draw(canvas);
+        }
+    }
+
+    private void drawTrack(Canvas canvas, Bitmap bitmap, Drawable drawable, int alpha) {
+        if (alpha <= 0)
+            return;
+
+        if (bitmap != null) {
+            mBitmapPaint.setAlpha(alpha);
+            canvas.drawBitmap(bitmap, 0, 0, mBitmapPaint);
+        } else if (drawable != null) {
+            drawable.setAlpha(alpha);
+            drawable.draw(canvas);
+        }
+    }
+
+    @Override
+    protected boolean verifyDrawable(Drawable who) {
+        return super.verifyDrawable(who) || who == mDrawableNormal || who == mDrawableChecked || who == mDrawableThumb;
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        getGestureManager();
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        final HGestureManager gestureManager = getGestureManager();
+        mNestedScrollHelper.onPreTouchEvent(event, gestureManager);
+
+        final float thumbLeft = mThumbLeft;
+        final boolean result = gestureManager.onTouchEvent(event);
+        mNestedScrollHelper.onTouchEvent(event, gestureManager, mThumbLeft - thumbLeft);
+        return result;
+    }
+
+    @Override
+    public boolean canScrollHorizontally(int direction) {
+        if (direction < 0)
+            return mThumbLeft < getLeftChecked();
+        if (direction > 0)
+            return mThumbLeft > getLeftNormal();
+        return false;
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        mNestedScrollHelper.getChildHelper().onDetachedFromWindow();
+        finishAnimationInvisible();
+    }
+
+    @Override
+    public void onVisibilityAggregated(boolean isVisible) {
+        super.onVisibilityAggregated(isVisible);
+        if (!isVisible)
+            finishAnimationInvisible();
+    }
+
+    @Override
+    protected void onWindowVisibilityChanged(int visibility) {
+        super.onWindowVisibilityChanged(visibility);
+        // 24及以上由onVisibilityAggregated()处理
+        if (Build.VERSION.SDK_INT < 24 && visibility != VISIBLE)
+            finishAnimationInvisible();
+    }
+
+    @Override
+    protected void onVisibilityChanged(View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+        if (Build.VERSION.SDK_INT < 24 && visibility != VISIBLE)
+            finishAnimationInvisible();
+    }
+
+    /**
+     * 不可见或者detach的时候停止滚动，手柄直接放到最终位置，重新显示的时候不需要恢复动画
+     */
+    private void finishAnimationInvisible() {
+        if (mScrollState != ScrollState.Fling)
+            return;
+
+        if (mIsDebug)
+            Log.i(getDebugTag(), "finishAnimationInvisible");
+
+        updateViewByState(mIsChecked, false);
+    }
+
+    //----------NestedScrollingChild3 implements start----------
+
+    @Override
+    public void setNestedScrollingEnabled(boolean enabled) {
+        mNestedScrollHelper.getChildHelper().setNestedScrollingEnabled(enabled);
+    }
+
+    @Override
+    public boolean isNestedScrollingEnabled() {
+        return mNestedScrollHelper.getChildHelper().isNestedScrollingEnabled();
+    }
+
+    @Override
+    public boolean startNestedScroll(int axes) {
+        return mNestedScrollHelper.getChildHelper().startNestedScroll(axes);
+    }
+
+    @Override
+    public boolean startNestedScroll(int axes, int type) {
+        return mNestedScrollHelper.getChildHelper().startNestedScroll(axes, type);
+    }
+
+    @Override
+    public void stopNestedScroll() {
+        mNestedScrollHelper.getChildHelper().stopNestedScroll();
+    }
+
+    @Override
+    public void stopNestedScroll(int type) {
+        mNestedScrollHelper.getChildHelper().stopNestedScroll(type);
+    }
+
+    @Override
+    public boolean hasNestedScrollingParent() {
+        return mNestedScrollHelper.getChildHelper().hasNestedScrollingParent();
+    }
+
+    @Override
+    public boolean hasNestedScrollingParent(int type) {
+        return mNestedScrollHelper.getChildHelper().hasNestedScrollingParent(type);
+    }
+
+    @Override
+    public boolean dispatchNestedScroll(int dxConsumed, int dyConsumed, int dxUnconsumed, int dyUnconsumed, int[] offsetInWindow) {
+        return mNestedScrollHelper.getChildHelper().dispatchNestedScroll(dxConsumed, dyConsumed, dxUnconsumed, dyUnconsumed, offsetInWindow);
+    }
+
+    @Override
+    public boolean dispatchNestedScroll(int dxConsumed, int dyConsumed, int dxUnconsumed, int dyUnconsumed, int[] offsetInWindow, int type) {
+        return mNestedScrollHelper.getChildHelper().dispatchNestedScroll(dxConsumed, dyConsumed, dxUnconsumed, dyUnconsumed, offsetInWindow, type);
+    }
+
+    @Override
+    public void dispatchNestedScroll(int dxConsumed, int dyConsumed, int dxUnconsumed, int dyUnconsumed, int[] offsetInWindow, int type, int[] consumed) {
+        mNestedScrollHelper.getChildHelper().dispatchNestedScroll(dxConsumed, dyConsumed, dxUnconsumed, dyUnconsumed, offsetInWindow, type, consumed);
+    }
+
+    @Override
+    public boolean dispatchNestedPreScroll(int dx, int dy, int[] consumed, int[] offsetInWindow) {
+        return mNestedScrollHelper.getChildHelper().dispatchNestedPreScroll(dx, dy, consumed, offsetInWindow);
+    }
+
+    @Override
+    public boolean dispatchNestedPreScroll(int dx, int dy, int[] consumed, int[] offsetInWindow, int type) {
+        return mNestedScrollHelper.getChildHelper().dispatchNestedPreScroll(dx, dy, consumed, offsetInWindow, type);
+    }
+
+    @Override
+    public boolean dispatchNestedFling(float velocityX, float velocityY, boolean consumed) {
+        return mNestedScrollHelper.getChildHelper().dispatchNestedFling(velocityX, velocityY, consumed);
+    }
+
+    @Override
+    public boolean dispatchNestedPreFling(float velocityX, float velocityY) {
+        return mNestedScrollHelper.getChildHelper().dispatchNestedPreFling(velocityX, velocityY);
+    }
+
+    //----------NestedScrollingChild3 implements end----------
+
+    //----------SwitchButton implements start----------
+
+    @Override
+    public boolean isChecked() {
+        return mIsChecked;
+    }
+
+    @Override
+    public boolean setChecked(boolean checked, boolean anim, boolean notifyCallback) {
+        if (mIsDebug)
+            Log.i(getDebugTag(), "setChecked:" + mIsChecked + " -> " + checked);
+
+        final boolean changed = mIsChecked != checked;
+
+        final HGestureManager gestureManager = mGestureManager;
+        if (gestureManager != null) {
+            gestureManager.beginTransaction();
+            gestureManager.cancelConsumeEvent();
+        }
+        try {
+            if (changed) {
+                mIsChecked = checked;
+                updateBtnState(checked);
+            }
+
+            updateViewByState(mIsChecked, anim);
+        } finally {
+            if (gestureManager != null)
+                gestureManager.endTransaction();
+        }
+
+        if (changed) {
+            if (notifyCallback) {
+                if (mOnCheckedChangeCallback != null)
+                    mOnCheckedChangeCallback.onCheckedChanged(mIsChecked, this);
+            }
+        }
+
+        return changed;
+    }
+
+    @Override
+    public void toggleChecked(boolean anim, boolean notifyCallback) {
+        setChecked(!mIsChecked, anim, notifyCallback);
+    }
+
+    @Override
+    public void bindChecked(boolean checked) {
+        if (checked == mIsChecked) {
+            if (mScrollState == ScrollState.Fling)
+                return;
+            if (mScrollState == ScrollState.Idle && mThumbLeft == (checked ? getLeftChecked() : getLeftNormal()))
+                return;
+        }
+
+        if (mIsDebug)
+            Log.i(getDebugTag(), "bindChecked:" + mIsChecked + " -> " + checked);
+
+        mIsBinding = true;
+        try {
+            if (mIsChecked != checked) {
+                mIsChecked = checked;
+                updateBtnState(checked);
+            }
+
+            if (mGestureManager != null) {
+                mGestureManager.cancelConsumeEvent();
+                mGestureManager.getScroller().abortAnimation();
+            }
+            layoutInternal();
+        } finally {
+            mIsBinding = false;
+        }
+    }
+
+    @Override
+    public void setOnCheckedChangeCallback(OnCheckedChangeCallback callback) {
+        mOnCheckedChangeCallback = callback;
+    }
+
+    @Override
+    public void setOnViewPositionChangeCallback(OnViewPositionChangeCallback callback) {
+        mOnViewPositionChangeCallback = callback;
+    }
+
+    @Override
+    public void setOnScrollStateChangeCallback(OnScrollStateChangeCallback callback) {
+        mOnScrollStateChangeCallback = callback;
+    }
+
+    @Override
+    public float getScrollPercent() {
+        final int availableWidth = getAvailableWidth();
+        if (availableWidth <= 0)
+            return mIsChecked ? 1.0f : 0f;
+
+        return (mThumbLeft - getLeftNormal()) / availableWidth;
+    }
+
+    @Override
+    public ScrollState getScrollState() {
+        return mScrollState;
+    }
+
+    @Override
+    public View getViewNormal() {
+        return null;
+    }
+
+    @Override
+    public View getViewChecked() {
+        return null;
+    }
+
+    @Override
+    public View getViewThumb() {
+        return null;
+    }
+}
@@ -0,0 +1,293 @@
+package com.zzh.lib.switchbutton;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.drawable.Drawable;
+import android.graphics.drawable.StateListDrawable;
+import android.os.Build;
+import android.util.LruCache;
+
+import androidx.core.content.ContextCompat;
+
+/**
+ * 进程级别的开关图片缓存
+ * <br>
+ * 1.按(资源id，屏幕密度，uiMode)缓存{@link Drawable.ConstantState}，所有开关共享同一份解析结果
+ * <br>
+ * 2.按(资源id，宽高，状态，屏幕密度，uiMode)缓存绘制好的{@link Bitmap}，相同大小的图片只绘制一次
+ * <br>
+ * 日夜间模式切换后会按新的uiMode重新加载，旧的缓存会被清空
+ * <br>
+ * 注意：依赖主题属性的图片只会按第一次加载时的主题解析
+ */
+public final class HDrawableCache {
+    private static final int[] STATE_CHECKED = new int[]{android.R.attr.state_selected};
+    private static final int[] STATE_NORMAL = new int[]{};
+
+    /**
+     * ConstantState缓存的最大个数
+     */
+    private static final int MAX_STATE_COUNT = 64;
+
+    private static final LruCache<Key, Drawable.ConstantState> sStateCache = new LruCache<>(MAX_STATE_COUNT);
+    private static final LruCache<Key, Bitmap> sBitmapCache = new LruCache<Key, Bitmap>(getDefaultBitmapCacheSize()) {
+        @Override
+        protected int sizeOf(Key key, Bitmap value) {
+            return value.getByteCount();
+        }
+    };
+
+    private static boolean sRegisterCallbacks;
+    /**
+     * 最近一次配置变化时的uiMode
+     */
+    private static int sUiMode;
+
+    private HDrawableCache() {
+    }
+
+    private static int getDefaultBitmapCacheSize() {
+        final long maxMemory = Runtime.getRuntime().maxMemory();
+        return (int) Math.min(maxMemory / 32, 8 * 1024 * 1024);
+    }
+
+    /**
+     * 返回资源对应的drawable，同一个资源的drawable共享{@link Drawable.ConstantState}
+     *
+     * @param context
+     * @param resId
+     * @return resId为0或者资源不存在返回null
+     */
+    public static Drawable getDrawable(Context context, int resId) {
+        if (resId == 0)
+            return null;
+
+        registerCallbacksIfNeed(context);
+
+        final Resources resources = context.getResources();
+        final Key key = new Key(resId, 0, 0, false, resources.getDisplayMetrics().densityDpi,
+                resources.getConfiguration().uiMode);
+
+        final Drawable.ConstantState state = sStateCache.get(key);
+        if (state != null)
+            return newDrawable(state, context);
+
+        final Drawable drawable = ContextCompat.getDrawable(context, resId);
+        if (drawable == null)
+            return null;
+
+        final Drawable.ConstantState newState = drawable.getConstantState();
+        if (newState != null)
+            sStateCache.put(key, newState);
+
+        return drawable;
+    }
+
+    private static Drawable newDrawable(Drawable.ConstantState state, Context context) {
+        if (Build.VERSION.SDK_INT >= 21)
+            return state.newDrawable(context.getResources(), context.getTheme());
+        else
+            return state.newDrawable(context.getResources());
+    }
+
+    /**
+     * 返回资源按指定大小和状态绘制好的bitmap，所有开关共享
+     *
+     * @param context
+     * @param resId
+     * @param width
+     * @param height
+     * @param checked 是否按选中状态绘制
+     * @return 资源不存在或者大小不合法返回null
+     */
+    public static Bitmap getBitmap(Context context, int resId, int width, int height, boolean checked) {
+        if (resId == 0 || width <= 0 || height <= 0)
+            return null;
+
+        final Resources resources = context.getResources();
+        final Key key = new Key(resId, width, height, checked, resources.getDisplayMetrics().densityDpi,
+                resources.getConfiguration().uiMode);
+        final Bitmap cache = sBitmapCache.get(key);
+        if (cache != null)
+            return cache;
+
+        final Drawable drawable = getDrawable(context, resId);
+        if (drawable == null)
+            return null;
+
+        final Bitmap bitmap;
+        try {
+            bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        } catch (OutOfMemoryError e) {
+            return null;
+        }
+
+        applyCheckedState(drawable.mutate(), checked);
+        drawable.setBounds(0, 0, width, height);
+        drawable.draw(new Canvas(bitmap));
+
+        sBitmapCache.put(key, bitmap);
+        return bitmap;
+    }
+
+    /**
+     * 设置drawable的选中状态，和{@link BaseSwitchButton}中手柄状态的处理保持一致
+     *
+     * @param drawable
+     * @param checked
+     */
+    static void applyCheckedState(Drawable drawable, boolean checked) {
+        drawable.setState(checked ? STATE_CHECKED : STATE_NORMAL);
+        if (drawable instanceof StateListDrawable)
+            ((StateListDrawable) drawable).selectDrawable(checked ? 0 : 1);
+    }
+
+    /**
+     * 预加载样式对应的图片，可以在应用启动的时候调用
+     *
+     * @param context
+     * @param style
+     */
+    public static void prewarm(Context context, SwitchStyle style) {
+        getDrawable(context, style.getImageNormalResId());
+        getDrawable(context, style.getImageCheckedResId());
+        getDrawable(context, style.getImageThumbResId());
+    }
+
+    /**
+     * 预加载并绘制样式对应的bitmap，供{@link HCanvasSwitchButton}使用
+     *
+     * @param context
+     * @param style
+     * @param width   开关宽度
+     * @param height  开关高度
+     */
+    public static void prewarm(Context context, SwitchStyle style, int width, int height) {
+        prewarm(context, style);
+
+        getBitmap(context, style.getImageNormalResId(), width, height, false);
+        getBitmap(context, style.getImageCheckedResId(), width, height, false);
+
+        final int thumbHeight = height - style.getMarginTop() - style.getMarginBottom();
+        final int thumbWidth = Math.min(thumbHeight, width - style.getMarginLeft() - style.getMarginRight());
+        getBitmap(context, style.getImageThumbResId(), thumbWidth, thumbHeight, false);
+        getBitmap(context, style.getImageThumbResId(), thumbWidth, thumbHeight, true);
+    }
+
+    /**
+     * 设置bitmap缓存的最大字节数
+     *
+     * @param maxSize
+     */
+    public static void setMaxBitmapCacheSize(int maxSize) {
+        if (Build.VERSION.SDK_INT >= 21) {
+            sBitmapCache.resize(maxSize);
+        } else {
+            sBitmapCache.trimToSize(maxSize);
+        }
+    }
+
+    /**
+     * 根据内存状态释放缓存，应用也可以在自己的{@link ComponentCallbacks2#onTrimMemory(int)}中调用
+     *
+     * @param level
+     */
+    public static void onTrimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE
+                || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+            clear();
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND
+                || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            sBitmapCache.trimToSize(sBitmapCache.size() / 2);
+        }
+    }
+
+    /**
+     * 清空缓存
+     */
+    public static void clear() {
+        sBitmapCache.evictAll();
+        sStateCache.evictAll();
+    }
+
+    private static synchronized void registerCallbacksIfNeed(Context context) {
+        if (sRegisterCallbacks)
+            return;
+
+        final Context appContext = context.getApplicationContext();
+        if (appContext == null)
+            return;
+
+        sUiMode = appContext.getResources().getConfiguration().uiMode;
+        appContext.registerComponentCallbacks(new ComponentCallbacks2() {
+            @Override
+            public void onTrimMemory(int level) {
+                HDrawableCache.onTrimMemory(level);
+            }
+
+            @Override
+            public void onConfigurationChanged(Configuration newConfig) {
+                // 日夜间模式变化后旧主题的图片不会再用到
+                if (newConfig.uiMode != sUiMode) {
+                    sUiMode = newConfig.uiMode;
+                    clear();
+                }
+            }
+
+            @Override
+            public void onLowMemory() {
+                clear();
+            }
+        });
+        sRegisterCallbacks = true;
+    }
+
+    private static final class Key {
+        private final int resId;
+        private final int width;
+        private final int height;
+        private final boolean checked;
+        private final int density;
+        private final int uiMode;
+
+        Key(int resId, int width, int height, boolean checked, int density, int uiMode) {
+            this.resId = resId;
+            this.width = width;
+            this.height = height;
+            this.checked = checked;
+            this.density = density;
+            this.uiMode = uiMode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof Key))
+                return false;
+
+            final Key other = (Key) obj;
+            return resId == other.resId
+                    && width == other.width
+                    && height == other.height
+                    && checked == other.checked
+                    && density == other.density
+                    && uiMode == other.uiMode;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = resId;
+            result = 31 * result + width;
+            result = 31 * result + height;
+            result = 31 * result + (checked ? 1 : 0);
+            result = 31 * result + density;
+            result = 31 * result + uiMode;
+            return result;
+        }
+    }
+}
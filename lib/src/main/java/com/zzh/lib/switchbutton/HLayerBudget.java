@@ -0,0 +1,62 @@
+package com.zzh.lib.switchbutton;
+
+/**
+ * 硬件层预算，限制同时开启硬件层的开关个数，避免占用过多显存
+ * <br>
+ * 只能在主线程调用
+ */
+public final class HLayerBudget {
+    /**
+     * 默认最多同时开启硬件层的开关个数
+     */
+    public static final int DEFAULT_MAX_COUNT = 4;
+
+    private static int sMaxCount = DEFAULT_MAX_COUNT;
+    private static int sCount;
+
+    private HLayerBudget() {
+    }
+
+    /**
+     * 设置最多同时开启硬件层的开关个数
+     *
+     * @param count 小于等于0表示不允许开启
+     */
+    public static void setMaxCount(int count) {
+        sMaxCount = count;
+    }
+
+    public static int getMaxCount() {
+        return sMaxCount;
+    }
+
+    /**
+     * 返回当前已经开启硬件层的开关个数
+     *
+     * @return
+     */
+    public static int getCount() {
+        return sCount;
+    }
+
+    /**
+     * 申请一个名额
+     *
+     * @return true-申请成功，使用完毕后需要调用{@link #release()}
+     */
+    static boolean tryAcquire() {
+        if (sCount >= sMaxCount)
+            return false;
+
+        sCount++;
+        return true;
+    }
+
+    /**
+     * 释放一个名额
+     */
+    static void release() {
+        if (sCount > 0)
+            sCount--;
+    }
+}
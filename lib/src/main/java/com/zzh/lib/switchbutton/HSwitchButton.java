@@ -4,21 +4,37 @@ import android.content.Context;
 import android.util.AttributeSet;
 import android.util.Log;
 import android.view.MotionEvent;
-import android.view.VelocityTracker;
-import android.view.ViewConfiguration;
 
+import com.zzh.lib.switchbutton.core.HGestureStateMachine;
+import com.zzh.lib.switchbutton.core.HGestureTrace;
+import com.zzh.lib.switchbutton.core.HRetargetScrollerApi;
+import com.zzh.lib.switchbutton.core.HScrollerApi;
+import com.zzh.lib.switchbutton.gesture.HAnimationClock;
+import com.zzh.lib.switchbutton.gesture.HAnimationTicker;
 import com.zzh.lib.switchbutton.gesture.HGestureManager;
+import com.zzh.lib.switchbutton.gesture.HNestedScrollHelper;
+import com.zzh.lib.switchbutton.gesture.HScroller;
 import com.zzh.lib.switchbutton.gesture.HTouchHelper;
 
-import androidx.core.view.ViewCompat;
+import androidx.core.view.NestedScrollingChild3;
 
-public class HSwitchButton extends BaseSwitchButton {
+public class HSwitchButton extends BaseSwitchButton implements NestedScrollingChild3 {
     private HGestureManager mGestureManager;
+    /**
+     * 手势管理对象创建之前设置的滚动实现
+     */
+    private HScrollerApi mScrollerApi;
+    private HGestureTrace mGestureTrace;
+    private final HNestedScrollHelper mNestedScrollHelper = new HNestedScrollHelper(this);
 
     public HSwitchButton(Context context, AttributeSet attrs) {
         super(context, attrs);
     }
 
+    public HSwitchButton(Context context, SwitchStyle style) {
+        super(context, style);
+    }
+
     @Override
     public void setDebug(boolean debug) {
         super.setDebug(debug);
@@ -26,79 +42,140 @@ public class HSwitchButton extends BaseSwitchButton {
             mGestureManager.setDebug(debug);
     }
 
+    /**
+     * 设置滚动动画的实现，例如{@link com.zzh.lib.switchbutton.gesture.HSpringScrollerApi}
+     *
+     * @param scrollerApi null表示使用默认的{@link HRetargetScrollerApi}
+     */
+    public void setScrollerApi(HScrollerApi scrollerApi) {
+        mScrollerApi = scrollerApi;
+        if (mGestureManager != null)
+            mGestureManager.getScroller().setScrollerApi(getScrollerApi());
+    }
+
+    private HScrollerApi getScrollerApi() {
+        if (mScrollerApi != null)
+            return mScrollerApi;
+        return new HRetargetScrollerApi(getResources().getDisplayMetrics().density, HAnimationClock.INSTANCE);
+    }
+
+    /**
+     * 恢复到样式的默认值，同时恢复默认的滚动实现，停止记录手势，开启嵌套滚动
+     *
+     * @see BaseSwitchButton#resetToStyle()
+     */
+    @Override
+    public void resetToStyle() {
+        super.resetToStyle();
+        setScrollerApi(null);
+        stopGestureTrace();
+        setNestedScrollingEnabled(true);
+    }
+
+    /**
+     * 开始记录手势，需要在布局完成之后调用，记录的尺寸参数和当前状态用于{@link com.zzh.lib.switchbutton.core.HGestureReplayer}重放
+     * <br>
+     * 只能在主线程调用
+     *
+     * @return 记录对象
+     */
+    public HGestureTrace startGestureTrace() {
+        final HGestureTrace trace = getGestureManager().newGestureTrace(isChecked(), getLeftNormal(), getLeftChecked(),
+                getViewThumb().getWidth());
+
+        mGestureTrace = trace;
+        mGestureManager.setGestureTrace(trace);
+        return trace;
+    }
+
+    /**
+     * 停止记录手势
+     *
+     * @return 记录对象，没有开始记录返回null
+     */
+    public HGestureTrace stopGestureTrace() {
+        final HGestureTrace trace = mGestureTrace;
+        mGestureTrace = null;
+        if (mGestureManager != null)
+            mGestureManager.setGestureTrace(null);
+        return trace;
+    }
+
+    /**
+     * 返回手势管理对象，只能在主线程调用，attach或者开始记录手势之前不会创建
+     *
+     * @return
+     */
     private HGestureManager getGestureManager() {
         if (mGestureManager == null) {
             mGestureManager = new HGestureManager(this, new HGestureManager.Callback() {
                 @Override
-                public boolean shouldInterceptEvent(MotionEvent event) {
-                    boolean shouldInterceptEvent = false;
-                    if (event.getAction() == MotionEvent.ACTION_DOWN) {
-                        if (HTouchHelper.isViewUnder(getViewThumb(), (int) event.getX(), (int) event.getY()))
-                            shouldInterceptEvent = true;
-                    } else {
-                        shouldInterceptEvent = canPull();
-                    }
+                public boolean isChecked() {
+                    return HSwitchButton.this.isChecked();
+                }
 
-                    if (mIsDebug)
-                        Log.i(getDebugTag(), "shouldInterceptEvent:" + shouldInterceptEvent);
+                @Override
+                public boolean isThumbUnder(float x, float y) {
+                    return HSwitchButton.this.isThumbUnder((int) x, (int) y);
+                }
 
-                    return shouldInterceptEvent;
+                @Override
+                public float getThumbLeft() {
+                    return HSwitchButton.this.getThumbLeft();
                 }
 
                 @Override
-                public boolean shouldConsumeEvent(MotionEvent event) {
-                    final boolean shouldConsumeEvent = mGestureManager.getTagHolder().isTagIntercept() || canPull();
-                    if (mIsDebug)
-                        Log.i(getDebugTag(), "shouldConsumeEvent:" + shouldConsumeEvent);
+                public int getLeftNormal() {
+                    return HSwitchButton.this.getLeftNormal();
+                }
 
-                    return shouldConsumeEvent;
+                @Override
+                public int getLeftChecked() {
+                    return HSwitchButton.this.getLeftChecked();
                 }
 
                 @Override
-                public void onEventConsume(MotionEvent event) {
-                    final int dx = (int) getGestureManager().getTouchHelper().getDeltaX();
+                public void onDrag(float dx) {
                     moveView(dx);
                 }
 
                 @Override
-                public void onEventFinish(VelocityTracker velocityTracker, MotionEvent event) {
-                    if (mGestureManager.getLifecycleInfo().isCancelConsumeEvent())
-                        return;
+                public void onClick() {
+                    toggleChecked(mStyle.isNeedToggleAnim(), true);
+                }
 
-                    if (getGestureManager().getTouchHelper().isClick(event, getContext())) {
-                        toggleChecked(mAttrModel.isNeedToggleAnim(), true);
-                        return;
-                    }
+                @Override
+                public void onRelease(boolean checked, float velocity) {
+                    if (mIsDebug)
+                        Log.e(getDebugTag(), "onConsumeEventFinish checked:" + checked);
+
+                    settleChecked(checked, velocity);
+                }
 
-                    if (mGestureManager.getLifecycleInfo().hasConsumeEvent()) {
-                        velocityTracker.computeCurrentVelocity(1000);
-                        final int velocity = (int) velocityTracker.getXVelocity();
-                        final int minFlingVelocity = ViewConfiguration.get(getContext()).getScaledMinimumFlingVelocity() * 8;
+                @Override
+                public void onTagInterceptChanged(boolean tag) {
+                    if (mIsDebug)
+                        Log.i(getDebugTag(), "shouldInterceptEvent:" + tag);
 
-                        boolean checked = false;
-                        if (Math.abs(velocity) > minFlingVelocity) {
-                            checked = velocity > 0;
-                        } else {
-                            final int leftMiddle = (getLeftNormal() + getLeftChecked()) / 2;
-                            checked = getViewThumb().getLeft() >= leftMiddle;
-                        }
+                    HTouchHelper.requestDisallowInterceptTouchEvent(HSwitchButton.this, tag);
+                }
 
-                        if (mIsDebug)
-                            Log.e(getDebugTag(), "onConsumeEventFinish checked:" + checked);
+                @Override
+                public void onTagConsumeChanged(boolean tag) {
+                    if (mIsDebug)
+                        Log.i(getDebugTag(), "shouldConsumeEvent:" + tag);
 
-                        setChecked(checked, true, true);
-                    }
+                    HTouchHelper.requestDisallowInterceptTouchEvent(HSwitchButton.this, tag);
                 }
 
                 @Override
-                public void onStateChanged(HGestureManager.State oldState, HGestureManager.State newState) {
+                public void onStateChanged(HGestureStateMachine.State oldState, HGestureStateMachine.State newState) {
                     switch (newState) {
                         case Consume:
                             setScrollState(ScrollState.Drag);
                             break;
                         case Fling:
                             setScrollState(ScrollState.Fling);
-                            ViewCompat.postInvalidateOnAnimation(HSwitchButton.this);
                             break;
                         case Idle:
                             setScrollState(ScrollState.Idle);
@@ -113,61 +190,83 @@ public class HSwitchButton extends BaseSwitchButton {
                 }
             });
             mGestureManager.setDebug(mIsDebug);
-            mGestureManager.getTagHolder().setCallback(new HGestureManager.TagHolder.Callback() {
-                @Override
-                public void onTagInterceptChanged(boolean tag) {
-                    HTouchHelper.requestDisallowInterceptTouchEvent(HSwitchButton.this, tag);
-                }
-
-                @Override
-                public void onTagConsumeChanged(boolean tag) {
-                    HTouchHelper.requestDisallowInterceptTouchEvent(HSwitchButton.this, tag);
-                }
-            });
+            mGestureManager.setGestureTrace(mGestureTrace);
+            mGestureManager.getScroller().setScrollerApi(getScrollerApi());
+            mGestureManager.getScroller().setAnimationTicker(HAnimationTicker.getInstance());
+            mGestureManager.getScroller().setMaxScrollDistance(getAvailableWidth());
         }
         return mGestureManager;
     }
 
     @Override
     public boolean setChecked(boolean checked, boolean anim, boolean notifyCallback) {
-        getGestureManager().cancelConsumeEvent();
-        return super.setChecked(checked, anim, notifyCallback);
+        final HGestureManager gestureManager = mGestureManager;
+        if (gestureManager == null)
+            return super.setChecked(checked, anim, notifyCallback);
+
+        gestureManager.beginTransaction();
+        try {
+            gestureManager.cancelConsumeEvent();
+            return super.setChecked(checked, anim, notifyCallback);
+        } finally {
+            gestureManager.endTransaction();
+        }
+    }
+
+    @Override
+    protected void stopGesture() {
+        if (mGestureManager == null)
+            return;
+
+        mGestureManager.cancelConsumeEvent();
+        mGestureManager.getScroller().abortAnimation();
     }
 
     @Override
     protected boolean isViewIdle() {
-        return getGestureManager().getState() == HGestureManager.State.Idle;
+        if (isPropertyAnimating())
+            return false;
+        return mGestureManager == null || mGestureManager.getState() == HGestureStateMachine.State.Idle;
     }
 
     @Override
     protected void abortAnimation() {
-        getGestureManager().getScroller().abortAnimation();
+        if (mGestureManager != null)
+            mGestureManager.getScroller().abortAnimation();
     }
 
     @Override
-    protected boolean smoothScroll(int startLeft, int endLeft) {
-        return getGestureManager().getScroller().scrollToX(startLeft, endLeft, -1);
+    protected boolean retargetScroll(int endLeft) {
+        if (mGestureManager == null)
+            return false;
+        return mGestureManager.getScroller().retargetX(endLeft, -1);
     }
 
-    private boolean canPull() {
-        final float deltaX = getGestureManager().getTouchHelper().getDeltaXFromDown();
-        if (deltaX == 0)
+    @Override
+    protected boolean smoothScroll(int startLeft, int endLeft) {
+        if (mGestureManager == null)
             return false;
+        return mGestureManager.getScroller().scrollToX(startLeft, endLeft, -1);
+    }
 
-        final boolean checkDegreeX = getGestureManager().getTouchHelper().getDegreeXFromDown() < 30;
-        if (!checkDegreeX)
+    @Override
+    protected boolean smoothScroll(int startLeft, int endLeft, float velocity) {
+        if (mGestureManager == null)
             return false;
-
-        final boolean checkMoveLeft = isChecked() && deltaX < 0;
-        final boolean checkMoveRight = !isChecked() && deltaX > 0;
-
-        return checkMoveLeft || checkMoveRight;
+        return mGestureManager.getScroller().settleX(startLeft, endLeft, velocity);
     }
 
     @Override
     protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
         super.onLayout(changed, left, top, right, bottom);
-        getGestureManager().getScroller().setMaxScrollDistance(getAvailableWidth());
+        if (mGestureManager != null)
+            mGestureManager.getScroller().setMaxScrollDistance(getAvailableWidth());
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        getGestureManager();
     }
 
     @Override
@@ -177,13 +276,106 @@ public class HSwitchButton extends BaseSwitchButton {
 
     @Override
     public boolean onTouchEvent(MotionEvent event) {
-        return getGestureManager().onTouchEvent(event);
+        final HGestureManager gestureManager = getGestureManager();
+        mNestedScrollHelper.onPreTouchEvent(event, gestureManager);
+
+        final float thumbLeft = getThumbLeft();
+        final boolean result = gestureManager.onTouchEvent(event);
+        mNestedScrollHelper.onTouchEvent(event, gestureManager, getThumbLeft() - thumbLeft);
+        return result;
+    }
+
+    @Override
+    public boolean canScrollHorizontally(int direction) {
+        if (direction < 0)
+            return getThumbLeft() < getLeftChecked();
+        if (direction > 0)
+            return getThumbLeft() > getLeftNormal();
+        return false;
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        mNestedScrollHelper.getChildHelper().onDetachedFromWindow();
+    }
+
+    //----------NestedScrollingChild3 implements start----------
+
+    @Override
+    public void setNestedScrollingEnabled(boolean enabled) {
+        mNestedScrollHelper.getChildHelper().setNestedScrollingEnabled(enabled);
+    }
+
+    @Override
+    public boolean isNestedScrollingEnabled() {
+        return mNestedScrollHelper.getChildHelper().isNestedScrollingEnabled();
+    }
+
+    @Override
+    public boolean startNestedScroll(int axes) {
+        return mNestedScrollHelper.getChildHelper().startNestedScroll(axes);
+    }
+
+    @Override
+    public boolean startNestedScroll(int axes, int type) {
+        return mNestedScrollHelper.getChildHelper().startNestedScroll(axes, type);
+    }
+
+    @Override
+    public void stopNestedScroll() {
+        mNestedScrollHelper.getChildHelper().stopNestedScroll();
+    }
+
+    @Override
+    public void stopNestedScroll(int type) {
+        mNestedScrollHelper.getChildHelper().stopNestedScroll(type);
+    }
+
+    @Override
+    public boolean hasNestedScrollingParent() {
+        return mNestedScrollHelper.getChildHelper().hasNestedScrollingParent();
+    }
+
+    @Override
+    public boolean hasNestedScrollingParent(int type) {
+        return mNestedScrollHelper.getChildHelper().hasNestedScrollingParent(type);
+    }
+
+    @Override
+    public boolean dispatchNestedScroll(int dxConsumed, int dyConsumed, int dxUnconsumed, int dyUnconsumed, int[] offsetInWindow) {
+        return mNestedScrollHelper.getChildHelper().dispatchNestedScroll(dxConsumed, dyConsumed, dxUnconsumed, dyUnconsumed, offsetInWindow);
+    }
+
+    @Override
+    public boolean dispatchNestedScroll(int dxConsumed, int dyConsumed, int dxUnconsumed, int dyUnconsumed, int[] offsetInWindow, int type) {
+        return mNestedScrollHelper.getChildHelper().dispatchNestedScroll(dxConsumed, dyConsumed, dxUnconsumed, dyUnconsumed, offsetInWindow, type);
+    }
+
+    @Override
+    public void dispatchNestedScroll(int dxConsumed, int dyConsumed, int dxUnconsumed, int dyUnconsumed, int[] offsetInWindow, int type, int[] consumed) {
+        mNestedScrollHelper.getChildHelper().dispatchNestedScroll(dxConsumed, dyConsumed, dxUnconsumed, dyUnconsumed, offsetInWindow, type, consumed);
+    }
+
+    @Override
+    public boolean dispatchNestedPreScroll(int dx, int dy, int[] consumed, int[] offsetInWindow) {
+        return mNestedScrollHelper.getChildHelper().dispatchNestedPreScroll(dx, dy, consumed, offsetInWindow);
     }
 
     @Override
-    public void computeScroll() {
-        super.computeScroll();
-        if (getGestureManager().getScroller().computeScrollOffset())
-            ViewCompat.postInvalidateOnAnimation(this);
+    public boolean dispatchNestedPreScroll(int dx, int dy, int[] consumed, int[] offsetInWindow, int type) {
+        return mNestedScrollHelper.getChildHelper().dispatchNestedPreScroll(dx, dy, consumed, offsetInWindow, type);
     }
+
+    @Override
+    public boolean dispatchNestedFling(float velocityX, float velocityY, boolean consumed) {
+        return mNestedScrollHelper.getChildHelper().dispatchNestedFling(velocityX, velocityY, consumed);
+    }
+
+    @Override
+    public boolean dispatchNestedPreFling(float velocityX, float velocityY) {
+        return mNestedScrollHelper.getChildHelper().dispatchNestedPreFling(velocityX, velocityY);
+    }
+
+    //----------NestedScrollingChild3 implements end----------
 }
@@ -0,0 +1,16 @@
+package com.zzh.lib.switchbutton;
+
+import android.content.Context;
+import android.view.View;
+
+class HTrackView extends View {
+    public HTrackView(Context context) {
+        super(context);
+    }
+
+    @Override
+    public boolean hasOverlappingRendering() {
+        // 只绘制背景，改变透明度的时候不需要离屏缓冲
+        return false;
+    }
+}
@@ -29,7 +29,10 @@ public interface SwitchButton {
     void toggleChecked(boolean anim, boolean notifyCallback);
 
     /**
-     * 设置选中变化回调
+     * 设置选中变化回调，只保存一个回调
+     * <br>
+     * {@link SwitchButtonGroup}，{@link SwitchStateStore}，{@link SwitchPersistence#bind(SwitchButton, String, boolean)}会接管这个回调，
+     * 同一个开关只能使用其中一个；需要同时监听的时候使用它们提供的回调，例如{@link SwitchPersistence.Binding#setOnCheckedChangeCallback(OnCheckedChangeCallback)}
      *
      * @param callback
      */
@@ -0,0 +1,71 @@
+package com.zzh.lib.switchbutton;
+
+import java.util.List;
+
+/**
+ * 列表绑定开关状态的工具类
+ * <br>
+ * 只有选中状态变化的时候可以调用notifyItemChanged(position, {@link #PAYLOAD_CHECKED})，
+ * 然后在onBindViewHolder(holder, position, payloads)中调用{@link #bind(SwitchButton, boolean, List)}
+ */
+public final class SwitchButtonBinder {
+    /**
+     * 表示只有选中状态变化的payload
+     */
+    public static final Object PAYLOAD_CHECKED = new Object();
+
+    private SwitchButtonBinder() {
+    }
+
+    /**
+     * 绑定选中状态
+     * <br>
+     * payloads包含{@link #PAYLOAD_CHECKED}的时候认为是局部刷新，带动画切换状态；
+     * 否则认为是完整绑定，调用{@link #bindChecked(SwitchButton, boolean)}
+     *
+     * @param button
+     * @param checked
+     * @param payloads onBindViewHolder的payloads，可以为null
+     */
+    public static void bind(SwitchButton button, boolean checked, List<?> payloads) {
+        if (isCheckedPayload(payloads)) {
+            button.setChecked(checked, true, false);
+        } else {
+            bindChecked(button, checked);
+        }
+    }
+
+    /**
+     * 完整绑定选中状态，不执行动画，不通知选中回调
+     * <br>
+     * {@link BindableSwitchButton}调用{@link BindableSwitchButton#bindChecked(boolean)}，
+     * 其他实现调用{@link SwitchButton#setChecked(boolean, boolean, boolean)}
+     *
+     * @param button
+     * @param checked
+     */
+    public static void bindChecked(SwitchButton button, boolean checked) {
+        if (button instanceof BindableSwitchButton) {
+            ((BindableSwitchButton) button).bindChecked(checked);
+        } else {
+            button.setChecked(checked, false, false);
+        }
+    }
+
+    /**
+     * payloads是否包含{@link #PAYLOAD_CHECKED}
+     *
+     * @param payloads
+     * @return
+     */
+    public static boolean isCheckedPayload(List<?> payloads) {
+        if (payloads == null || payloads.isEmpty())
+            return false;
+
+        for (Object item : payloads) {
+            if (item == PAYLOAD_CHECKED)
+                return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,360 @@
+package com.zzh.lib.switchbutton;
+
+import android.graphics.Rect;
+import android.view.View;
+
+import com.zzh.lib.switchbutton.gesture.HVisibilityHelper;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 开关分组，批量设置成员的选中状态，只回调一次汇总的变化
+ * <br>
+ * 加入分组后，成员的{@link SwitchButton.OnCheckedChangeCallback}由分组接管，请使用{@link #setOnGroupCheckedChangeCallback(OnGroupCheckedChangeCallback)}，
+ * 成员不能再使用{@link SwitchStateStore}，{@link SwitchPersistence#bind(SwitchButton, String, boolean)}或者{@link SwitchCheckedCoalescer}
+ * <br>
+ * 只能在主线程使用
+ */
+public class SwitchButtonGroup {
+    private final List<Member> mMembers = new ArrayList<>();
+    private final Map<SwitchButton, Member> mMapMember = new IdentityHashMap<>();
+
+    /**
+     * 是否单选模式
+     */
+    private boolean mExclusive;
+    /**
+     * 单选模式下选中的位置
+     */
+    private int mCheckedIndex = -1;
+
+    /**
+     * 是否正在批量设置状态
+     */
+    private boolean mIsApplying;
+    private final BitSet mChanged = new BitSet();
+    private final Rect mVisibleRect = new Rect();
+
+    private OnGroupCheckedChangeCallback mOnGroupCheckedChangeCallback;
+
+    /**
+     * 设置分组选中状态变化回调
+     *
+     * @param callback
+     */
+    public void setOnGroupCheckedChangeCallback(OnGroupCheckedChangeCallback callback) {
+        mOnGroupCheckedChangeCallback = callback;
+    }
+
+    /**
+     * 添加成员
+     *
+     * @param button
+     * @return 成员的位置
+     */
+    public int add(SwitchButton button) {
+        if (button == null)
+            throw new NullPointerException();
+
+        final Member old = mMapMember.get(button);
+        if (old != null)
+            return old.mIndex;
+
+        final Member member = new Member(button, mMembers.size());
+        mMembers.add(member);
+        mMapMember.put(button, member);
+        button.setOnCheckedChangeCallback(member);
+
+        if (mExclusive && button.isChecked()) {
+            if (mCheckedIndex < 0) {
+                mCheckedIndex = member.mIndex;
+            } else {
+                button.setChecked(false, false, false);
+            }
+        }
+        return member.mIndex;
+    }
+
+    /**
+     * 移除所有成员
+     */
+    public void clear() {
+        for (Member item : mMembers) {
+            item.mButton.setOnCheckedChangeCallback(null);
+        }
+        mMembers.clear();
+        mMapMember.clear();
+        mCheckedIndex = -1;
+    }
+
+    public int size() {
+        return mMembers.size();
+    }
+
+    public SwitchButton get(int index) {
+        return mMembers.get(index).mButton;
+    }
+
+    /**
+     * 返回成员的位置
+     *
+     * @param button
+     * @return -1表示不是成员
+     */
+    public int indexOf(SwitchButton button) {
+        final Member member = mMapMember.get(button);
+        return member == null ? -1 : member.mIndex;
+    }
+
+    /**
+     * 设置是否单选模式，单选模式下选中一个成员只会取消之前选中的那一个成员
+     *
+     * @param exclusive
+     */
+    public void setExclusive(boolean exclusive) {
+        if (mExclusive == exclusive)
+            return;
+
+        mExclusive = exclusive;
+        mCheckedIndex = -1;
+
+        if (exclusive) {
+            // 只保留第一个选中的成员
+            int index = -1;
+            beginApply();
+            final int size = mMembers.size();
+            for (int i = 0; i < size; i++) {
+                if (!mMembers.get(i).mButton.isChecked())
+                    continue;
+
+                if (index < 0)
+                    index = i;
+                else
+                    applyState(i, false, false);
+            }
+            mCheckedIndex = index;
+            endApply();
+        }
+    }
+
+    public boolean isExclusive() {
+        return mExclusive;
+    }
+
+    /**
+     * 单选模式下返回选中的位置
+     *
+     * @return -1表示没有选中
+     */
+    public int getCheckedIndex() {
+        return mCheckedIndex;
+    }
+
+    /**
+     * 单选模式下设置选中的位置
+     *
+     * @param index -1表示都不选中
+     * @param anim  可见的成员是否需要动画
+     * @throws IndexOutOfBoundsException index小于-1或者不小于{@link #size()}
+     */
+    public void setCheckedIndex(int index, boolean anim) {
+        if (!mExclusive)
+            throw new IllegalStateException("group is not exclusive");
+        // 先检查位置，避免取消了之前的选中之后才抛异常
+        if (index < -1 || index >= mMembers.size())
+            throw new IndexOutOfBoundsException("index:" + index + " size:" + mMembers.size());
+
+        if (index == mCheckedIndex)
+            return;
+
+        final int old = mCheckedIndex;
+        beginApply();
+        if (old >= 0)
+            applyState(old, false, anim);
+        if (index >= 0)
+            applyState(index, true, anim);
+        mCheckedIndex = index;
+        endApply();
+    }
+
+    /**
+     * 返回所有成员的选中状态
+     *
+     * @return
+     */
+    public BitSet getCheckedStates() {
+        final BitSet states = new BitSet(mMembers.size());
+        for (Member item : mMembers) {
+            if (item.mButton.isChecked())
+                states.set(item.mIndex);
+        }
+        return states;
+    }
+
+    /**
+     * 批量设置所有成员的选中状态，可见的成员一起执行动画，不可见的成员直接设置，结束后只回调一次
+     * <br>
+     * 单选模式下只有最小的那个位置会被选中
+     *
+     * @param states 第n位表示第n个成员的状态
+     * @param anim   可见的成员是否需要动画
+     */
+    public void setCheckedStates(BitSet states, boolean anim) {
+        if (mExclusive) {
+            // 和非单选模式一样忽略超出成员个数的位
+            final int index = states.nextSetBit(0);
+            setCheckedIndex(index < mMembers.size() ? index : -1, anim);
+            return;
+        }
+
+        beginApply();
+        final int size = mMembers.size();
+        for (int i = 0; i < size; i++) {
+            applyState(i, states.get(i), anim);
+        }
+        endApply();
+    }
+
+    /**
+     * 批量设置部分成员的选中状态，可见的成员一起执行动画，不可见的成员直接设置，结束后只回调一次
+     * <br>
+     * 单选模式下选中最小的那个为true的位置，没有true并且当前选中的成员为false的时候取消选中
+     *
+     * @param states 成员 -> 状态，不是成员的开关会被忽略
+     * @param anim   可见的成员是否需要动画
+     */
+    public void setCheckedStates(Map<SwitchButton, Boolean> states, boolean anim) {
+        if (mExclusive) {
+            int index = -1;
+            boolean clearChecked = false;
+            for (Map.Entry<SwitchButton, Boolean> item : states.entrySet()) {
+                final Member member = mMapMember.get(item.getKey());
+                if (member == null)
+                    continue;
+
+                if (Boolean.TRUE.equals(item.getValue())) {
+                    if (index < 0 || member.mIndex < index)
+                        index = member.mIndex;
+                } else if (Boolean.FALSE.equals(item.getValue()) && member.mIndex == mCheckedIndex) {
+                    clearChecked = true;
+                }
+            }
+            if (index >= 0)
+                setCheckedIndex(index, anim);
+            else if (clearChecked)
+                setCheckedIndex(-1, anim);
+            return;
+        }
+
+        beginApply();
+        for (Map.Entry<SwitchButton, Boolean> item : states.entrySet()) {
+            final Member member = mMapMember.get(item.getKey());
+            if (member != null && item.getValue() != null)
+                applyState(member.mIndex, item.getValue(), anim);
+        }
+        endApply();
+    }
+
+    private void beginApply() {
+        mIsApplying = true;
+        mChanged.clear();
+    }
+
+    private void applyState(int index, boolean checked, boolean anim) {
+        final SwitchButton button = mMembers.get(index).mButton;
+        if (button.isChecked() == checked)
+            return;
+
+        final boolean changed = button.setChecked(checked, anim && isVisibleOnScreen(button), false);
+        if (changed)
+            mChanged.set(index);
+    }
+
+    private void endApply() {
+        mIsApplying = false;
+        if (mChanged.isEmpty())
+            return;
+
+        final BitSet changed = (BitSet) mChanged.clone();
+        mChanged.clear();
+        notifyGroupCheckedChanged(changed);
+    }
+
+    private void notifyGroupCheckedChanged(BitSet changed) {
+        if (mOnGroupCheckedChangeCallback != null)
+            mOnGroupCheckedChangeCallback.onGroupCheckedChanged(changed, this);
+    }
+
+    /**
+     * 成员是否在屏幕上可见
+     *
+     * @param button
+     * @return
+     */
+    private boolean isVisibleOnScreen(SwitchButton button) {
+        if (!(button instanceof View))
+            return true;
+
+        final View view = (View) button;
+        return HVisibilityHelper.isVisibleOnScreen(view, mVisibleRect);
+    }
+
+    /**
+     * 成员自己的状态变化(例如用户点击)
+     *
+     * @param member
+     * @param checked
+     */
+    private void onMemberCheckedChanged(Member member, boolean checked) {
+        if (mIsApplying)
+            return;
+
+        final BitSet changed = new BitSet(mMembers.size());
+        changed.set(member.mIndex);
+
+        if (mExclusive) {
+            if (checked) {
+                final int old = mCheckedIndex;
+                mCheckedIndex = member.mIndex;
+                if (old >= 0 && old != member.mIndex) {
+                    final SwitchButton button = mMembers.get(old).mButton;
+                    if (button.setChecked(false, isVisibleOnScreen(button), false))
+                        changed.set(old);
+                }
+            } else if (mCheckedIndex == member.mIndex) {
+                mCheckedIndex = -1;
+            }
+        }
+
+        notifyGroupCheckedChanged(changed);
+    }
+
+    private final class Member implements SwitchButton.OnCheckedChangeCallback {
+        private final SwitchButton mButton;
+        private final int mIndex;
+
+        Member(SwitchButton button, int index) {
+            mButton = button;
+            mIndex = index;
+        }
+
+        @Override
+        public void onCheckedChanged(boolean checked, SwitchButton switchButton) {
+            onMemberCheckedChanged(this, checked);
+        }
+    }
+
+    public interface OnGroupCheckedChangeCallback {
+        /**
+         * 分组选中状态变化回调，一次批量设置只回调一次
+         *
+         * @param changed 状态发生变化的成员位置
+         * @param group
+         */
+        void onGroupCheckedChanged(BitSet changed, SwitchButtonGroup group);
+    }
+}
@@ -0,0 +1,276 @@
+package com.zzh.lib.switchbutton;
+
+import android.content.Context;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 开关对象池，主线程空闲的时候预先创建开关，列表创建ViewHolder的时候直接取出使用
+ * <br>
+ * 例如在RecyclerView.Adapter#onCreateViewHolder中调用{@link #obtain(ViewGroup)}
+ * <br>
+ * 回收和取出的时候库里的开关会恢复到样式的默认值(包括选中状态)，见{@link BaseSwitchButton#resetToStyle()}
+ * <br>
+ * 只能在主线程使用，页面销毁的时候需要调用{@link #clear()}
+ *
+ * @param <T>
+ */
+public class SwitchButtonPool<T extends View & SwitchButton> {
+    private static final String TAG = SwitchButtonPool.class.getSimpleName();
+
+    /**
+     * 默认最多缓存的个数
+     */
+    public static final int DEFAULT_MAX_SIZE = 32;
+
+    private final Context mContext;
+    private final Factory<T> mFactory;
+    private final List<T> mPool = new ArrayList<>();
+
+    private int mMaxSize = DEFAULT_MAX_SIZE;
+    /**
+     * 预创建的目标个数
+     */
+    private int mPrewarmCount;
+    private PrewarmIdleHandler mIdleHandler;
+
+    private boolean mIsDebug;
+
+    /**
+     * @param context 创建开关使用的context，一般为Activity
+     * @param factory 创建开关的工厂
+     */
+    public SwitchButtonPool(Context context, Factory<T> factory) {
+        if (context == null || factory == null)
+            throw new NullPointerException();
+
+        mContext = context;
+        mFactory = factory;
+    }
+
+    /**
+     * 创建使用{@link HSwitchButton}的对象池
+     *
+     * @param context
+     * @param style   所有开关共享的样式
+     * @return
+     */
+    public static SwitchButtonPool<HSwitchButton> ofSwitchButton(Context context, final SwitchStyle style) {
+        if (style == null)
+            throw new NullPointerException();
+
+        return new SwitchButtonPool<>(context, new Factory<HSwitchButton>() {
+            @Override
+            public HSwitchButton create(Context context) {
+                return new HSwitchButton(context, style);
+            }
+        });
+    }
+
+    /**
+     * 创建使用{@link HCanvasSwitchButton}的对象池
+     *
+     * @param context
+     * @param style   所有开关共享的样式
+     * @return
+     */
+    public static SwitchButtonPool<HCanvasSwitchButton> ofCanvasSwitchButton(Context context, final SwitchStyle style) {
+        if (style == null)
+            throw new NullPointerException();
+
+        return new SwitchButtonPool<>(context, new Factory<HCanvasSwitchButton>() {
+            @Override
+            public HCanvasSwitchButton create(Context context) {
+                return new HCanvasSwitchButton(context, style);
+            }
+        });
+    }
+
+    public void setDebug(boolean debug) {
+        mIsDebug = debug;
+    }
+
+    /**
+     * 设置最多缓存的个数，超过的部分会被丢弃
+     *
+     * @param maxSize
+     */
+    public void setMaxSize(int maxSize) {
+        mMaxSize = Math.max(0, maxSize);
+        while (mPool.size() > mMaxSize) {
+            mPool.remove(mPool.size() - 1);
+        }
+        if (mPrewarmCount > mMaxSize)
+            mPrewarmCount = mMaxSize;
+    }
+
+    public int getMaxSize() {
+        return mMaxSize;
+    }
+
+    /**
+     * 返回当前缓存的个数
+     *
+     * @return
+     */
+    public int size() {
+        return mPool.size();
+    }
+
+    /**
+     * 在主线程空闲的时候预创建开关，每次空闲只创建一个，不会长时间阻塞主线程
+     *
+     * @param count 缓存达到的个数，不超过{@link #getMaxSize()}
+     */
+    public void prewarm(int count) {
+        checkMainThread();
+
+        mPrewarmCount = Math.min(count, mMaxSize);
+        if (mPool.size() >= mPrewarmCount)
+            return;
+
+        if (mIdleHandler == null) {
+            mIdleHandler = new PrewarmIdleHandler();
+            Looper.myQueue().addIdleHandler(mIdleHandler);
+        }
+    }
+
+    /**
+     * 取出一个开关，缓存为空的时候直接创建
+     *
+     * @return
+     */
+    public T obtain() {
+        checkMainThread();
+
+        final int size = mPool.size();
+        if (size > 0) {
+            final T button = mPool.remove(size - 1);
+            if (mIsDebug)
+                Log.i(TAG, "obtain from pool, remain:" + mPool.size());
+
+            resetState(button);
+            return button;
+        }
+
+        if (mIsDebug)
+            Log.i(TAG, "obtain create");
+
+        return mFactory.create(mContext);
+    }
+
+    /**
+     * 给列表的onCreateViewHolder使用，parent的context和对象池的context不一样时直接用parent的context创建
+     *
+     * @param parent
+     * @return
+     */
+    public T obtain(ViewGroup parent) {
+        if (parent != null && parent.getContext() != mContext)
+            return mFactory.create(parent.getContext());
+
+        return obtain();
+    }
+
+    /**
+     * 回收开关，开关必须已经从父布局中移除
+     *
+     * @param button
+     * @return true-回收成功
+     */
+    public boolean recycle(T button) {
+        checkMainThread();
+
+        if (button == null)
+            return false;
+
+        if (button.getParent() != null)
+            throw new IllegalArgumentException("button must be removed from parent before recycle");
+
+        if (button.getContext() != mContext)
+            return false;
+
+        if (mPool.size() >= mMaxSize || mPool.contains(button))
+            return false;
+
+        resetState(button);
+        mPool.add(button);
+        return true;
+    }
+
+    /**
+     * 清空缓存并停止预创建
+     */
+    public void clear() {
+        checkMainThread();
+
+        mPool.clear();
+        mPrewarmCount = 0;
+        if (mIdleHandler != null) {
+            Looper.myQueue().removeIdleHandler(mIdleHandler);
+            mIdleHandler = null;
+        }
+    }
+
+    /**
+     * 重置开关的状态
+     * <br>
+     * {@link BaseSwitchButton}和{@link HCanvasSwitchButton}调用resetToStyle()，所有配置和选中状态恢复到样式的默认值；
+     * 其他实现只停止拖动和滚动，手柄放到当前选中状态对应的位置，清空回调，选中状态和其他配置不会重置
+     *
+     * @param button
+     */
+    private static void resetState(SwitchButton button) {
+        if (button instanceof BaseSwitchButton) {
+            ((BaseSwitchButton) button).resetToStyle();
+            return;
+        }
+        if (button instanceof HCanvasSwitchButton) {
+            ((HCanvasSwitchButton) button).resetToStyle();
+            return;
+        }
+
+        button.setChecked(button.isChecked(), false, false);
+        button.setOnCheckedChangeCallback(null);
+        button.setOnViewPositionChangeCallback(null);
+        button.setOnScrollStateChangeCallback(null);
+    }
+
+    private static void checkMainThread() {
+        if (Looper.myLooper() != Looper.getMainLooper())
+            throw new IllegalStateException("SwitchButtonPool must be used in main thread");
+    }
+
+    private final class PrewarmIdleHandler implements MessageQueue.IdleHandler {
+        @Override
+        public boolean queueIdle() {
+            if (mPool.size() < mPrewarmCount)
+                mPool.add(mFactory.create(mContext));
+
+            if (mPool.size() < mPrewarmCount)
+                return true;
+
+            if (mIsDebug)
+                Log.i(TAG, "prewarm finish size:" + mPool.size());
+
+            mIdleHandler = null;
+            return false;
+        }
+    }
+
+    public interface Factory<T extends View & SwitchButton> {
+        /**
+         * 创建开关
+         *
+         * @param context
+         * @return
+         */
+        T create(Context context);
+    }
+}
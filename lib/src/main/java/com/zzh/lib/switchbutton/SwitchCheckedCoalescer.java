@@ -0,0 +1,172 @@
+package com.zzh.lib.switchbutton;
+
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.view.Choreographer;
+
+/**
+ * 合并连续的选中状态变化，状态停止变化一段时间之后才通知最终状态
+ * <br>
+ * 例如用户连续点击开关，只在最后一次点击之后{@link #getQuietPeriod()}毫秒通知一次；
+ * 如果最终状态和连续变化之前的状态相同，默认不通知
+ * <br>
+ * 用法：button.setOnCheckedChangeCallback(new SwitchCheckedCoalescer(300, callback))，每个开关使用一个对象；
+ * 开关的回调被{@link SwitchStateStore.Binding}或者{@link SwitchPersistence.Binding}接管的时候，设置给它们的setOnCheckedChangeCallback
+ * <br>
+ * 只能在主线程使用，页面销毁之前可以调用{@link #flush()}立即通知未提交的状态，或者调用{@link #cancel()}丢弃
+ */
+public class SwitchCheckedCoalescer implements SwitchButton.OnCheckedChangeCallback {
+    /**
+     * 默认的静默时长(毫秒)
+     */
+    public static final long DEFAULT_QUIET_PERIOD = 300;
+
+    private static final Handler HANDLER = new Handler(Looper.getMainLooper());
+
+    private final SwitchButton.OnCheckedChangeCallback mCallback;
+    private long mQuietPeriod;
+    private boolean mSuppressNoNetChange = true;
+
+    /**
+     * 是否有未提交的状态
+     */
+    private boolean mIsPending;
+    /**
+     * 连续变化之前的状态
+     */
+    private boolean mStartChecked;
+    private boolean mLatestChecked;
+    private SwitchButton mLatestButton;
+    /**
+     * 最后一次变化的时间
+     */
+    private long mLatestTime;
+
+    private final Runnable mCommitRunnable = new Runnable() {
+        @Override
+        public void run() {
+            final long delay = mLatestTime + mQuietPeriod - SystemClock.uptimeMillis();
+            if (delay > 0) {
+                // 等待期间又发生了变化，继续等待剩余的时间
+                HANDLER.postDelayed(this, delay);
+                return;
+            }
+            flush();
+        }
+    };
+    /**
+     * 静默时长为0的时候在下一帧提交
+     */
+    private Choreographer.FrameCallback mFrameCallback;
+
+    public SwitchCheckedCoalescer(SwitchButton.OnCheckedChangeCallback callback) {
+        this(DEFAULT_QUIET_PERIOD, callback);
+    }
+
+    /**
+     * @param quietPeriod 静默时长(毫秒)，0表示合并同一帧内的变化，在下一帧开始的时候通知
+     * @param callback    最终状态的回调
+     */
+    public SwitchCheckedCoalescer(long quietPeriod, SwitchButton.OnCheckedChangeCallback callback) {
+        if (callback == null)
+            throw new NullPointerException();
+
+        setQuietPeriod(quietPeriod);
+        mCallback = callback;
+    }
+
+    public long getQuietPeriod() {
+        return mQuietPeriod;
+    }
+
+    /**
+     * 设置静默时长(毫秒)，0表示在下一帧提交
+     *
+     * @param quietPeriod
+     */
+    public void setQuietPeriod(long quietPeriod) {
+        if (quietPeriod < 0)
+            throw new IllegalArgumentException("quietPeriod < 0");
+        mQuietPeriod = quietPeriod;
+    }
+
+    /**
+     * 设置最终状态和连续变化之前的状态相同的时候是否不通知，默认true
+     *
+     * @param suppress
+     */
+    public void setSuppressNoNetChange(boolean suppress) {
+        mSuppressNoNetChange = suppress;
+    }
+
+    /**
+     * 是否有未提交的状态
+     *
+     * @return
+     */
+    public boolean isPending() {
+        return mIsPending;
+    }
+
+    @Override
+    public void onCheckedChanged(boolean checked, SwitchButton switchButton) {
+        if (!mIsPending) {
+            mIsPending = true;
+            mStartChecked = !checked;
+            scheduleCommit();
+        }
+
+        mLatestChecked = checked;
+        mLatestButton = switchButton;
+        mLatestTime = SystemClock.uptimeMillis();
+    }
+
+    private void scheduleCommit() {
+        if (mQuietPeriod == 0 && Build.VERSION.SDK_INT >= 16) {
+            Choreographer.getInstance().postFrameCallback(getFrameCallback());
+        } else {
+            HANDLER.postDelayed(mCommitRunnable, mQuietPeriod);
+        }
+    }
+
+    private Choreographer.FrameCallback getFrameCallback() {
+        if (mFrameCallback == null) {
+            mFrameCallback = new Choreographer.FrameCallback() {
+                @Override
+                public void doFrame(long frameTimeNanos) {
+                    flush();
+                }
+            };
+        }
+        return mFrameCallback;
+    }
+
+    /**
+     * 立即通知未提交的状态
+     */
+    public void flush() {
+        if (!mIsPending)
+            return;
+
+        final SwitchButton button = mLatestButton;
+        final boolean checked = mLatestChecked;
+        final boolean changed = checked != mStartChecked;
+        cancel();
+
+        if (changed || !mSuppressNoNetChange)
+            mCallback.onCheckedChanged(checked, button);
+    }
+
+    /**
+     * 丢弃未提交的状态
+     */
+    public void cancel() {
+        HANDLER.removeCallbacks(mCommitRunnable);
+        if (mFrameCallback != null)
+            Choreographer.getInstance().removeFrameCallback(mFrameCallback);
+        mIsPending = false;
+        mLatestButton = null;
+    }
+}
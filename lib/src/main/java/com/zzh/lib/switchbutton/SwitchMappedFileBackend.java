@@ -0,0 +1,154 @@
+package com.zzh.lib.switchbutton;
+
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 使用内存映射文件保存开关状态，适合大量状态(例如{@link SwitchStateStore}中的列表状态)
+ * <br>
+ * 每个key对应目录下的一个文件(key需要是合法的文件名)，第n个状态保存在第n/8个字节的第n%8位；
+ * 写入只修改变化的字节，一批写入结束后调用force()
+ */
+public class SwitchMappedFileBackend implements SwitchPersistence.Backend {
+    private static final String TAG = SwitchMappedFileBackend.class.getSimpleName();
+    private static final String SUFFIX = ".flags";
+
+    private final File mDir;
+
+    /**
+     * 写入线程使用，key -> 映射
+     */
+    private final Map<String, MappedByteBuffer> mMapBuffer = new HashMap<>();
+    private final Set<MappedByteBuffer> mDirty = new HashSet<>();
+
+    public SwitchMappedFileBackend(File dir) {
+        if (dir == null)
+            throw new NullPointerException();
+        mDir = dir;
+    }
+
+    private File getFile(String key) {
+        return new File(mDir, key + SUFFIX);
+    }
+
+    private static int getByteCount(int size) {
+        return (size + 7) / 8;
+    }
+
+    @Override
+    public BitSet read(String key, int size) {
+        final File file = getFile(key);
+        if (!file.exists())
+            return null;
+
+        RandomAccessFile raf = null;
+        try {
+            raf = new RandomAccessFile(file, "r");
+            final int length = (int) Math.min(raf.length(), getByteCount(size));
+            final MappedByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, length);
+
+            final BitSet states = new BitSet(size);
+            for (int i = 0; i < length; i++) {
+                final int value = buffer.get(i) & 0xFF;
+                if (value == 0)
+                    continue;
+
+                for (int bit = 0; bit < 8; bit++) {
+                    if ((value & (1 << bit)) != 0) {
+                        final int index = i * 8 + bit;
+                        if (index < size)
+                            states.set(index);
+                    }
+                }
+            }
+            return states;
+        } catch (IOException e) {
+            Log.e(TAG, "read " + key + " failed", e);
+            return null;
+        } finally {
+            closeQuietly(raf);
+        }
+    }
+
+    @Override
+    public void write(String key, BitSet states, int size) {
+        final int byteCount = getByteCount(size);
+        final MappedByteBuffer buffer = getBuffer(key, byteCount);
+        if (buffer == null)
+            return;
+
+        for (int i = 0; i < byteCount; i++) {
+            int value = 0;
+            for (int bit = 0; bit < 8; bit++) {
+                if (states.get(i * 8 + bit))
+                    value |= 1 << bit;
+            }
+
+            if (buffer.get(i) != (byte) value) {
+                buffer.put(i, (byte) value);
+                mDirty.add(buffer);
+            }
+        }
+    }
+
+    private MappedByteBuffer getBuffer(String key, int byteCount) {
+        final MappedByteBuffer old = mMapBuffer.get(key);
+        if (old != null && old.capacity() >= byteCount)
+            return old;
+
+        if (old != null) {
+            // 文件变大，先写入之前的修改再重新映射
+            old.force();
+            mDirty.remove(old);
+        }
+
+        if (!mDir.exists() && !mDir.mkdirs()) {
+            Log.e(TAG, "mkdirs failed:" + mDir);
+            return null;
+        }
+
+        RandomAccessFile raf = null;
+        try {
+            raf = new RandomAccessFile(getFile(key), "rw");
+            if (raf.length() < byteCount)
+                raf.setLength(byteCount);
+
+            // 关闭文件之后映射仍然有效
+            final MappedByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, byteCount);
+            mMapBuffer.put(key, buffer);
+            return buffer;
+        } catch (IOException e) {
+            Log.e(TAG, "map " + key + " failed", e);
+            return null;
+        } finally {
+            closeQuietly(raf);
+        }
+    }
+
+    @Override
+    public void flush() {
+        for (MappedByteBuffer item : mDirty) {
+            item.force();
+        }
+        mDirty.clear();
+    }
+
+    private static void closeQuietly(RandomAccessFile raf) {
+        if (raf == null)
+            return;
+        try {
+            raf.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -0,0 +1,520 @@
+package com.zzh.lib.switchbutton;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 开关状态持久化，把开关或者分组绑定到一个key，状态变化之后自动保存
+ * <br>
+ * 状态保存在内存快照中，绑定的时候直接从快照读取；写入在后台线程批量执行，同一个key只写入最新的状态
+ * <br>
+ * 绑定不会在主线程读取存储：快照中没有的key先按默认值绑定，在后台线程读取完成之后再设置保存的状态(不执行动画，不通知回调)，
+ * 可以提前调用{@link #preload(String, int)}，绑定的时候直接显示保存的状态
+ * <br>
+ * 除{@link #preload(String, int)}和{@link #awaitWrites()}之外只能在主线程调用
+ */
+public class SwitchPersistence {
+    private static final String TAG = SwitchPersistence.class.getSimpleName();
+
+    /**
+     * 所有对象共享的后台线程，执行写入和绑定时的读取
+     */
+    private static ExecutorService sWriteExecutor;
+    private static final Handler MAIN_HANDLER = new Handler(Looper.getMainLooper());
+
+    private final Backend mBackend;
+
+    /**
+     * key -> 状态快照
+     */
+    private final Map<String, Flags> mSnapshot = new HashMap<>();
+    /**
+     * key -> 等待写入的状态
+     */
+    private final Map<String, Flags> mPendingWrites = new LinkedHashMap<>();
+    private boolean mIsWriteScheduled;
+
+    /**
+     * 等待后台读取的绑定，只在主线程访问
+     */
+    private final List<Loader> mLoaders = new ArrayList<>();
+
+    private final Runnable mWriteRunnable = new Runnable() {
+        @Override
+        public void run() {
+            writePending();
+        }
+    };
+
+    public SwitchPersistence(Backend backend) {
+        if (backend == null)
+            throw new NullPointerException();
+        mBackend = backend;
+    }
+
+    private static synchronized ExecutorService getWriteExecutor() {
+        if (sWriteExecutor == null) {
+            sWriteExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    final Thread thread = new Thread(r, TAG);
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return sWriteExecutor;
+    }
+
+    /**
+     * 读取key对应的状态到快照，已经在快照中的key不会重复读取，会阻塞当前线程直到读取完成
+     * <br>
+     * 可以在任意线程调用，建议在子线程调用
+     *
+     * @param key
+     * @param size 状态个数，单个开关为1
+     */
+    public void preload(String key, int size) {
+        getFlags(key, size);
+    }
+
+    /**
+     * 返回快照中key对应的状态，不在快照中的时候同步读取
+     *
+     * @param key
+     * @param size 状态个数，单个开关为1
+     * @return 返回的是副本
+     */
+    public BitSet getCheckedStates(String key, int size) {
+        final Flags flags = getFlags(key, size);
+        synchronized (mSnapshot) {
+            return (BitSet) flags.mStates.clone();
+        }
+    }
+
+    /**
+     * 返回单个开关的状态
+     *
+     * @param key
+     * @param defaultValue 没有保存过的时候返回的值
+     * @return
+     */
+    public boolean isChecked(String key, boolean defaultValue) {
+        final Flags flags = getFlags(key, 1);
+        synchronized (mSnapshot) {
+            return flags.mIsSaved ? flags.mStates.get(0) : defaultValue;
+        }
+    }
+
+    /**
+     * 返回快照中key对应的状态，不读取存储
+     *
+     * @param key
+     * @param size 状态个数
+     * @return 不在快照中或者快照中的状态个数小于size返回null
+     */
+    private Flags peekFlags(String key, int size) {
+        synchronized (mSnapshot) {
+            final Flags flags = mSnapshot.get(key);
+            if (flags != null && flags.mSize >= size)
+                return flags;
+            return null;
+        }
+    }
+
+    private Flags getFlags(String key, int size) {
+        if (key == null)
+            throw new NullPointerException();
+        if (size < 0)
+            throw new IllegalArgumentException("size < 0");
+
+        final Flags cache = peekFlags(key, size);
+        if (cache != null)
+            return cache;
+
+        // 读取不持有锁，读取结束后只保留第一个结果
+        final BitSet states = mBackend.read(key, size);
+        synchronized (mSnapshot) {
+            final Flags flags = mSnapshot.get(key);
+            if (flags != null && flags.mSize >= size)
+                return flags;
+
+            final Flags result;
+            if (flags != null && flags.mIsSaved) {
+                // 快照中较小的状态可能还没有写入，存储中读取的只用来补充多出来的部分
+                result = new Flags(mergeStates(flags, states, size), size, true);
+            } else {
+                result = new Flags(states == null ? new BitSet(size) : states, size, states != null);
+            }
+            mSnapshot.put(key, result);
+            return result;
+        }
+    }
+
+    /**
+     * 合并快照和存储中的状态，[0, flags.mSize)使用快照中的状态
+     *
+     * @param flags  快照中的状态
+     * @param states 存储中的状态，可能为null
+     * @param size   合并后的状态个数
+     * @return
+     */
+    private static BitSet mergeStates(Flags flags, BitSet states, int size) {
+        final BitSet result = new BitSet(size);
+        if (states != null) {
+            result.or(states);
+            if (result.length() > size)
+                result.clear(size, result.length());
+        }
+
+        result.clear(0, flags.mSize);
+        result.or(flags.mStates.get(0, flags.mSize));
+        return result;
+    }
+
+    /**
+     * 保存key对应的状态，立即更新快照，在后台线程写入
+     *
+     * @param key
+     * @param states
+     * @param size   状态个数，单个开关为1
+     */
+    public void setCheckedStates(String key, BitSet states, int size) {
+        if (key == null || states == null)
+            throw new NullPointerException();
+
+        final BitSet copy = (BitSet) states.clone();
+        if (copy.length() > size)
+            copy.clear(size, copy.length());
+
+        synchronized (mSnapshot) {
+            mSnapshot.put(key, new Flags(copy, size, true));
+            mPendingWrites.put(key, new Flags(copy, size, true));
+            if (!mIsWriteScheduled) {
+                mIsWriteScheduled = true;
+                getWriteExecutor().execute(mWriteRunnable);
+            }
+        }
+    }
+
+    /**
+     * 保存单个开关的状态
+     *
+     * @param key
+     * @param checked
+     */
+    public void setChecked(String key, boolean checked) {
+        final BitSet states = new BitSet(1);
+        states.set(0, checked);
+        setCheckedStates(key, states, 1);
+    }
+
+    /**
+     * 写入线程，每次取出所有等待写入的状态一起写入
+     */
+    private void writePending() {
+        while (true) {
+            final Map<String, Flags> batch;
+            synchronized (mSnapshot) {
+                if (mPendingWrites.isEmpty()) {
+                    mIsWriteScheduled = false;
+                    mSnapshot.notifyAll();
+                    return;
+                }
+                batch = new LinkedHashMap<>(mPendingWrites);
+                mPendingWrites.clear();
+            }
+
+            try {
+                for (Map.Entry<String, Flags> item : batch.entrySet()) {
+                    final Flags flags = item.getValue();
+                    mBackend.write(item.getKey(), flags.mStates, flags.mSize);
+                }
+                mBackend.flush();
+            } catch (Exception e) {
+                Log.e(TAG, "write failed", e);
+            }
+        }
+    }
+
+    /**
+     * 等待当前所有的写入完成，不能在主线程调用
+     *
+     * @throws InterruptedException
+     */
+    public void awaitWrites() throws InterruptedException {
+        synchronized (mSnapshot) {
+            while (mIsWriteScheduled) {
+                mSnapshot.wait();
+            }
+        }
+    }
+
+    /**
+     * 绑定单个开关，开关直接设置为保存的状态，之后状态变化自动保存
+     * <br>
+     * key不在快照中的时候先设置为默认值，后台读取完成之后再设置为保存的状态
+     * <br>
+     * 绑定之后开关的{@link SwitchButton.OnCheckedChangeCallback}由绑定对象接管，可以通过{@link Binding#setOnCheckedChangeCallback(SwitchButton.OnCheckedChangeCallback)}设置
+     *
+     * @param button
+     * @param key
+     * @param defaultValue 没有保存过的时候使用的值
+     * @return
+     */
+    public Binding bind(SwitchButton button, String key, boolean defaultValue) {
+        if (button == null || key == null)
+            throw new NullPointerException();
+
+        cancelLoad(button);
+
+        final Binding binding = new Binding(key);
+        final Flags flags = peekFlags(key, 1);
+        SwitchButtonBinder.bindChecked(button, getChecked(flags, defaultValue));
+        button.setOnCheckedChangeCallback(binding);
+
+        if (flags == null)
+            load(new Loader(key, 1, button, null));
+        return binding;
+    }
+
+    private boolean getChecked(Flags flags, boolean defaultValue) {
+        if (flags == null)
+            return defaultValue;
+        synchronized (mSnapshot) {
+            return flags.mIsSaved ? flags.mStates.get(0) : defaultValue;
+        }
+    }
+
+    /**
+     * 绑定分组，成员直接设置为保存的状态，之后状态变化自动保存，需要在添加完成员之后调用
+     * <br>
+     * key不在快照中的时候成员保持当前状态，后台读取完成之后再设置为保存的状态
+     * <br>
+     * 绑定之后分组的{@link SwitchButtonGroup.OnGroupCheckedChangeCallback}由绑定对象接管，可以通过{@link GroupBinding#setOnGroupCheckedChangeCallback(SwitchButtonGroup.OnGroupCheckedChangeCallback)}设置
+     *
+     * @param group
+     * @param key
+     * @return
+     */
+    public GroupBinding bind(SwitchButtonGroup group, String key) {
+        if (group == null || key == null)
+            throw new NullPointerException();
+
+        cancelLoad(group);
+
+        final int size = group.size();
+        final GroupBinding binding = new GroupBinding(key, size);
+        group.setOnGroupCheckedChangeCallback(binding);
+
+        final Flags flags = peekFlags(key, size);
+        if (flags != null) {
+            binding.apply(group, flags);
+        } else {
+            load(new Loader(key, size, group, binding));
+        }
+        return binding;
+    }
+
+    private void load(Loader loader) {
+        mLoaders.add(loader);
+        getWriteExecutor().execute(loader);
+    }
+
+    /**
+     * 取消target之前的绑定还没有完成的读取，例如列表复用的开关绑定到了新的key
+     *
+     * @param target
+     */
+    private void cancelLoad(Object target) {
+        for (int i = mLoaders.size() - 1; i >= 0; i--) {
+            if (mLoaders.get(i).mTarget == target)
+                mLoaders.remove(i);
+        }
+    }
+
+    /**
+     * 单个开关的绑定
+     */
+    public final class Binding implements SwitchButton.OnCheckedChangeCallback {
+        private final String mKey;
+        private SwitchButton.OnCheckedChangeCallback mCallback;
+
+        private Binding(String key) {
+            mKey = key;
+        }
+
+        public String getKey() {
+            return mKey;
+        }
+
+        public void setOnCheckedChangeCallback(SwitchButton.OnCheckedChangeCallback callback) {
+            mCallback = callback;
+        }
+
+        @Override
+        public void onCheckedChanged(boolean checked, SwitchButton switchButton) {
+            setChecked(mKey, checked);
+            if (mCallback != null)
+                mCallback.onCheckedChanged(checked, switchButton);
+        }
+    }
+
+    /**
+     * 分组的绑定
+     */
+    public final class GroupBinding implements SwitchButtonGroup.OnGroupCheckedChangeCallback {
+        private final String mKey;
+        private final int mSize;
+        private SwitchButtonGroup.OnGroupCheckedChangeCallback mCallback;
+        private boolean mIsApplying;
+
+        private GroupBinding(String key, int size) {
+            mKey = key;
+            mSize = size;
+        }
+
+        public String getKey() {
+            return mKey;
+        }
+
+        public void setOnGroupCheckedChangeCallback(SwitchButtonGroup.OnGroupCheckedChangeCallback callback) {
+            mCallback = callback;
+        }
+
+        /**
+         * 把保存的状态设置给分组，不保存，不通知回调
+         */
+        private void apply(SwitchButtonGroup group, Flags flags) {
+            final BitSet states;
+            synchronized (mSnapshot) {
+                if (!flags.mIsSaved)
+                    return;
+                states = (BitSet) flags.mStates.clone();
+            }
+
+            mIsApplying = true;
+            try {
+                group.setCheckedStates(states, false);
+            } finally {
+                mIsApplying = false;
+            }
+        }
+
+        @Override
+        public void onGroupCheckedChanged(BitSet changed, SwitchButtonGroup group) {
+            if (mIsApplying)
+                return;
+
+            setCheckedStates(mKey, group.getCheckedStates(), mSize);
+            if (mCallback != null)
+                mCallback.onGroupCheckedChanged(changed, group);
+        }
+    }
+
+    /**
+     * 在后台线程读取绑定的key，读取完成之后在主线程设置保存的状态
+     */
+    private final class Loader implements Runnable {
+        private final String mKey;
+        private final int mSize;
+        /**
+         * 开关或者分组
+         */
+        private final Object mTarget;
+        /**
+         * 绑定分组的时候不为null
+         */
+        private final GroupBinding mGroupBinding;
+
+        private final Runnable mApplyRunnable = new Runnable() {
+            @Override
+            public void run() {
+                // 已经被取消或者重新绑定
+                if (!mLoaders.remove(Loader.this))
+                    return;
+
+                final Flags flags = peekFlags(mKey, mSize);
+                if (flags == null)
+                    return;
+
+                if (mGroupBinding != null) {
+                    mGroupBinding.apply((SwitchButtonGroup) mTarget, flags);
+                } else if (flags.mIsSaved) {
+                    SwitchButtonBinder.bindChecked((SwitchButton) mTarget, getChecked(flags, false));
+                }
+            }
+        };
+
+        Loader(String key, int size, Object target, GroupBinding groupBinding) {
+            mKey = key;
+            mSize = size;
+            mTarget = target;
+            mGroupBinding = groupBinding;
+        }
+
+        @Override
+        public void run() {
+            try {
+                getFlags(mKey, mSize);
+            } catch (Exception e) {
+                Log.e(TAG, "read " + mKey + " failed", e);
+            }
+            MAIN_HANDLER.post(mApplyRunnable);
+        }
+    }
+
+    private static final class Flags {
+        private final BitSet mStates;
+        private final int mSize;
+        /**
+         * 是否保存过
+         */
+        private final boolean mIsSaved;
+
+        Flags(BitSet states, int size, boolean saved) {
+            mStates = states;
+            mSize = size;
+            mIsSaved = saved;
+        }
+    }
+
+    /**
+     * 存储实现
+     */
+    public interface Backend {
+        /**
+         * 读取key对应的状态，可能在任意线程调用
+         *
+         * @param key
+         * @param size 状态个数
+         * @return 没有保存过返回null
+         */
+        BitSet read(String key, int size);
+
+        /**
+         * 写入key对应的状态，在写入线程调用，之后会调用{@link #flush()}
+         *
+         * @param key
+         * @param states 不能修改
+         * @param size   状态个数
+         */
+        void write(String key, BitSet states, int size);
+
+        /**
+         * 一批写入结束，在写入线程调用
+         */
+        void flush();
+    }
+}
@@ -0,0 +1,74 @@
+package com.zzh.lib.switchbutton;
+
+import android.content.SharedPreferences;
+
+import java.util.BitSet;
+
+/**
+ * 使用SharedPreferences保存开关状态，一批写入使用一次apply()
+ * <br>
+ * 单个开关保存为boolean，和直接调用putBoolean(key, checked)保存的值兼容；多个状态保存为"0101"格式的字符串
+ * <br>
+ * 读取的时候按实际保存的类型解析，和读取的状态个数无关
+ */
+public class SwitchPreferencesBackend implements SwitchPersistence.Backend {
+    private final SharedPreferences mPreferences;
+    /**
+     * 写入线程使用
+     */
+    private SharedPreferences.Editor mEditor;
+
+    public SwitchPreferencesBackend(SharedPreferences preferences) {
+        if (preferences == null)
+            throw new NullPointerException();
+        mPreferences = preferences;
+    }
+
+    @Override
+    public BitSet read(String key, int size) {
+        // 按保存的类型解析，同一个key可能先按单个开关保存，之后按分组读取，或者相反
+        final Object value = mPreferences.getAll().get(key);
+        final BitSet states = new BitSet(size);
+        if (value instanceof Boolean) {
+            if (size > 0 && (Boolean) value)
+                states.set(0);
+            return states;
+        }
+
+        if (!(value instanceof String))
+            return null;
+
+        final String text = (String) value;
+        final int length = Math.min(size, text.length());
+        for (int i = 0; i < length; i++) {
+            if (text.charAt(i) == '1')
+                states.set(i);
+        }
+        return states;
+    }
+
+    @Override
+    public void write(String key, BitSet states, int size) {
+        if (mEditor == null)
+            mEditor = mPreferences.edit();
+
+        if (size == 1) {
+            mEditor.putBoolean(key, states.get(0));
+            return;
+        }
+
+        final char[] value = new char[size];
+        for (int i = 0; i < size; i++) {
+            value[i] = states.get(i) ? '1' : '0';
+        }
+        mEditor.putString(key, new String(value));
+    }
+
+    @Override
+    public void flush() {
+        if (mEditor != null) {
+            mEditor.apply();
+            mEditor = null;
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package com.zzh.lib.switchbutton;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * 列表开关状态存储，使用{@link BitSet}保存选中状态，10万个状态约占用12KB，读写不装箱
+ * <br>
+ * 通过{@link Binding}把开关绑定到某个位置，批量操作只更新已经绑定(可见)的开关，其他位置只修改状态
+ * <br>
+ * 例如在onCreateViewHolder中调用{@link #newBinding(SwitchButton)}，onBindViewHolder中调用{@link Binding#bind(int)}，
+ * onViewRecycled中调用{@link Binding#unbind()}
+ * <br>
+ * 创建{@link Binding}之后开关的{@link SwitchButton.OnCheckedChangeCallback}由绑定对象接管，可以通过{@link Binding#setOnCheckedChangeCallback(SwitchButton.OnCheckedChangeCallback)}设置
+ * <br>
+ * 只能在主线程使用
+ */
+public class SwitchStateStore {
+    private final BitSet mBits;
+    private int mSize;
+
+    private final List<RangeObserver> mObservers = new ArrayList<>();
+    /**
+     * 已经绑定的对象
+     */
+    private final List<Binding> mBindings = new ArrayList<>();
+
+    /**
+     * @param size 状态个数
+     */
+    public SwitchStateStore(int size) {
+        if (size < 0)
+            throw new IllegalArgumentException("size < 0");
+
+        mBits = new BitSet(size);
+        mSize = size;
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * 设置状态个数，减少的时候超出部分的状态被清除，增加的部分为未选中
+     *
+     * @param size
+     */
+    public void setSize(int size) {
+        if (size < 0)
+            throw new IllegalArgumentException("size < 0");
+
+        if (size < mSize)
+            mBits.clear(size, mSize);
+        mSize = size;
+    }
+
+    public boolean isChecked(int index) {
+        checkIndex(index);
+        return mBits.get(index);
+    }
+
+    /**
+     * 返回选中的个数
+     *
+     * @return
+     */
+    public int getCheckedCount() {
+        return mBits.cardinality();
+    }
+
+    /**
+     * 返回index及之后第一个选中的位置，没有返回-1
+     *
+     * @param index
+     * @return
+     */
+    public int nextChecked(int index) {
+        final int next = mBits.nextSetBit(index);
+        return next < mSize ? next : -1;
+    }
+
+    /**
+     * 设置某个位置的状态
+     *
+     * @param index
+     * @param checked
+     */
+    public void setChecked(int index, boolean checked) {
+        setCheckedInternal(index, checked, null);
+    }
+
+    private void setCheckedInternal(int index, boolean checked, Binding source) {
+        checkIndex(index);
+        if (mBits.get(index) == checked)
+            return;
+
+        mBits.set(index, checked);
+        updateBindings(index, index + 1, source);
+        notifyRangeChanged(index, index + 1);
+    }
+
+    /**
+     * 设置[fromIndex, toIndex)范围内的状态
+     *
+     * @param fromIndex 包含
+     * @param toIndex   不包含
+     * @param checked
+     */
+    public void setChecked(int fromIndex, int toIndex, boolean checked) {
+        checkRange(fromIndex, toIndex);
+
+        // 从第一个变化的位置开始通知，previousSetBit等方法需要API 19，这里不使用
+        final int first = checked ? mBits.nextClearBit(fromIndex) : mBits.nextSetBit(fromIndex);
+        if (first < 0 || first >= toIndex)
+            return;
+
+        mBits.set(first, toIndex, checked);
+        updateBindings(first, toIndex, null);
+        notifyRangeChanged(first, toIndex);
+    }
+
+    /**
+     * 所有位置设置为选中
+     */
+    public void checkAll() {
+        setChecked(0, mSize, true);
+    }
+
+    /**
+     * 所有位置设置为未选中
+     */
+    public void clearAll() {
+        setChecked(0, mSize, false);
+    }
+
+    /**
+     * 切换某个位置的状态
+     *
+     * @param index
+     */
+    public void flip(int index) {
+        checkIndex(index);
+        setChecked(index, !mBits.get(index));
+    }
+
+    /**
+     * 切换[fromIndex, toIndex)范围内的状态
+     *
+     * @param fromIndex 包含
+     * @param toIndex   不包含
+     */
+    public void flip(int fromIndex, int toIndex) {
+        checkRange(fromIndex, toIndex);
+        if (fromIndex == toIndex)
+            return;
+
+        mBits.flip(fromIndex, toIndex);
+        updateBindings(fromIndex, toIndex, null);
+        notifyRangeChanged(fromIndex, toIndex);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= mSize)
+            throw new IndexOutOfBoundsException("index:" + index + " size:" + mSize);
+    }
+
+    private void checkRange(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > mSize || fromIndex > toIndex)
+            throw new IndexOutOfBoundsException("fromIndex:" + fromIndex + " toIndex:" + toIndex + " size:" + mSize);
+    }
+
+    //---------- observer start ----------
+
+    public void addObserver(RangeObserver observer) {
+        if (observer == null || mObservers.contains(observer))
+            return;
+        mObservers.add(observer);
+    }
+
+    public void removeObserver(RangeObserver observer) {
+        mObservers.remove(observer);
+    }
+
+    private void notifyRangeChanged(int fromIndex, int toIndex) {
+        for (int i = mObservers.size() - 1; i >= 0; i--) {
+            mObservers.get(i).onRangeChanged(this, fromIndex, toIndex);
+        }
+    }
+
+    /**
+     * 状态变化观察者
+     */
+    public interface RangeObserver {
+        /**
+         * [fromIndex, toIndex)范围内的状态发生了变化，范围内可能包含没有变化的位置
+         *
+         * @param store
+         * @param fromIndex 包含
+         * @param toIndex   不包含
+         */
+        void onRangeChanged(SwitchStateStore store, int fromIndex, int toIndex);
+    }
+
+    //---------- observer end ----------
+
+    //---------- binding start ----------
+
+    /**
+     * 创建绑定对象，每个开关创建一次，之后重复使用
+     * <br>
+     * 绑定对象会占用开关的{@link SwitchButton#setOnCheckedChangeCallback(SwitchButton.OnCheckedChangeCallback)}，
+     * 需要监听状态变化的时候使用{@link #addObserver(RangeObserver)}
+     *
+     * @param button
+     * @return
+     */
+    public Binding newBinding(SwitchButton button) {
+        return new Binding(button);
+    }
+
+    /**
+     * 返回已经绑定的开关个数
+     *
+     * @return
+     */
+    public int getBindingCount() {
+        return mBindings.size();
+    }
+
+    private void updateBindings(int fromIndex, int toIndex, Binding source) {
+        for (int i = mBindings.size() - 1; i >= 0; i--) {
+            final Binding item = mBindings.get(i);
+            if (item == source)
+                continue;
+
+            final int index = item.mIndex;
+            if (index >= fromIndex && index < toIndex)
+                item.mButton.setChecked(mBits.get(index), true, false);
+        }
+    }
+
+    /**
+     * 开关和位置的绑定
+     */
+    public final class Binding implements SwitchButton.OnCheckedChangeCallback {
+        private final SwitchButton mButton;
+        private int mIndex = -1;
+        private SwitchButton.OnCheckedChangeCallback mCallback;
+
+        private Binding(SwitchButton button) {
+            if (button == null)
+                throw new NullPointerException();
+
+            mButton = button;
+            mButton.setOnCheckedChangeCallback(this);
+        }
+
+        public SwitchButton getButton() {
+            return mButton;
+        }
+
+        /**
+         * 设置用户切换开关的回调，在写回存储之后通知
+         *
+         * @param callback
+         */
+        public void setOnCheckedChangeCallback(SwitchButton.OnCheckedChangeCallback callback) {
+            mCallback = callback;
+        }
+
+        /**
+         * 返回绑定的位置，未绑定返回-1
+         *
+         * @return
+         */
+        public int getIndex() {
+            return mIndex;
+        }
+
+        /**
+         * 绑定到某个位置，开关直接设置为该位置的状态(不执行动画，不通知回调)
+         *
+         * @param index
+         */
+        public void bind(int index) {
+            checkIndex(index);
+            if (mIndex < 0)
+                mBindings.add(this);
+
+            mIndex = index;
+            SwitchButtonBinder.bindChecked(mButton, mBits.get(index));
+        }
+
+        /**
+         * 解除绑定，之后状态变化不再更新该开关
+         */
+        public void unbind() {
+            if (mIndex < 0)
+                return;
+
+            mIndex = -1;
+            mBindings.remove(this);
+        }
+
+        @Override
+        public void onCheckedChanged(boolean checked, SwitchButton switchButton) {
+            // 用户切换开关，写回存储
+            if (mIndex >= 0 && mIndex < mSize)
+                setCheckedInternal(mIndex, checked, this);
+            if (mCallback != null)
+                mCallback.onCheckedChanged(checked, switchButton);
+        }
+    }
+
+    //---------- binding end ----------
+}
@@ -0,0 +1,431 @@
+package com.zzh.lib.switchbutton;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.content.res.TypedArray;
+import android.util.AttributeSet;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * 开关的样式，创建后不可修改，可以在多个开关之间共享
+ * <br>
+ * 通过{@link #obtain(Context, AttributeSet)}获得的样式会按(主题，xml属性)缓存，相同属性的开关只解析一次
+ */
+public final class SwitchStyle {
+    /**
+     * 样式缓存，key为主题，value为(xml属性 -> 样式)
+     */
+    private static final Map<Resources.Theme, Map<String, SwitchStyle>> sCache = new WeakHashMap<>();
+
+    /**
+     * 正常view图片id
+     */
+    private final int imageNormalResId;
+    /**
+     * 选中view图片id
+     */
+    private final int imageCheckedResId;
+    /**
+     * 手柄view图片id
+     */
+    private final int imageThumbResId;
+    /**
+     * 手柄view左边间距
+     */
+    private final int marginLeft;
+    /**
+     * 手柄view顶部间距
+     */
+    private final int marginTop;
+    /**
+     * 手柄view右边间距
+     */
+    private final int marginRight;
+    /**
+     * 手柄view底部间距
+     */
+    private final int marginBottom;
+    /**
+     * 是否选中
+     */
+    private final boolean isChecked;
+    /**
+     * 是否需要点击切换动画
+     */
+    private final boolean isNeedToggleAnim;
+    /**
+     * 是否调试模式
+     */
+    private final boolean isDebug;
+    /**
+     * 拖动和惯性滑动的时候是否开启硬件层
+     */
+    private final boolean isHardwareLayer;
+    /**
+     * 渐变的时候正常view是否保持不透明，只改变选中view的透明度
+     */
+    private final boolean isOverlayCrossfade;
+    /**
+     * 是否通过translationX移动手柄view
+     */
+    private final boolean isTranslationThumb;
+    /**
+     * 切换动画是否使用属性动画
+     */
+    private final boolean isPropertyAnim;
+
+    private SwitchStyle(Builder builder) {
+        imageNormalResId = builder.imageNormalResId;
+        imageCheckedResId = builder.imageCheckedResId;
+        imageThumbResId = builder.imageThumbResId;
+        marginLeft = builder.marginLeft;
+        marginTop = builder.marginTop;
+        marginRight = builder.marginRight;
+        marginBottom = builder.marginBottom;
+        isChecked = builder.isChecked;
+        isNeedToggleAnim = builder.isNeedToggleAnim;
+        isDebug = builder.isDebug;
+        isHardwareLayer = builder.isHardwareLayer;
+        isOverlayCrossfade = builder.isOverlayCrossfade;
+        isTranslationThumb = builder.isTranslationThumb;
+        isPropertyAnim = builder.isPropertyAnim;
+    }
+
+    /**
+     * 返回默认样式
+     *
+     * @param context
+     * @return
+     */
+    public static SwitchStyle getDefault(Context context) {
+        return obtain(context, null);
+    }
+
+    /**
+     * 返回xml属性对应的样式，相同主题下属性相同的样式只会解析一次
+     *
+     * @param context
+     * @param attrs
+     * @return
+     */
+    public static SwitchStyle obtain(Context context, AttributeSet attrs) {
+        final Resources.Theme theme = context.getTheme();
+        final String key = createKey(context, attrs);
+
+        synchronized (sCache) {
+            final Map<String, SwitchStyle> map = sCache.get(theme);
+            if (map != null) {
+                final SwitchStyle style = map.get(key);
+                if (style != null)
+                    return style;
+            }
+        }
+
+        final SwitchStyle style = parse(context, attrs);
+
+        synchronized (sCache) {
+            Map<String, SwitchStyle> map = sCache.get(theme);
+            if (map == null) {
+                map = new HashMap<>();
+                sCache.put(theme, map);
+            }
+            map.put(key, style);
+        }
+        return style;
+    }
+
+    /**
+     * 清空样式缓存
+     */
+    public static void clearCache() {
+        synchronized (sCache) {
+            sCache.clear();
+        }
+    }
+
+    /**
+     * 根据原始xml属性创建缓存key，只读取属性字符串，不解析资源
+     *
+     * @param context
+     * @param attrs
+     * @return
+     */
+    private static String createKey(Context context, AttributeSet attrs) {
+        final StringBuilder sb = new StringBuilder()
+                .append(context.getResources().getDisplayMetrics().densityDpi);
+
+        if (attrs != null) {
+            sb.append('|').append(attrs.getStyleAttribute());
+
+            final int[] styleable = R.styleable.LibSwitchButton;
+            final int count = attrs.getAttributeCount();
+            for (int i = 0; i < count; i++) {
+                final int nameResId = attrs.getAttributeNameResource(i);
+                if (contains(styleable, nameResId)) {
+                    sb.append('|').append(nameResId)
+                            .append('=').append(attrs.getAttributeValue(i));
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    private static boolean contains(int[] array, int value) {
+        for (int item : array) {
+            if (item == value)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * 解析xml属性
+     *
+     * @param context
+     * @param attrs
+     */
+    private static SwitchStyle parse(Context context, AttributeSet attrs) {
+        final Builder builder = new Builder();
+        builder.imageNormalResId = R.drawable.lib_sb_layer_normal_view;
+        builder.imageCheckedResId = R.drawable.lib_sb_layer_checked_view;
+        builder.imageThumbResId = R.drawable.lib_sb_layer_thumb_view;
+        builder.setMargins(context.getResources().getDimensionPixelSize(R.dimen.lib_sb_margins));
+        builder.isNeedToggleAnim = true;
+
+        if (attrs != null) {
+            final TypedArray a = context.obtainStyledAttributes(attrs, R.styleable.LibSwitchButton);
+
+            builder.imageNormalResId = a.getResourceId(R.styleable.LibSwitchButton_sbImageNormal, builder.imageNormalResId);
+            builder.imageCheckedResId = a.getResourceId(R.styleable.LibSwitchButton_sbImageChecked, builder.imageCheckedResId);
+            builder.imageThumbResId = a.getResourceId(R.styleable.LibSwitchButton_sbImageThumb, builder.imageThumbResId);
+
+            if (a.hasValue(R.styleable.LibSwitchButton_sbMargins))
+                builder.setMargins(a.getDimensionPixelSize(R.styleable.LibSwitchButton_sbMargins, builder.marginLeft));
+
+            if (a.hasValue(R.styleable.LibSwitchButton_sbMarginLeft))
+                builder.marginLeft = a.getDimensionPixelSize(R.styleable.LibSwitchButton_sbMarginLeft, builder.marginLeft);
+
+            if (a.hasValue(R.styleable.LibSwitchButton_sbMarginTop))
+                builder.marginTop = a.getDimensionPixelSize(R.styleable.LibSwitchButton_sbMarginTop, builder.marginTop);
+
+            if (a.hasValue(R.styleable.LibSwitchButton_sbMarginRight))
+                builder.marginRight = a.getDimensionPixelSize(R.styleable.LibSwitchButton_sbMarginRight, builder.marginRight);
+
+            if (a.hasValue(R.styleable.LibSwitchButton_sbMarginBottom))
+                builder.marginBottom = a.getDimensionPixelSize(R.styleable.LibSwitchButton_sbMarginBottom, builder.marginBottom);
+
+            builder.isChecked = a.getBoolean(R.styleable.LibSwitchButton_sbIsChecked, false);
+            builder.isNeedToggleAnim = a.getBoolean(R.styleable.LibSwitchButton_sbIsNeedToggleAnim, true);
+            builder.isDebug = a.getBoolean(R.styleable.LibSwitchButton_sbIsDebug, false);
+            builder.isHardwareLayer = a.getBoolean(R.styleable.LibSwitchButton_sbIsHardwareLayer, false);
+            builder.isOverlayCrossfade = a.getBoolean(R.styleable.LibSwitchButton_sbIsOverlayCrossfade, false);
+            builder.isTranslationThumb = a.getBoolean(R.styleable.LibSwitchButton_sbIsTranslationThumb, false);
+            builder.isPropertyAnim = a.getBoolean(R.styleable.LibSwitchButton_sbIsPropertyAnim, false);
+
+            a.recycle();
+        }
+        return builder.build();
+    }
+
+    /**
+     * 以当前样式为基础创建一个构建对象
+     *
+     * @return
+     */
+    public Builder newBuilder() {
+        return new Builder(this);
+    }
+
+    public int getImageNormalResId() {
+        return imageNormalResId;
+    }
+
+    public int getImageCheckedResId() {
+        return imageCheckedResId;
+    }
+
+    public int getImageThumbResId() {
+        return imageThumbResId;
+    }
+
+    public int getMarginLeft() {
+        return marginLeft;
+    }
+
+    public int getMarginTop() {
+        return marginTop;
+    }
+
+    public int getMarginRight() {
+        return marginRight;
+    }
+
+    public int getMarginBottom() {
+        return marginBottom;
+    }
+
+    public boolean isChecked() {
+        return isChecked;
+    }
+
+    public boolean isNeedToggleAnim() {
+        return isNeedToggleAnim;
+    }
+
+    public boolean isDebug() {
+        return isDebug;
+    }
+
+    public boolean isHardwareLayer() {
+        return isHardwareLayer;
+    }
+
+    public boolean isOverlayCrossfade() {
+        return isOverlayCrossfade;
+    }
+
+    public boolean isTranslationThumb() {
+        return isTranslationThumb;
+    }
+
+    public boolean isPropertyAnim() {
+        return isPropertyAnim;
+    }
+
+    public static final class Builder {
+        private int imageNormalResId;
+        private int imageCheckedResId;
+        private int imageThumbResId;
+        private int marginLeft;
+        private int marginTop;
+        private int marginRight;
+        private int marginBottom;
+        private boolean isChecked;
+        private boolean isNeedToggleAnim;
+        private boolean isDebug;
+        private boolean isHardwareLayer;
+        private boolean isOverlayCrossfade;
+        private boolean isTranslationThumb;
+        private boolean isPropertyAnim;
+
+        /**
+         * 以默认样式为基础创建
+         *
+         * @param context
+         */
+        public Builder(Context context) {
+            this(getDefault(context));
+        }
+
+        private Builder() {
+        }
+
+        private Builder(SwitchStyle style) {
+            imageNormalResId = style.imageNormalResId;
+            imageCheckedResId = style.imageCheckedResId;
+            imageThumbResId = style.imageThumbResId;
+            marginLeft = style.marginLeft;
+            marginTop = style.marginTop;
+            marginRight = style.marginRight;
+            marginBottom = style.marginBottom;
+            isChecked = style.isChecked;
+            isNeedToggleAnim = style.isNeedToggleAnim;
+            isDebug = style.isDebug;
+            isHardwareLayer = style.isHardwareLayer;
+            isOverlayCrossfade = style.isOverlayCrossfade;
+            isTranslationThumb = style.isTranslationThumb;
+            isPropertyAnim = style.isPropertyAnim;
+        }
+
+        public Builder setImageNormalResId(int resId) {
+            imageNormalResId = resId;
+            return this;
+        }
+
+        public Builder setImageCheckedResId(int resId) {
+            imageCheckedResId = resId;
+            return this;
+        }
+
+        public Builder setImageThumbResId(int resId) {
+            imageThumbResId = resId;
+            return this;
+        }
+
+        /**
+         * 设置手柄view上下左右间距
+         *
+         * @param margins
+         * @return
+         */
+        public Builder setMargins(int margins) {
+            marginLeft = margins;
+            marginTop = margins;
+            marginRight = margins;
+            marginBottom = margins;
+            return this;
+        }
+
+        public Builder setMarginLeft(int margin) {
+            marginLeft = margin;
+            return this;
+        }
+
+        public Builder setMarginTop(int margin) {
+            marginTop = margin;
+            return this;
+        }
+
+        public Builder setMarginRight(int margin) {
+            marginRight = margin;
+            return this;
+        }
+
+        public Builder setMarginBottom(int margin) {
+            marginBottom = margin;
+            return this;
+        }
+
+        public Builder setChecked(boolean checked) {
+            isChecked = checked;
+            return this;
+        }
+
+        public Builder setNeedToggleAnim(boolean needToggleAnim) {
+            isNeedToggleAnim = needToggleAnim;
+            return this;
+        }
+
+        public Builder setDebug(boolean debug) {
+            isDebug = debug;
+            return this;
+        }
+
+        public Builder setHardwareLayer(boolean hardwareLayer) {
+            isHardwareLayer = hardwareLayer;
+            return this;
+        }
+
+        public Builder setOverlayCrossfade(boolean overlayCrossfade) {
+            isOverlayCrossfade = overlayCrossfade;
+            return this;
+        }
+
+        public Builder setTranslationThumb(boolean translationThumb) {
+            isTranslationThumb = translationThumb;
+            return this;
+        }
+
+        public Builder setPropertyAnim(boolean propertyAnim) {
+            isPropertyAnim = propertyAnim;
+            return this;
+        }
+
+        public SwitchStyle build() {
+            return new SwitchStyle(this);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.zzh.lib.switchbutton.gesture;
+
+import android.view.animation.AnimationUtils;
+
+import com.zzh.lib.switchbutton.core.HFrameClock;
+
+/**
+ * 使用{@link AnimationUtils#currentAnimationTimeMillis()}的动画时钟，和系统动画使用同一个时间
+ */
+public final class HAnimationClock implements HFrameClock {
+    public static final HAnimationClock INSTANCE = new HAnimationClock();
+
+    private HAnimationClock() {
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return AnimationUtils.currentAnimationTimeMillis();
+    }
+}
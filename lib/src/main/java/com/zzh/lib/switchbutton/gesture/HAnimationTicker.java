@@ -0,0 +1,126 @@
+package com.zzh.lib.switchbutton.gesture;
+
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 进程共享的动画驱动，每帧统一计算所有滚动中的{@link HScroller}，没有滚动的时候自动停止
+ * <br>
+ * 只能在主线程使用
+ */
+public final class HAnimationTicker {
+    /**
+     * 不支持{@link Choreographer}的时候帧间隔(毫秒)
+     */
+    private static final long FALLBACK_FRAME_DELAY = 10;
+
+    private static HAnimationTicker sInstance;
+
+    private final List<HScroller> mScrollers = new ArrayList<>();
+    /**
+     * 每帧计算时使用的快照，避免计算过程中增删滚动对象
+     */
+    private HScroller[] mFrameScrollers = new HScroller[8];
+
+    private FrameCallback mFrameCallback;
+    private boolean mIsRunning;
+
+    private HAnimationTicker() {
+    }
+
+    public static HAnimationTicker getInstance() {
+        if (sInstance == null)
+            sInstance = new HAnimationTicker();
+        return sInstance;
+    }
+
+    /**
+     * 返回当前滚动中的个数
+     *
+     * @return
+     */
+    public int getCount() {
+        return mScrollers.size();
+    }
+
+    void add(HScroller scroller) {
+        if (mScrollers.contains(scroller))
+            return;
+
+        mScrollers.add(scroller);
+        if (!mIsRunning) {
+            mIsRunning = true;
+            getFrameCallback().post();
+        }
+    }
+
+    void remove(HScroller scroller) {
+        mScrollers.remove(scroller);
+    }
+
+    private FrameCallback getFrameCallback() {
+        if (mFrameCallback == null) {
+            if (Build.VERSION.SDK_INT >= 16)
+                mFrameCallback = new ChoreographerFrameCallback();
+            else
+                mFrameCallback = new HandlerFrameCallback();
+        }
+        return mFrameCallback;
+    }
+
+    private void doFrame() {
+        final int count = mScrollers.size();
+        if (mFrameScrollers.length < count)
+            mFrameScrollers = new HScroller[Math.max(count, mFrameScrollers.length * 2)];
+
+        mScrollers.toArray(mFrameScrollers);
+        for (int i = 0; i < count; i++) {
+            final HScroller scroller = mFrameScrollers[i];
+            mFrameScrollers[i] = null;
+
+            if (!scroller.computeScrollOffset())
+                mScrollers.remove(scroller);
+        }
+
+        if (mScrollers.isEmpty()) {
+            mIsRunning = false;
+        } else {
+            getFrameCallback().post();
+        }
+    }
+
+    private interface FrameCallback {
+        void post();
+    }
+
+    private final class ChoreographerFrameCallback implements FrameCallback, Choreographer.FrameCallback {
+        @Override
+        public void post() {
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            HAnimationTicker.this.doFrame();
+        }
+    }
+
+    private final class HandlerFrameCallback implements FrameCallback, Runnable {
+        private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+        @Override
+        public void post() {
+            mHandler.postDelayed(this, FALLBACK_FRAME_DELAY);
+        }
+
+        @Override
+        public void run() {
+            doFrame();
+        }
+    }
+}
@@ -2,47 +2,55 @@ package com.zzh.lib.switchbutton.gesture;
 
 import android.util.Log;
 import android.view.MotionEvent;
-import android.view.VelocityTracker;
-import android.view.ViewGroup;
-
+import android.view.View;
+import android.view.ViewConfiguration;
+
+import com.zzh.lib.switchbutton.core.HGestureStateMachine;
+import com.zzh.lib.switchbutton.core.HGestureTrace;
+import com.zzh.lib.switchbutton.core.HSwitchGesture;
+
+/**
+ * 开关的手势管理，把MotionEvent转换为{@link HSwitchGesture}的输入，并执行{@link HSwitchGesture}需要的滚动动画
+ * <br>
+ * 手势的判断都在{@link HSwitchGesture}中，和{@link com.zzh.lib.switchbutton.core.HGestureReplayer}重放使用同一份逻辑
+ */
 public class HGestureManager {
-    private final ViewGroup mViewGroup;
-
+    private final HSwitchGesture mGesture;
     private HTouchHelper mTouchHelper;
-    private final TagHolder mTagHolder;
     private final HScroller mScroller;
 
-    private State mState = State.Idle;
-    private LifecycleInfo mLifecycleInfo;
+    private final int mTouchSlop;
+    private final long mClickTimeout;
+    private final float mMinFlingVelocity;
 
-    private final IdleRunnable mIdleRunnable = new IdleRunnable();
-    private VelocityTracker mVelocityTracker;
+    private HGestureTrace mGestureTrace;
+    /**
+     * 按下点的屏幕坐标和view坐标的差值，输入的坐标都减去这个差值，拖动过程中view被父view移动也不影响增量
+     */
+    private float mOffsetX;
+    private float mOffsetY;
 
     private boolean mDebug;
 
     private final Callback mCallback;
 
-    public HGestureManager(ViewGroup viewGroup, Callback callback) {
-        if (viewGroup == null || callback == null)
+    public HGestureManager(View view, Callback callback) {
+        if (view == null || callback == null)
             throw new NullPointerException();
 
-        mViewGroup = viewGroup;
         mCallback = callback;
 
-        mTagHolder = new TagHolder() {
-            @Override
-            protected void onTagConsumeChanged(boolean tag) {
-                if (tag)
-                    setState(State.Consume);
+        final ViewConfiguration config = ViewConfiguration.get(view.getContext());
+        mTouchSlop = config.getScaledTouchSlop();
+        mClickTimeout = ViewConfiguration.getPressedStateDuration() + ViewConfiguration.getTapTimeout();
+        mMinFlingVelocity = config.getScaledMinimumFlingVelocity() * 8;
 
-                super.onTagConsumeChanged(tag);
-            }
-        };
+        mGesture = new HSwitchGesture(mTouchSlop, mClickTimeout, mMinFlingVelocity, callback);
 
-        mScroller = new HScroller(viewGroup.getContext()) {
+        mScroller = new HScroller(view.getContext()) {
             @Override
             protected void onScrollerStart() {
-                setState(State.Fling);
+                mGesture.onScrollStart();
                 super.onScrollerStart();
             }
 
@@ -57,12 +65,7 @@ public class HGestureManager {
                 if (mDebug)
                     Log.e(HGestureManager.class.getSimpleName(), "onScrollerFinish isAbort:" + isAbort);
 
-                if (mTagHolder.isTagConsume()) {
-                    setState(State.Consume);
-                } else {
-                    mIdleRunnable.post();
-                }
-
+                mGesture.onScrollFinish();
                 super.onScrollerFinish(isAbort);
             }
         };
@@ -72,80 +75,86 @@ public class HGestureManager {
         mDebug = debug;
     }
 
+    /**
+     * 设置手势记录对象，输入到{@link HSwitchGesture}的事件按顺序记录到该对象，null-停止记录
+     *
+     * @param trace
+     */
+    public void setGestureTrace(HGestureTrace trace) {
+        mGestureTrace = trace;
+    }
+
+    /**
+     * 创建手势记录对象，判断参数和当前使用的一致
+     *
+     * @param checked     当前是否选中
+     * @param leftNormal  未选中时手柄的left值
+     * @param leftChecked 选中时手柄的left值
+     * @param thumbWidth  手柄宽度
+     * @return
+     */
+    public HGestureTrace newGestureTrace(boolean checked, int leftNormal, int leftChecked, int thumbWidth) {
+        return new HGestureTrace(checked, leftNormal, leftChecked, thumbWidth, mTouchSlop, mClickTimeout, mMinFlingVelocity);
+    }
+
+    /**
+     * 返回触摸点帮助对象，和{@link HSwitchGesture}使用同一个跟踪对象，坐标为按下时的view坐标
+     *
+     * @return
+     */
     public HTouchHelper getTouchHelper() {
         if (mTouchHelper == null)
-            mTouchHelper = new HTouchHelper();
+            mTouchHelper = new HTouchHelper(mGesture.getTouchTracker());
         return mTouchHelper;
     }
 
-    public TagHolder getTagHolder() {
-        return mTagHolder;
+    public HSwitchGesture getGesture() {
+        return mGesture;
     }
 
     public HScroller getScroller() {
         return mScroller;
     }
 
-    public State getState() {
-        return mState;
-    }
-
-    public LifecycleInfo getLifecycleInfo() {
-        if (mLifecycleInfo == null)
-            mLifecycleInfo = new LifecycleInfo();
-        return mLifecycleInfo;
+    public HGestureStateMachine.State getState() {
+        return mGesture.getState();
     }
 
-    private void setState(State state) {
-        if (state == null)
-            throw new NullPointerException();
-
-        if (mDebug)
-            Log.i(HGestureManager.class.getSimpleName(), "setState:" + mState + " -> " + state);
-
-        mIdleRunnable.cancel();
-
-        final State old = mState;
-        if (old != state) {
-            mState = state;
-            mCallback.onStateChanged(old, state);
-        }
-    }
-
-    private VelocityTracker getVelocityTracker() {
-        if (mVelocityTracker == null)
-            mVelocityTracker = VelocityTracker.obtain();
-        return mVelocityTracker;
+    /**
+     * 开始事务，事务结束之前不会进入{@link HGestureStateMachine.State#Idle}状态，可以嵌套
+     * <br>
+     * 例如先停止滚动再立即开始新的滚动，不会出现中间的{@link HGestureStateMachine.State#Idle}状态
+     */
+    public void beginTransaction() {
+        mGesture.beginTransaction();
     }
 
-    private void releaseVelocityTracker() {
-        if (mVelocityTracker != null) {
-            mVelocityTracker.recycle();
-            mVelocityTracker = null;
-        }
+    /**
+     * 结束事务，如果事务中请求过{@link HGestureStateMachine.State#Idle}状态并且之后没有变更为其他状态，则立即设置{@link HGestureStateMachine.State#Idle}状态
+     */
+    public void endTransaction() {
+        mGesture.endTransaction();
     }
 
     /**
      * 取消消费事件
      */
     public void cancelConsumeEvent() {
-        if (mTagHolder.isTagConsume()) {
-            if (mDebug)
-                Log.i(HGestureManager.class.getSimpleName(), "cancelConsumeEvent");
-
-            getLifecycleInfo().setCancelConsumeEvent(true);
-
-            if (getScroller().isFinished()) {
-                /**
-                 * 调用取消消费事件方法之后，外部有可能立即调用滚动的方法变更状态为{@link State.Fling}
-                 * 所以此处延迟设置{@link State.Idle}状态
-                 */
-                mIdleRunnable.post();
-            }
+        if (mDebug && mGesture.isTagConsume())
+            Log.i(HGestureManager.class.getSimpleName(), "cancelConsumeEvent");
+
+        mGesture.cancelConsumeEvent();
+    }
 
-            mTagHolder.reset();
-            mCallback.onCancelConsumeEvent();
-        }
+    /**
+     * 当前手势之后输入到{@link HSwitchGesture}的坐标都加上这个偏移，例如父view通过嵌套滚动预先消费了部分距离，按下的时候重置
+     *
+     * @param deltaX
+     * @param deltaY
+     */
+    public void offsetLocation(float deltaX, float deltaY) {
+        mOffsetX -= deltaX;
+        mOffsetY -= deltaY;
     }
 
     /**
@@ -155,21 +164,15 @@ public class HGestureManager {
      * @return
      */
     public boolean onInterceptTouchEvent(MotionEvent event) {
-        getTouchHelper().processTouchEvent(event);
-        getVelocityTracker().addMovement(event);
+        final int action = event.getActionMasked();
+        final float x = getX(event);
+        final float y = getY(event);
+        recordEvent(action, x, y, event.getEventTime());
 
-        final int action = event.getAction();
-        if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL) {
-            onEventFinish(event);
-        } else {
-            if (action == MotionEvent.ACTION_DOWN)
-                onEventStart(event);
-
-            if (!mTagHolder.isTagIntercept())
-                mTagHolder.setTagIntercept(mCallback.shouldInterceptEvent(event));
-        }
-
-        return mTagHolder.isTagIntercept();
+        final boolean result = mGesture.onInterceptTouchEvent(action, x, y, event.getEventTime());
+        if (mTouchHelper != null)
+            mTouchHelper.onTrackerProcessed(action);
+        return result;
     }
 
     /**
@@ -179,265 +182,49 @@ public class HGestureManager {
      * @return
      */
     public boolean onTouchEvent(MotionEvent event) {
-        getTouchHelper().processTouchEvent(event);
-        getVelocityTracker().addMovement(event);
-
-        final int action = event.getAction();
-        if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL) {
-            onEventFinish(event);
-        } else if (action == MotionEvent.ACTION_DOWN) {
-            onEventStart(event);
-            return mCallback.onEventActionDown(event);
-        } else {
-            if (!getLifecycleInfo().isCancelConsumeEvent()) {
-                if (!mTagHolder.isTagConsume()) {
-                    mTagHolder.setTagConsume(mCallback.shouldConsumeEvent(event));
-                } else {
-                    mCallback.onEventConsume(event);
-                    getLifecycleInfo().setHasConsumeEvent(true);
-                }
-            }
-        }
-
-        return mTagHolder.isTagConsume();
-    }
-
-    private void onEventStart(MotionEvent event) {
+        final int action = event.getActionMasked();
+        final float x = getX(event);
+        final float y = getY(event);
+        recordEvent(action, x, y, event.getEventTime());
 
+        final boolean result = mGesture.onTouchEvent(action, x, y, event.getEventTime());
+        if (mTouchHelper != null)
+            mTouchHelper.onTrackerProcessed(action);
+        return result;
     }
 
-    private void onEventFinish(MotionEvent event) {
-        mTagHolder.reset();
-        mCallback.onEventFinish(getVelocityTracker(), event);
-
-        releaseVelocityTracker();
-        getLifecycleInfo().reset();
-
-        if (mState == State.Consume)
-            setState(State.Idle);
+    /**
+     * 按下的时候记录屏幕坐标和view坐标的差值，之后的事件按屏幕坐标减去这个差值计算
+     */
+    private float getX(MotionEvent event) {
+        if (event.getActionMasked() == MotionEvent.ACTION_DOWN)
+            mOffsetX = event.getRawX() - event.getX();
+        return event.getRawX() - mOffsetX;
     }
 
-    private final class IdleRunnable implements Runnable {
-        private boolean mPost;
-
-        @Override
-        public void run() {
-            if (mDebug)
-                Log.i(HGestureManager.class.getSimpleName(), "IdleRunnable run");
-
-            mPost = false;
-            setState(State.Idle);
-        }
-
-        public void post() {
-            if (mDebug)
-                Log.i(HGestureManager.class.getSimpleName(), "IdleRunnable post");
-
-            mViewGroup.post(this);
-            mPost = true;
-        }
-
-        public void cancel() {
-            if (mDebug && mPost)
-                Log.i(HGestureManager.class.getSimpleName(), "IdleRunnable cancel");
-
-            mViewGroup.removeCallbacks(this);
-            mPost = false;
-        }
+    private float getY(MotionEvent event) {
+        if (event.getActionMasked() == MotionEvent.ACTION_DOWN)
+            mOffsetY = event.getRawY() - event.getY();
+        return event.getRawY() - mOffsetY;
     }
 
-    public static final class LifecycleInfo {
-        private boolean mHasConsumeEvent;
-        private boolean mIsCancelConsumeEvent;
-
-        /**
-         * 从按下到当前{@link Callback#onEventConsume(MotionEvent)}方法是否消费过事件
-         *
-         * @return
-         */
-        public boolean hasConsumeEvent() {
-            return mHasConsumeEvent;
-        }
-
-        /**
-         * 是否取消过消费事件
-         *
-         * @return
-         */
-        public boolean isCancelConsumeEvent() {
-            return mIsCancelConsumeEvent;
-        }
-
-        void setHasConsumeEvent(boolean has) {
-            mHasConsumeEvent = has;
-        }
-
-        void setCancelConsumeEvent(boolean cancel) {
-            mIsCancelConsumeEvent = cancel;
-        }
-
-        void reset() {
-            mHasConsumeEvent = false;
-            mIsCancelConsumeEvent = false;
-        }
-    }
-
-    public enum State {
-        /**
-         * 空闲
-         */
-        Idle,
-        /**
-         * 消费事件
-         */
-        Consume,
-        /**
-         * Scroller滚动
-         */
-        Fling
+    /**
+     * 记录的坐标和输入到{@link HSwitchGesture}的一致
+     */
+    private void recordEvent(int action, float x, float y, long time) {
+        if (mGestureTrace != null)
+            mGestureTrace.addEvent(action, x, y, time);
     }
 
-    public abstract static class Callback {
-        /**
-         * 是否开始拦截事件(由{@link #onInterceptTouchEvent(MotionEvent)}方法触发)
-         *
-         * @param event
-         * @return
-         */
-        public boolean shouldInterceptEvent(MotionEvent event) {
-            return false;
-        }
-
-        /**
-         * 是否消费{@link MotionEvent#ACTION_DOWN}事件(由{@link #onTouchEvent(MotionEvent)}方法触发)
-         * <br>
-         * 注意，只有此方法返回了true，才有后续的移动等事件，默认返回true
-         *
-         * @param event
-         * @return
-         */
-        public boolean onEventActionDown(MotionEvent event) {
-            return true;
-        }
-
-        /**
-         * 是否开始消费事件(由{@link #onTouchEvent(MotionEvent)}方法触发)
-         *
-         * @param event
-         * @return
-         */
-        public abstract boolean shouldConsumeEvent(MotionEvent event);
-
-        /**
-         * 事件回调
-         *
-         * @param event
-         */
-        public abstract void onEventConsume(MotionEvent event);
-
-        /**
-         * 取消消费事件回调
-         */
-        public void onCancelConsumeEvent() {
-        }
-
-        /**
-         * 事件结束，收到{@link MotionEvent#ACTION_UP}或者{@link MotionEvent#ACTION_CANCEL}事件
-         *
-         * @param velocityTracker 速率计算对象，这里返回的对象还未进行速率计算，如果要获得速率需要先进行计算{@link VelocityTracker#computeCurrentVelocity(int)}
-         * @param event           {@link MotionEvent#ACTION_UP}或者{@link MotionEvent#ACTION_CANCEL}
-         */
-        public abstract void onEventFinish(VelocityTracker velocityTracker, MotionEvent event);
-
+    public abstract static class Callback extends HSwitchGesture.Callback {
         /**
-         * 状态变化回调{@link State}
+         * 滚动动画每一帧的位置
          *
-         * @param oldState
-         * @param newState
+         * @param lastX
+         * @param lastY
+         * @param currX
+         * @param currY
          */
-        public abstract void onStateChanged(State oldState, State newState);
-
         public abstract void onScrollerCompute(int lastX, int lastY, int currX, int currY);
     }
-
-    //---------- TagHolder Start ----------
-
-    public static class TagHolder {
-        /**
-         * 是否需要拦截事件标识(用于onInterceptTouchEvent方法)
-         */
-        private boolean mTagIntercept = false;
-        /**
-         * 是否需要消费事件标识(用于onTouchEvent方法)
-         */
-        private boolean mTagConsume = false;
-
-        private Callback mCallback;
-
-        private TagHolder() {
-        }
-
-        //---------- public method start ----------
-
-        public void setCallback(Callback callback) {
-            mCallback = callback;
-        }
-
-        public boolean isTagIntercept() {
-            return mTagIntercept;
-        }
-
-        public boolean isTagConsume() {
-            return mTagConsume;
-        }
-
-        //---------- public method end ----------
-
-        /**
-         * 设置是否需要拦截事件标识(用于onInterceptTouchEvent方法)
-         *
-         * @param tag
-         */
-        void setTagIntercept(boolean tag) {
-            if (mTagIntercept != tag) {
-                mTagIntercept = tag;
-                onTagInterceptChanged(tag);
-            }
-        }
-
-        /**
-         * 设置是否需要消费事件标识(用于onTouchEvent方法)
-         *
-         * @param tag
-         */
-        void setTagConsume(boolean tag) {
-            if (mTagConsume != tag) {
-                mTagConsume = tag;
-                onTagConsumeChanged(tag);
-            }
-        }
-
-        void reset() {
-            setTagIntercept(false);
-            setTagConsume(false);
-        }
-
-        protected void onTagInterceptChanged(boolean tag) {
-            if (mCallback != null)
-                mCallback.onTagInterceptChanged(tag);
-        }
-
-        protected void onTagConsumeChanged(boolean tag) {
-            if (mCallback != null)
-                mCallback.onTagConsumeChanged(tag);
-        }
-
-        public interface Callback {
-            void onTagInterceptChanged(boolean tag);
-
-            void onTagConsumeChanged(boolean tag);
-        }
-    }
-
-    //---------- TagHolder Start ----------
 }
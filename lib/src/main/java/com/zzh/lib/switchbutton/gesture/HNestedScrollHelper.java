@@ -0,0 +1,236 @@
+package com.zzh.lib.switchbutton.gesture;
+
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewConfiguration;
+
+import com.zzh.lib.switchbutton.core.HDragClassifier;
+import com.zzh.lib.switchbutton.core.HSwitchGesture;
+import com.zzh.lib.switchbutton.core.HSwitchRules;
+import com.zzh.lib.switchbutton.core.HTouchTracker;
+
+import androidx.core.view.NestedScrollingChildHelper;
+import androidx.core.view.ViewCompat;
+
+/**
+ * 嵌套滚动帮助类，把开关没有消费的触摸距离和松手速度交给支持嵌套滚动的父view
+ * <br>
+ * 按下的时候不开始嵌套滚动，{@link HSwitchGesture}锁定方向之后只在一个方向上开始：
+ * 确定拖动手柄的时候为x轴方向，每次移动先让父view预先消费，剩下的由手柄消费，手柄到头之后的距离再交给父view；
+ * 确定不是拖动手柄的时候为锁定的方向，从按下开始的距离和松手速度都交给父view
+ */
+public class HNestedScrollHelper {
+    private final View mView;
+    private final NestedScrollingChildHelper mChildHelper;
+    private final int[] mConsumed = new int[2];
+
+    /**
+     * 当前手势按下的时间，用来判断是否是新的手势
+     */
+    private long mDownTime = -1;
+    /**
+     * 当前手势嵌套滚动的方向，0表示还未锁定方向
+     */
+    private int mAxes;
+    /**
+     * 已经分发过的触摸点，屏幕坐标
+     */
+    private float mLastRawX;
+    private float mLastRawY;
+    /**
+     * 当前事件父view预先消费的距离
+     */
+    private int mPreConsumedX;
+    private int mPreConsumedY;
+    /**
+     * 转为整数之后剩余的小数部分
+     */
+    private float mRemainderX;
+    private float mRemainderY;
+
+    private int mMinFlingVelocity = -1;
+    private int mMaxFlingVelocity;
+
+    public HNestedScrollHelper(View view) {
+        mView = view;
+        mChildHelper = new NestedScrollingChildHelper(view);
+        mChildHelper.setNestedScrollingEnabled(true);
+    }
+
+    /**
+     * 返回嵌套滚动对象，view实现NestedScrollingChild3的方法委托给该对象
+     *
+     * @return
+     */
+    public NestedScrollingChildHelper getChildHelper() {
+        return mChildHelper;
+    }
+
+    /**
+     * 处理触摸事件，在开关处理事件之前调用，已经开始嵌套滚动的时候先让父view预先消费，
+     * 父view消费的距离不再输入到手势管理对象
+     *
+     * @param event
+     * @param gestureManager
+     */
+    public void onPreTouchEvent(MotionEvent event, HGestureManager gestureManager) {
+        if (event.getActionMasked() != MotionEvent.ACTION_MOVE || !isNestedScrolling())
+            return;
+
+        if (dispatchPreScroll(event))
+            gestureManager.offsetLocation(mPreConsumedX, mPreConsumedY);
+    }
+
+    /**
+     * 处理触摸事件，在开关处理完事件之后调用
+     *
+     * @param event
+     * @param gestureManager
+     * @param consumedX      开关处理这个事件时手柄移动的距离
+     */
+    public void onTouchEvent(MotionEvent event, HGestureManager gestureManager, float consumedX) {
+        final HSwitchGesture gesture = gestureManager.getGesture();
+        final int action = event.getActionMasked();
+        if (action == MotionEvent.ACTION_DOWN || gesture.getTouchTracker().getDownTime() != mDownTime)
+            reset(gesture.getTouchTracker().getDownTime());
+
+        switch (action) {
+            case MotionEvent.ACTION_DOWN:
+                break;
+            case MotionEvent.ACTION_UP:
+                if (isNestedScrolling())
+                    dispatchFling(gesture);
+                reset(mDownTime);
+                break;
+            case MotionEvent.ACTION_CANCEL:
+                reset(mDownTime);
+                break;
+            default:
+                if (mAxes == 0) {
+                    startNestedScroll(event, gesture);
+                } else {
+                    dispatchScroll(event, consumedX);
+                }
+                break;
+        }
+    }
+
+    private boolean isNestedScrolling() {
+        return mAxes != 0 && mChildHelper.hasNestedScrollingParent(ViewCompat.TYPE_TOUCH);
+    }
+
+    private boolean isHorizontal() {
+        return mAxes == ViewCompat.SCROLL_AXIS_HORIZONTAL;
+    }
+
+    private void reset(long downTime) {
+        if (mAxes != 0)
+            mChildHelper.stopNestedScroll(ViewCompat.TYPE_TOUCH);
+
+        mDownTime = downTime;
+        mAxes = 0;
+        mPreConsumedX = 0;
+        mPreConsumedY = 0;
+        mRemainderX = 0;
+        mRemainderY = 0;
+    }
+
+    /**
+     * 锁定方向之后开始嵌套滚动
+     */
+    private void startNestedScroll(MotionEvent event, HSwitchGesture gesture) {
+        final int state = gesture.getDragState();
+        if (state == HDragClassifier.STATE_PENDING)
+            return;
+
+        mAxes = state == HDragClassifier.STATE_DRAG || gesture.getDragDirection() == HSwitchRules.DIRECTION_HORIZONTAL
+                ? ViewCompat.SCROLL_AXIS_HORIZONTAL : ViewCompat.SCROLL_AXIS_VERTICAL;
+
+        // 从按下的点开始分发
+        final HTouchTracker tracker = gesture.getTouchTracker();
+        mLastRawX = event.getRawX() - tracker.getDeltaXFromDown();
+        mLastRawY = event.getRawY() - tracker.getDeltaYFromDown();
+
+        if (!mChildHelper.startNestedScroll(mAxes, ViewCompat.TYPE_TOUCH))
+            return;
+
+        // 拖动手柄的时候按下之后的距离在下一次拖动的时候由手柄消费，不是拖动手柄的时候直接交给父view
+        if (state == HDragClassifier.STATE_REJECT) {
+            dispatchPreScroll(event);
+            dispatchScroll(event, 0);
+        }
+    }
+
+    /**
+     * 分发预先滚动，嵌套滚动的距离和手指移动方向相反
+     *
+     * @return 父view是否消费了距离
+     */
+    private boolean dispatchPreScroll(MotionEvent event) {
+        final int dx = isHorizontal() ? (int) (mLastRawX - event.getRawX()) : 0;
+        final int dy = isHorizontal() ? 0 : (int) (mLastRawY - event.getRawY());
+        if (dx == 0 && dy == 0)
+            return false;
+
+        mConsumed[0] = 0;
+        mConsumed[1] = 0;
+        if (!mChildHelper.dispatchNestedPreScroll(dx, dy, mConsumed, null, ViewCompat.TYPE_TOUCH))
+            return false;
+
+        mPreConsumedX = mConsumed[0];
+        mPreConsumedY = mConsumed[1];
+        return mPreConsumedX != 0 || mPreConsumedY != 0;
+    }
+
+    /**
+     * 分发父view预先消费和手柄消费之后剩下的距离，只分发锁定的方向
+     */
+    private void dispatchScroll(MotionEvent event, float consumedX) {
+        final float scrollX = isHorizontal() ? mLastRawX - event.getRawX() : 0;
+        final float scrollY = isHorizontal() ? 0 : mLastRawY - event.getRawY();
+        mLastRawX = event.getRawX();
+        mLastRawY = event.getRawY();
+
+        final int dxConsumed = isHorizontal() ? -Math.round(consumedX) : 0;
+        final float unconsumedX = mRemainderX + scrollX - mPreConsumedX + (isHorizontal() ? consumedX : 0);
+        final float unconsumedY = mRemainderY + scrollY - mPreConsumedY;
+        mPreConsumedX = 0;
+        mPreConsumedY = 0;
+
+        final int dxUnconsumed = (int) unconsumedX;
+        final int dyUnconsumed = (int) unconsumedY;
+        mRemainderX = unconsumedX - dxUnconsumed;
+        mRemainderY = unconsumedY - dyUnconsumed;
+
+        if (!mChildHelper.hasNestedScrollingParent(ViewCompat.TYPE_TOUCH))
+            return;
+        if (dxConsumed == 0 && dxUnconsumed == 0 && dyUnconsumed == 0)
+            return;
+
+        mConsumed[0] = 0;
+        mConsumed[1] = 0;
+        mChildHelper.dispatchNestedScroll(dxConsumed, 0, dxUnconsumed, dyUnconsumed, null,
+                ViewCompat.TYPE_TOUCH, mConsumed);
+    }
+
+    /**
+     * 分发松手速度，只分发锁定的方向，拖动手柄的时候开关已经按速度决定了状态，告诉父view已经消费
+     */
+    private void dispatchFling(HSwitchGesture gesture) {
+        if (mMinFlingVelocity < 0) {
+            final ViewConfiguration config = ViewConfiguration.get(mView.getContext());
+            mMinFlingVelocity = config.getScaledMinimumFlingVelocity();
+            mMaxFlingVelocity = config.getScaledMaximumFlingVelocity();
+        }
+
+        final float velocity = isHorizontal() ? -gesture.getVelocityX() : -gesture.getVelocityY();
+        if (Math.abs(velocity) < mMinFlingVelocity)
+            return;
+
+        final float legalVelocity = HSwitchRules.clamp(velocity, -mMaxFlingVelocity, mMaxFlingVelocity);
+        final float velocityX = isHorizontal() ? legalVelocity : 0;
+        final float velocityY = isHorizontal() ? 0 : legalVelocity;
+        if (!mChildHelper.dispatchNestedPreFling(velocityX, velocityY))
+            mChildHelper.dispatchNestedFling(velocityX, velocityY, gesture.getDragState() == HDragClassifier.STATE_DRAG);
+    }
+}
@@ -4,11 +4,15 @@ import android.content.Context;
 import android.view.animation.Interpolator;
 import android.widget.Scroller;
 
+import com.zzh.lib.switchbutton.core.HScrollerApi;
+import com.zzh.lib.switchbutton.core.HSwitchRules;
+import com.zzh.lib.switchbutton.core.HVelocityScrollerApi;
+
 /**
  * 滚动帮助类
  */
 public abstract class HScroller {
-    private ScrollerApi mScrollerApi;
+    private HScrollerApi mScrollerApi;
     /**
      * 最大滚动距离
      */
@@ -21,12 +25,21 @@ public abstract class HScroller {
      * 最小滚动时长
      */
     private int mMinScrollDuration = 200;
+    /**
+     * 松手归位的最小时长
+     */
+    private int mMinSettleDuration = 60;
 
     private int mLastX;
     private int mLastY;
+    /**
+     * 当前滚动的x方向目标位置
+     */
+    private int mEndX;
     private boolean mIsFinished = true;
 
     private Callback mCallback;
+    private HAnimationTicker mTicker;
 
     public HScroller(Context context) {
         this(context, null);
@@ -36,7 +49,7 @@ public abstract class HScroller {
         this(new SimpleScrollerApi(context, interpolator));
     }
 
-    public HScroller(ScrollerApi scrollerApi) {
+    public HScroller(HScrollerApi scrollerApi) {
         setScrollerApi(scrollerApi);
     }
 
@@ -59,11 +72,30 @@ public abstract class HScroller {
     }
 
     /**
-     * 设置api处理对象
+     * 设置动画驱动，设置后滚动过程由{@link HAnimationTicker}每帧统一调用{@link #computeScrollOffset()}，
+     * 不需要在{@link android.view.View#computeScroll()}中调用
+     *
+     * @param ticker null-由外部调用{@link #computeScrollOffset()}
+     */
+    public void setAnimationTicker(HAnimationTicker ticker) {
+        if (mTicker == ticker)
+            return;
+
+        if (mTicker != null)
+            mTicker.remove(this);
+
+        mTicker = ticker;
+
+        if (ticker != null && !mIsFinished)
+            ticker.add(this);
+    }
+
+    /**
+     * 设置api处理对象，例如不依赖Android的{@link com.zzh.lib.switchbutton.core.HEasingScrollerApi}
      *
      * @param scrollerApi
      */
-    public void setScrollerApi(ScrollerApi scrollerApi) {
+    public void setScrollerApi(HScrollerApi scrollerApi) {
         if (scrollerApi == null)
             throw new NullPointerException();
 
@@ -97,6 +129,15 @@ public abstract class HScroller {
         mMinScrollDuration = duration;
     }
 
+    /**
+     * 设置松手归位的最小时长，见{@link #settleX(int, int, float)}
+     *
+     * @param duration
+     */
+    public final void setMinSettleDuration(int duration) {
+        mMinSettleDuration = duration;
+    }
+
     public final void setFriction(float friction) {
         mScrollerApi.setFriction(friction);
     }
@@ -142,6 +183,7 @@ public abstract class HScroller {
         if (scroll) {
             mLastX = startX;
             mLastY = startY;
+            mEndX = startX + dx;
 
             if (duration < 0)
                 duration = computeDuration(dx, dy, mMaxScrollDistance, mMaxScrollDuration, mMinScrollDuration);
@@ -152,6 +194,63 @@ public abstract class HScroller {
         return scroll;
     }
 
+    /**
+     * 滚动中修改x方向的目标位置，保留当前速度，需要api实现{@link HVelocityScrollerApi}
+     * <br>
+     * 剩余距离太短的时候速度会被截断，和{@link #settleX(int, int, float)}一样不会越过终点
+     *
+     * @param endX
+     * @param duration 小于0表示根据剩余距离和当前速度计算
+     * @return false-没有在滚动或者api不支持，需要调用{@link #abortAnimation()}之后重新开始滚动
+     */
+    public final boolean retargetX(int endX, int duration) {
+        if (mIsFinished || !(mScrollerApi instanceof HVelocityScrollerApi))
+            return false;
+
+        final HVelocityScrollerApi api = (HVelocityScrollerApi) mScrollerApi;
+        final int dx = endX - mLastX;
+        final float velocityX = api.getCurrVelocityX();
+        if (duration < 0) {
+            final int defaultDuration = computeDuration(dx, 0, mMaxScrollDistance, mMaxScrollDuration, mMinScrollDuration);
+            duration = HSwitchRules.settleDuration(dx, velocityX, mMinSettleDuration, mMaxScrollDuration, defaultDuration);
+        }
+
+        // 反向的时候不能越过原来的目标位置
+        final float velocity = HSwitchRules.settleVelocity(dx, velocityX, duration, Math.abs(mEndX - mLastX));
+        mEndX = endX;
+        api.startScroll(mLastX, mLastY, dx, 0, duration, velocity, 0);
+        updateFinished();
+        return true;
+    }
+
+    /**
+     * 松手后从startX滚动到endX，起点速度等于松手速度，快速滑动很快结束，慢速松手先加速再减速，
+     * 需要api实现{@link HVelocityScrollerApi}才能保证速度连续，否则只按速度计算时长
+     *
+     * @param startX
+     * @param endX
+     * @param velocityX 松手速度(像素/秒)，0等价于{@link #scrollToX(int, int, int)}
+     * @return true-提交滚动任务成功
+     */
+    public final boolean settleX(int startX, int endX, float velocityX) {
+        final int dx = endX - startX;
+        final int defaultDuration = computeDuration(dx, 0, mMaxScrollDistance, mMaxScrollDuration, mMinScrollDuration);
+        final int duration = HSwitchRules.settleDuration(dx, velocityX, mMinSettleDuration, mMaxScrollDuration, defaultDuration);
+        // 截断之后的速度，保证不越过终点
+        final float velocity = HSwitchRules.settleVelocity(dx, velocityX, duration, Float.MAX_VALUE);
+
+        if (dx == 0 || velocity == 0 || !(mScrollerApi instanceof HVelocityScrollerApi))
+            return scrollDeltaX(startX, dx, duration);
+
+        mLastX = startX;
+        mLastY = 0;
+        mEndX = endX;
+
+        ((HVelocityScrollerApi) mScrollerApi).startScroll(startX, 0, dx, 0, duration, velocity, 0);
+        updateFinished();
+        return true;
+    }
+
     public final boolean flingX(int startX, int velocityX, int minX, int maxX) {
         return fling(startX, 0, velocityX, 0, minX, maxX, 0, 0);
     }
@@ -170,6 +269,7 @@ public abstract class HScroller {
         if (fling) {
             mLastX = startX;
             mLastY = startY;
+            mEndX = velocityX > 0 ? maxX : minX;
 
             mScrollerApi.fling(startX, startY, velocityX, velocityY, minX, maxX, minY, maxY);
             updateFinished();
@@ -222,6 +322,13 @@ public abstract class HScroller {
 
         mIsFinished = finish;
 
+        if (mTicker != null) {
+            if (finish)
+                mTicker.remove(this);
+            else
+                mTicker.add(this);
+        }
+
         if (finish)
             onScrollerFinish(isAbort);
         else
@@ -271,7 +378,7 @@ public abstract class HScroller {
             return 0;
 
         final float disPercent = distance / distanceMax;
-        final int duration = (int) ((disPercent * durationMin) + durationMin);
+        final int duration = (int) ((disPercent * (durationMax - durationMin)) + durationMin);
 
         return Math.min(duration, durationMax);
     }
@@ -300,22 +407,10 @@ public abstract class HScroller {
         void onScrollerFinish(boolean isAbort);
     }
 
-    public interface ScrollerApi {
-        void setFriction(float friction);
-
-        void startScroll(int startX, int startY, int dx, int dy, int duration);
-
-        void fling(int startX, int startY, int velocityX, int velocityY, int minX, int maxX, int minY, int maxY);
-
-        boolean computeScrollOffset();
-
-        void abortAnimation();
-
-        boolean isFinished();
-
-        int getCurrX();
-
-        int getCurrY();
+    /**
+     * 保留的接口，方法定义在{@link HScrollerApi}
+     */
+    public interface ScrollerApi extends HScrollerApi {
     }
 
     private static class SimpleScrollerApi implements HScroller.ScrollerApi {
@@ -0,0 +1,24 @@
+package com.zzh.lib.switchbutton.gesture;
+
+import android.view.animation.Interpolator;
+
+import com.zzh.lib.switchbutton.core.HSwitchRules;
+
+/**
+ * 松手归位的插值器，起点斜率等于切线，终点速度为0，见{@link HSwitchRules#settleInterpolation(float, float)}
+ */
+public class HSettleInterpolator implements Interpolator {
+    private final float mTangent;
+
+    /**
+     * @param tangent {@link HSwitchRules#settleTangent(float, float, int)}
+     */
+    public HSettleInterpolator(float tangent) {
+        mTangent = tangent;
+    }
+
+    @Override
+    public float getInterpolation(float input) {
+        return HSwitchRules.settleInterpolation(input, mTangent);
+    }
+}
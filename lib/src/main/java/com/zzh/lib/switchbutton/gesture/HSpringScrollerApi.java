@@ -0,0 +1,263 @@
+package com.zzh.lib.switchbutton.gesture;
+
+import com.zzh.lib.switchbutton.core.HFrameClock;
+import com.zzh.lib.switchbutton.core.HVelocityScrollerApi;
+
+/**
+ * 弹簧物理模型的滚动实现，默认临界阻尼
+ * <br>
+ * 按真实帧时间求解弹簧方程，{@link #computeScrollOffset()}不创建任何对象，
+ * 滚动过程中重新调用{@link #startScroll(int, int, int, int, int)}会保留当前速度
+ */
+public class HSpringScrollerApi implements HScroller.ScrollerApi, HVelocityScrollerApi {
+    /**
+     * 默认刚度
+     */
+    public static final float DEFAULT_STIFFNESS = 1500f;
+    /**
+     * 默认阻尼比(临界阻尼)
+     */
+    public static final float DEFAULT_DAMPING_RATIO = 1.0f;
+
+    /**
+     * 距离小于这个值(像素)认为已经到达终点
+     */
+    private static final float SETTLE_DISTANCE = 0.5f;
+    /**
+     * 速度小于这个值(像素/秒)认为已经静止
+     */
+    private static final float SETTLE_VELOCITY = 10f;
+
+    private float mStiffness;
+    private float mDampingRatio;
+
+    private final Axis mAxisX = new Axis();
+    private final Axis mAxisY = new Axis();
+
+    private HFrameClock mClock = HAnimationClock.INSTANCE;
+
+    private long mLastTime;
+    private boolean mIsFinished = true;
+
+    public HSpringScrollerApi() {
+        this(DEFAULT_STIFFNESS, DEFAULT_DAMPING_RATIO);
+    }
+
+    /**
+     * @param stiffness    刚度，越大越快
+     * @param dampingRatio 阻尼比(大于0)，1为临界阻尼，小于1会回弹，大于1过阻尼
+     */
+    public HSpringScrollerApi(float stiffness, float dampingRatio) {
+        setStiffness(stiffness);
+        setDampingRatio(dampingRatio);
+    }
+
+    public void setStiffness(float stiffness) {
+        if (stiffness <= 0)
+            throw new IllegalArgumentException("stiffness must be > 0");
+        mStiffness = stiffness;
+    }
+
+    public float getStiffness() {
+        return mStiffness;
+    }
+
+    /**
+     * 设置阻尼比，必须大于0，没有阻尼的弹簧永远不会停下来
+     *
+     * @param dampingRatio
+     */
+    public void setDampingRatio(float dampingRatio) {
+        if (!(dampingRatio > 0))
+            throw new IllegalArgumentException("dampingRatio must be > 0");
+        mDampingRatio = dampingRatio;
+    }
+
+    public float getDampingRatio() {
+        return mDampingRatio;
+    }
+
+    /**
+     * 设置动画时钟，默认{@link HAnimationClock}
+     *
+     * @param clock
+     */
+    public void setFrameClock(HFrameClock clock) {
+        if (clock == null)
+            throw new NullPointerException();
+        mClock = clock;
+    }
+
+    @Override
+    public float getCurrVelocityX() {
+        return mIsFinished ? 0 : mAxisX.velocity;
+    }
+
+    @Override
+    public float getCurrVelocityY() {
+        return mIsFinished ? 0 : mAxisY.velocity;
+    }
+
+    /**
+     * 弹簧模型不使用摩擦系数
+     *
+     * @param friction
+     */
+    @Override
+    public void setFriction(float friction) {
+    }
+
+    /**
+     * 开始滚动，弹簧模型不使用duration
+     */
+    @Override
+    public void startScroll(int startX, int startY, int dx, int dy, int duration) {
+        final boolean keepVelocity = !mIsFinished;
+        mAxisX.start(startX, startX + dx, keepVelocity ? mAxisX.velocity : 0);
+        mAxisY.start(startY, startY + dy, keepVelocity ? mAxisY.velocity : 0);
+        start();
+    }
+
+    /**
+     * 带初始速度开始滚动，弹簧模型不使用duration
+     */
+    @Override
+    public void startScroll(int startX, int startY, int dx, int dy, int duration, float velocityX, float velocityY) {
+        mAxisX.start(startX, startX + dx, velocityX);
+        mAxisY.start(startY, startY + dy, velocityY);
+        start();
+    }
+
+    @Override
+    public void fling(int startX, int startY, int velocityX, int velocityY, int minX, int maxX, int minY, int maxY) {
+        mAxisX.start(startX, getFlingTarget(startX, velocityX, minX, maxX), velocityX);
+        mAxisY.start(startY, getFlingTarget(startY, velocityY, minY, maxY), velocityY);
+        start();
+    }
+
+    private static int getFlingTarget(int start, int velocity, int min, int max) {
+        if (velocity > 0)
+            return max;
+        if (velocity < 0)
+            return min;
+        return start;
+    }
+
+    private void start() {
+        mLastTime = mClock.currentTimeMillis();
+        mIsFinished = mAxisX.isSettled() && mAxisY.isSettled();
+        if (mIsFinished) {
+            mAxisX.finish();
+            mAxisY.finish();
+        }
+    }
+
+    @Override
+    public boolean computeScrollOffset() {
+        if (mIsFinished)
+            return false;
+
+        final long time = mClock.currentTimeMillis();
+        final float dt = (time - mLastTime) / 1000f;
+        if (dt <= 0)
+            return true;
+
+        mLastTime = time;
+
+        mAxisX.step(dt, mStiffness, mDampingRatio);
+        mAxisY.step(dt, mStiffness, mDampingRatio);
+
+        if (mAxisX.isSettled() && mAxisY.isSettled()) {
+            mAxisX.finish();
+            mAxisY.finish();
+            mIsFinished = true;
+        }
+        return true;
+    }
+
+    @Override
+    public void abortAnimation() {
+        mAxisX.finish();
+        mAxisY.finish();
+        mIsFinished = true;
+    }
+
+    @Override
+    public boolean isFinished() {
+        return mIsFinished;
+    }
+
+    @Override
+    public int getCurrX() {
+        return Math.round(mAxisX.position);
+    }
+
+    @Override
+    public int getCurrY() {
+        return Math.round(mAxisY.position);
+    }
+
+    private static final class Axis {
+        float position;
+        float target;
+        float velocity;
+
+        void start(float position, float target, float velocity) {
+            this.position = position;
+            this.target = target;
+            this.velocity = velocity;
+        }
+
+        boolean isSettled() {
+            return Math.abs(position - target) < SETTLE_DISTANCE && Math.abs(velocity) < SETTLE_VELOCITY;
+        }
+
+        void finish() {
+            position = target;
+            velocity = 0;
+        }
+
+        /**
+         * 按弹簧方程的解析解前进dt秒，和帧间隔无关
+         */
+        void step(float dt, float stiffness, float dampingRatio) {
+            final double omega = Math.sqrt(stiffness);
+            final double d0 = position - target;
+            final double v0 = velocity;
+
+            final double d;
+            final double v;
+            if (dampingRatio == 1.0f) {
+                // 临界阻尼
+                final double b = v0 + omega * d0;
+                final double decay = Math.exp(-omega * dt);
+                d = (d0 + b * dt) * decay;
+                v = (v0 - omega * b * dt) * decay;
+            } else if (dampingRatio < 1.0f) {
+                // 欠阻尼
+                final double a = dampingRatio * omega;
+                final double omegaD = omega * Math.sqrt(1 - dampingRatio * dampingRatio);
+                final double c2 = (v0 + a * d0) / omegaD;
+                final double decay = Math.exp(-a * dt);
+                final double cos = Math.cos(omegaD * dt);
+                final double sin = Math.sin(omegaD * dt);
+                d = decay * (d0 * cos + c2 * sin);
+                v = decay * (v0 * cos - (a * c2 + omegaD * d0) * sin);
+            } else {
+                // 过阻尼
+                final double sqrt = Math.sqrt(dampingRatio * dampingRatio - 1);
+                final double r1 = -omega * (dampingRatio - sqrt);
+                final double r2 = -omega * (dampingRatio + sqrt);
+                final double c2 = (v0 - r1 * d0) / (r2 - r1);
+                final double c1 = d0 - c2;
+                final double e1 = Math.exp(r1 * dt);
+                final double e2 = Math.exp(r2 * dt);
+                d = c1 * e1 + c2 * e2;
+                v = c1 * r1 * e1 + c2 * r2 * e2;
+            }
+
+            position = (float) (target + d);
+            velocity = (float) v;
+        }
+    }
+}
@@ -8,6 +8,9 @@ import android.view.ViewConfiguration;
 import android.view.ViewGroup;
 import android.view.ViewParent;
 
+import com.zzh.lib.switchbutton.core.HSwitchRules;
+import com.zzh.lib.switchbutton.core.HTouchTracker;
+
 import java.util.ArrayList;
 import java.util.List;
 
@@ -15,16 +18,22 @@ import java.util.List;
  * 触摸事件处理帮助类<br>
  */
 public class HTouchHelper {
-    private float mCurrentX;
-    private float mCurrentY;
+    private final HTouchTracker mTracker;
 
-    private float mLastX;
-    private float mLastY;
+    private Direction mDirection = Direction.None;
 
-    private float mDownX;
-    private float mDownY;
+    public HTouchHelper() {
+        this(new HTouchTracker());
+    }
 
-    private Direction mDirection = Direction.None;
+    /**
+     * 使用外部输入事件的跟踪对象，外部处理完事件之后需要调用{@link #onTrackerProcessed(int)}
+     *
+     * @param tracker
+     */
+    HTouchHelper(HTouchTracker tracker) {
+        mTracker = tracker;
+    }
 
     /**
      * 处理触摸事件
@@ -32,46 +41,52 @@ public class HTouchHelper {
      * @param ev
      */
     public void processTouchEvent(MotionEvent ev) {
-        mLastX = mCurrentX;
-        mLastY = mCurrentY;
-
-        mCurrentX = ev.getRawX();
-        mCurrentY = ev.getRawY();
-
-        final int aciton = ev.getAction();
-        switch (aciton) {
-            case MotionEvent.ACTION_DOWN:
-                mDownX = mCurrentX;
-                mDownY = mCurrentY;
-                setDirection(Direction.None);
-                break;
-            default:
-                break;
-        }
+        final int action = ev.getAction();
+        mTracker.process(action, ev.getRawX(), ev.getRawY(), ev.getEventTime());
+        onTrackerProcessed(action);
+    }
+
+    /**
+     * 跟踪对象处理完一个事件
+     *
+     * @param action
+     */
+    void onTrackerProcessed(int action) {
+        if (action == MotionEvent.ACTION_DOWN)
+            setDirection(Direction.None);
+    }
+
+    /**
+     * 返回不依赖Android的触摸点跟踪对象
+     *
+     * @return
+     */
+    public HTouchTracker getTracker() {
+        return mTracker;
     }
 
     public float getCurrentX() {
-        return mCurrentX;
+        return mTracker.getCurrentX();
     }
 
     public float getCurrentY() {
-        return mCurrentY;
+        return mTracker.getCurrentY();
     }
 
     public float getLastX() {
-        return mLastX;
+        return mTracker.getLastX();
     }
 
     public float getLastY() {
-        return mLastY;
+        return mTracker.getLastY();
     }
 
     public float getDownX() {
-        return mDownX;
+        return mTracker.getDownX();
     }
 
     public float getDownY() {
-        return mDownY;
+        return mTracker.getDownY();
     }
 
     //---------- Delta Start ----------
@@ -82,14 +97,14 @@ public class HTouchHelper {
      * @return
      */
     public float getDeltaX() {
-        return mCurrentX - mLastX;
+        return mTracker.getDeltaX();
     }
 
     /**
      * 返回当前事件和上一次事件之间的y轴方向增量
      */
     public float getDeltaY() {
-        return mCurrentY - mLastY;
+        return mTracker.getDeltaY();
     }
 
     /**
@@ -98,7 +113,7 @@ public class HTouchHelper {
      * @return
      */
     public float getDeltaXFromDown() {
-        return mCurrentX - mDownX;
+        return mTracker.getDeltaXFromDown();
     }
 
     /**
@@ -107,7 +122,7 @@ public class HTouchHelper {
      * @return
      */
     public float getDeltaYFromDown() {
-        return mCurrentY - mDownY;
+        return mTracker.getDeltaYFromDown();
     }
 
     //---------- Delta End ----------
@@ -121,13 +136,7 @@ public class HTouchHelper {
      * @return
      */
     public double getDegreeX() {
-        final float dx = getDeltaX();
-        if (dx == 0)
-            return 0;
-
-        final float dy = getDeltaY();
-        final float angle = Math.abs(dy) / Math.abs(dx);
-        return Math.toDegrees(Math.atan(angle));
+        return mTracker.getDegreeX();
     }
 
     /**
@@ -136,13 +145,7 @@ public class HTouchHelper {
      * @return
      */
     public double getDegreeY() {
-        final float dy = getDeltaY();
-        if (dy == 0)
-            return 0;
-
-        final float dx = getDeltaX();
-        final float angle = Math.abs(dx) / Math.abs(dy);
-        return Math.toDegrees(Math.atan(angle));
+        return mTracker.getDegreeY();
     }
 
     /**
@@ -151,13 +154,7 @@ public class HTouchHelper {
      * @return
      */
     public double getDegreeXFromDown() {
-        final float dx = getDeltaXFromDown();
-        if (dx == 0)
-            return 0;
-
-        final float dy = getDeltaYFromDown();
-        final float angle = Math.abs(dy) / Math.abs(dx);
-        return Math.toDegrees(Math.atan(angle));
+        return mTracker.getDegreeXFromDown();
     }
 
     /**
@@ -166,13 +163,7 @@ public class HTouchHelper {
      * @return
      */
     public double getDegreeYFromDown() {
-        final float dy = getDeltaYFromDown();
-        if (dy == 0)
-            return 0;
-
-        final float dx = getDeltaXFromDown();
-        final float angle = Math.abs(dx) / Math.abs(dy);
-        return Math.toDegrees(Math.atan(angle));
+        return mTracker.getDegreeYFromDown();
     }
 
     //---------- Degree End ----------
@@ -289,18 +280,12 @@ public class HTouchHelper {
      * @return
      */
     public boolean isClick(MotionEvent event, Context context) {
-        if (event.getAction() == MotionEvent.ACTION_UP) {
-            final long clickTimeout = ViewConfiguration.getPressedStateDuration() + ViewConfiguration.getTapTimeout();
-            final int touchSlop = ViewConfiguration.get(context).getScaledTouchSlop();
-
-            final long duration = event.getEventTime() - event.getDownTime();
-            final int dx = (int) getDeltaXFromDown();
-            final int dy = (int) getDeltaYFromDown();
+        if (event.getAction() != MotionEvent.ACTION_UP)
+            return false;
 
-            if (duration < clickTimeout && dx < touchSlop && dy < touchSlop)
-                return true;
-        }
-        return false;
+        final long clickTimeout = ViewConfiguration.getPressedStateDuration() + ViewConfiguration.getTapTimeout();
+        final int touchSlop = ViewConfiguration.get(context).getScaledTouchSlop();
+        return mTracker.isClick(HTouchTracker.ACTION_UP, clickTimeout, touchSlop);
     }
 
     //----------static method start----------
@@ -315,16 +300,7 @@ public class HTouchHelper {
      * @return
      */
     public static int getLegalDelta(int current, int min, int max, int delta) {
-        if (delta == 0)
-            return 0;
-
-        final int future = current + delta;
-        if (future < min) {
-            delta += (min - future);
-        } else if (future > max) {
-            delta += (max - future);
-        }
-        return delta;
+        return HSwitchRules.getLegalDelta(current, min, max, delta);
     }
 
     /**
@@ -461,8 +437,8 @@ public class HTouchHelper {
 
     public StringBuilder getDebugInfo() {
         final StringBuilder sb = new StringBuilder("\r\n")
-                .append("Down:").append(mDownX).append(",").append(mDownY).append("\r\n")
-                .append("Current:").append(mCurrentX).append(",").append(mCurrentY).append("\r\n")
+                .append("Down:").append(getDownX()).append(",").append(getDownY()).append("\r\n")
+                .append("Current:").append(getCurrentX()).append(",").append(getCurrentY()).append("\r\n")
 
                 .append("Delta from down:").append(getDeltaXFromDown()).append(",").append(getDeltaYFromDown()).append("\r\n")
                 .append("Delta from last:").append(getDeltaX()).append(",").append(getDeltaY()).append("\r\n")
@@ -0,0 +1,42 @@
+package com.zzh.lib.switchbutton.gesture;
+
+import android.graphics.Rect;
+import android.view.View;
+
+import androidx.core.view.ViewCompat;
+
+/**
+ * 可见性帮助类，判断view是否有像素显示在屏幕上，不可见的时候不需要执行动画
+ */
+public class HVisibilityHelper {
+    private final View mView;
+    private final Rect mVisibleRect = new Rect();
+
+    public HVisibilityHelper(View view) {
+        mView = view;
+    }
+
+    /**
+     * view是否在屏幕上可见
+     *
+     * @return
+     */
+    public boolean isVisibleOnScreen() {
+        return isVisibleOnScreen(mView, mVisibleRect);
+    }
+
+    /**
+     * view是否在屏幕上可见：已经attach，窗口可见，自己和所有父view可见，并且没有被滚出父view的范围
+     *
+     * @param view
+     * @param outRect 保存可见区域
+     * @return
+     */
+    public static boolean isVisibleOnScreen(View view, Rect outRect) {
+        if (!ViewCompat.isAttachedToWindow(view))
+            return false;
+        if (view.getWindowVisibility() != View.VISIBLE)
+            return false;
+        return view.isShown() && view.getLocalVisibleRect(outRect);
+    }
+}